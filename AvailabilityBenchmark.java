@@ -0,0 +1,90 @@
+// AVAILABILITY BENCHMARK
+// How fast "is this room free for these dates?" and a room search are with a big, busy hotel
+// Usage: java -Xmx1g AvailabilityBenchmark [rooms] [bookings] [queries] [rounds]
+//   defaults: 10000 1000000 20000 5 (1M bookings run in a 600 MB heap; more leaves the GC out of the max)
+// Books `bookings` random stays of 1-3 nights over the next three years into `rooms` rooms
+// (about 100 per room), through ReservationEngine like the desks do, then times random queries:
+//   isFree     RoomCalendar.isFree() for a random room and stay: one binary search in the room's ranges
+//   search     the booking form's search (HotelService.search): free rooms of a random type for a
+//              random stay, cheapest first, stopping at HotelService.MAX_RESULTS
+//   whole type the same search without the limit, so it checks the calendar of every room of the type
+// The first round is warm-up and not counted; the table shows the median over the other rounds
+// of each query kind's p50, p99 and max.
+
+class AvailabilityBenchmark {
+    private RoomRepository rooms = new RoomRepository();
+    private ReservationEngine bookings = new ReservationEngine(rooms);
+    private java.util.List<Room> all;
+    private int today = RoomCalendar.today();
+    private long sink;   // Results are counted here so the JIT cannot drop the queries
+    
+    public AvailabilityBenchmark(int roomCount, int bookingCount) {
+        for (int i = 0; i < roomCount; i++) {
+            rooms.add(new Room(10_000 + i, "Benchmark Room " + i, 1000 + 50 * (i % 40), 1 + i % 4, RoomRepository.TYPES[i % RoomRepository.TYPES.length]));
+        }
+        all = new java.util.ArrayList<>(rooms.all());
+        java.util.Random random = new java.util.Random(1);
+        while (bookings.size() < bookingCount) {
+            Room room = all.get(random.nextInt(all.size()));
+            int checkin = today + random.nextInt(3 * 365);
+            int checkout = checkin + 1 + random.nextInt(3);
+            if (bookings.tryReserve(room, checkin, checkout)) {
+                bookings.add(new Booking(bookings.nextId(), "guest1", room.getRoomNumber(), checkin, checkout,
+                    1, room.getPrice(), "Cash", (byte) 28, (byte) 24));
+            }
+        }
+    }
+    
+    // Nanoseconds per query for `queries` random queries of one kind (0 isFree, 1 search, 2 whole type)
+    private long[] time(int kind, int queries, java.util.Random random) {
+        long[] nanos = new long[queries];
+        for (int q = 0; q < queries; q++) {
+            int checkin = today + random.nextInt(3 * 365);
+            int checkout = checkin + 1 + random.nextInt(7);
+            long start = System.nanoTime();
+            if (kind == 0) {
+                sink += all.get(random.nextInt(all.size())).getCalendar().isFree(checkin, checkout) ? 1 : 0;
+            } else {
+                String type = RoomRepository.TYPES[random.nextInt(RoomRepository.TYPES.length)];
+                int limit = kind == 1 ? HotelService.MAX_RESULTS : Integer.MAX_VALUE;
+                sink += rooms.search(type, checkin, checkout, 1, 0, Double.MAX_VALUE, 0, limit).size();
+            }
+            nanos[q] = System.nanoTime() - start;
+        }
+        java.util.Arrays.sort(nanos);
+        return nanos;
+    }
+    
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        java.util.Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+    
+    public static void main(String[] args) {
+        int roomCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int bookingCount = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int queries = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        long began = System.nanoTime();
+        AvailabilityBenchmark bench = new AvailabilityBenchmark(roomCount, bookingCount);
+        System.out.printf("%,d rooms, %,d bookings (built in %.1f s), %,d queries per round, median of %d rounds after warm-up%n",
+            roomCount, bookingCount, (System.nanoTime() - began) / 1e9, queries, rounds);
+        
+        String[] kinds = {"isFree", "search", "whole type"};
+        System.out.printf("%-11s %10s %10s %10s%n", "query", "p50 us", "p99 us", "max us");
+        java.util.Random random = new java.util.Random(2);
+        for (int k = 0; k < kinds.length; k++) {
+            double[][] stats = new double[3][rounds];
+            for (int r = 0; r <= rounds; r++) {
+                long[] nanos = bench.time(k, queries, random);
+                if (r > 0) {   // Round 0 warms up the JIT
+                    stats[0][r - 1] = nanos[nanos.length / 2] / 1e3;
+                    stats[1][r - 1] = nanos[nanos.length * 99 / 100] / 1e3;
+                    stats[2][r - 1] = nanos[nanos.length - 1] / 1e3;
+                }
+            }
+            System.out.printf("%-11s %10.2f %10.2f %10.1f%n", kinds[k], median(stats[0]), median(stats[1]), median(stats[2]));
+        }
+    }
+}
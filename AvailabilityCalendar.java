@@ -0,0 +1,148 @@
+// AVAILABILITY CALENDAR
+// Month grid used by the date picker, painted directly instead of one button per day
+// Each day is shaded by how many rooms of the selected type are still free that night
+// (green = plenty, amber = few left, red = sold out), so staff can spot sold-out
+// dates before running a search. The free counts for the whole month are read from
+// OccupancyForecast in one pass when the month changes; moving between months only
+// refills one small array and repaints. Nights outside the forecast window (past
+// nights, or more than two years out) show every room as free.
+
+import java.awt.*;
+import javax.swing.*;
+
+class AvailabilityCalendar extends JComponent {
+    private static final String[] DAY_NAMES = {"Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat"};
+    private static final Font HEADER_FONT = new Font("Segoe UI", Font.BOLD, 12);
+    private static final Font DAY_FONT = new Font("Segoe UI", Font.PLAIN, 14);
+    private static final Font LEFT_FONT = new Font("Segoe UI", Font.PLAIN, 9);
+    private static final Color PLENTY = new Color(212, 237, 218);
+    private static final Color FEW_LEFT = new Color(255, 236, 179);
+    private static final Color SOLD_OUT = new Color(248, 215, 218);
+    private static final Color GRID = new Color(220, 220, 220);
+    private static final int GAP = 5;
+    
+    private String roomType;          // Type whose availability is shown (null = no shading)
+    private int firstDay;             // Epoch day of the 1st of the shown month
+    private int length;               // Days in the month
+    private int lead;                 // Empty cells before the 1st (0 = month starts on Sunday)
+    private int totalRooms;           // Rooms of the type
+    private int[] roomsLeft = new int[0];   // Free rooms per day of the month
+    private int hover = -1;           // Day of the month under the mouse (0-based), or -1
+    private java.util.function.IntConsumer onPick;   // Called with the epoch day that was clicked
+    
+    public AvailabilityCalendar(String roomType, java.util.function.IntConsumer onPick) {
+        this.roomType = roomType;
+        this.onPick = onPick;
+        setPreferredSize(new Dimension(380, 320));
+        
+        java.awt.event.MouseAdapter mouse = new java.awt.event.MouseAdapter() {
+            @Override
+            public void mouseMoved(java.awt.event.MouseEvent e) {
+                setHover(dayAt(e.getPoint()));
+            }
+            
+            @Override
+            public void mouseExited(java.awt.event.MouseEvent e) {
+                setHover(-1);
+            }
+            
+            @Override
+            public void mouseClicked(java.awt.event.MouseEvent e) {
+                int day = dayAt(e.getPoint());
+                if (day >= 0) {
+                    onPick.accept(firstDay + day);
+                }
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+    }
+    
+    // Show a month (1-12) and load its availability
+    public void setMonth(int year, int month) {
+        java.time.LocalDate first = java.time.LocalDate.of(year, month, 1);
+        firstDay = (int) first.toEpochDay();
+        length = first.lengthOfMonth();
+        lead = first.getDayOfWeek().getValue() % 7;   // Monday = 1 ... Sunday = 7 -> 0
+        
+        roomsLeft = new int[length];
+        if (roomType != null) {
+            totalRooms = SerenitySuitesHMS.rooms.byType(roomType).size();
+            int[] occupied = SerenitySuitesHMS.bookings.forecast().occupiedRooms(roomType, firstDay, length);
+            for (int d = 0; d < length; d++) {
+                roomsLeft[d] = Math.max(0, totalRooms - occupied[d]);
+            }
+        }
+        hover = -1;
+        repaint();
+    }
+    
+    private void setHover(int day) {
+        if (day != hover) {
+            hover = day;
+            setCursor(day >= 0 ? Cursor.getPredefinedCursor(Cursor.HAND_CURSOR) : Cursor.getDefaultCursor());
+            repaint();
+        }
+    }
+    
+    // Day of the month (0-based) under a point, or -1 for headers and empty cells
+    private int dayAt(Point p) {
+        int col = p.x * 7 / Math.max(1, getWidth());
+        int row = p.y * 7 / Math.max(1, getHeight());
+        int day = (row - 1) * 7 + col - lead;
+        return row >= 1 && col < 7 && day >= 0 && day < length ? day : -1;
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setColor(getBackground() != null ? getBackground() : Color.WHITE);
+        g2.fillRect(0, 0, getWidth(), getHeight());
+        double cellW = getWidth() / 7.0, cellH = getHeight() / 7.0;
+        
+        g2.setFont(HEADER_FONT);
+        g2.setColor(SerenitySuitesHMS.PRIMARY);
+        for (int c = 0; c < 7; c++) {
+            drawCentered(g2, DAY_NAMES[c], (int) (c * cellW), 0, (int) cellW, (int) cellH);
+        }
+        
+        for (int d = 0; d < length; d++) {
+            int cell = lead + d;
+            int x = (int) ((cell % 7) * cellW) + GAP / 2, y = (int) ((cell / 7 + 1) * cellH) + GAP / 2;
+            int w = (int) cellW - GAP, h = (int) cellH - GAP;
+            
+            g2.setColor(d == hover ? SerenitySuitesHMS.PRIMARY : shade(d));
+            g2.fillRect(x, y, w, h);
+            g2.setColor(GRID);
+            g2.drawRect(x, y, w, h);
+            
+            g2.setColor(d == hover ? Color.WHITE : Color.BLACK);
+            g2.setFont(DAY_FONT);
+            if (roomType == null) {
+                drawCentered(g2, String.valueOf(d + 1), x, y, w, h);
+            } else {
+                drawCentered(g2, String.valueOf(d + 1), x, y, w, h * 2 / 3);
+                g2.setFont(LEFT_FONT);
+                drawCentered(g2, roomsLeft[d] == 0 ? "full" : roomsLeft[d] + " left", x, y + h / 2, w, h / 2);
+            }
+        }
+        g2.dispose();
+    }
+    
+    // Background for a day: by share of the type's rooms still free
+    private Color shade(int day) {
+        if (roomType == null || totalRooms == 0) {
+            return Color.WHITE;
+        }
+        if (roomsLeft[day] == 0) {
+            return SOLD_OUT;
+        }
+        return roomsLeft[day] * 4 <= totalRooms ? FEW_LEFT : PLENTY;   // A quarter or less left
+    }
+    
+    private static void drawCentered(Graphics2D g2, String text, int x, int y, int w, int h) {
+        FontMetrics fm = g2.getFontMetrics();
+        g2.drawString(text, x + (w - fm.stringWidth(text)) / 2, y + (h - fm.getHeight()) / 2 + fm.getAscent());
+    }
+}
@@ -0,0 +1,73 @@
+// BACKGROUND TASKS
+// Runs searches, bookings and other slow work off the Swing event thread (EDT)
+// Work runs on a small pool of daemon worker threads; its result (or error) is
+// handed back to the EDT with SwingUtilities.invokeLater, so callbacks may touch
+// Swing components as usual.
+// Latest keeps only the newest task of one kind (e.g. a room search): starting a new
+// one cancels the old one, and an old result that still arrives is dropped.
+
+import javax.swing.SwingUtilities;
+
+class BackgroundTasks {
+    private static final java.util.concurrent.atomic.AtomicInteger threadCount = new java.util.concurrent.atomic.AtomicInteger();
+    private static final java.util.concurrent.ExecutorService POOL = java.util.concurrent.Executors.newFixedThreadPool(
+        Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+            Thread t = new Thread(r, "hms-worker-" + threadCount.incrementAndGet());
+            t.setDaemon(true);   // Never keeps the app alive after the window closes
+            return t;
+        });
+    
+    // Run work on a worker thread; onDone gets the result on the EDT, onError any exception it threw
+    // Nothing is delivered if the task is cancelled
+    public static <T> java.util.concurrent.Future<?> run(java.util.concurrent.Callable<T> work,
+            java.util.function.Consumer<T> onDone, java.util.function.Consumer<Exception> onError) {
+        return POOL.submit(() -> {
+            try {
+                T result = work.call();
+                SwingUtilities.invokeLater(() -> onDone.accept(result));
+            } catch (java.util.concurrent.CancellationException | InterruptedException e) {
+                // Cancelled: the caller no longer wants the result
+            } catch (Exception e) {
+                SwingUtilities.invokeLater(() -> onError.accept(e));
+            }
+        });
+    }
+    
+    // Call inside long loops so a cancelled task stops early
+    public static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new java.util.concurrent.CancellationException();
+        }
+    }
+    
+    // Slot for one kind of task where only the most recent request matters
+    // Use from the EDT only
+    static class Latest {
+        private java.util.concurrent.Future<?> current;
+        private int generation;   // Bumped on every submit/cancel; results from older generations are dropped
+        
+        public <T> void submit(java.util.concurrent.Callable<T> work,
+                java.util.function.Consumer<T> onDone, java.util.function.Consumer<Exception> onError) {
+            cancel();
+            int mine = generation;
+            current = run(work, result -> {
+                if (mine == generation) {
+                    onDone.accept(result);
+                }
+            }, e -> {
+                if (mine == generation) {
+                    onError.accept(e);
+                }
+            });
+        }
+        
+        // Stop the pending task (if any) and ignore whatever it still produces
+        public void cancel() {
+            generation++;
+            if (current != null) {
+                current.cancel(true);
+                current = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+// BOOKING COLUMNS
+// Column-by-column copy of every booking, for reports that scan the whole history
+// Walking a list of Booking objects means jumping to a different object (and its
+// strings) for every row. Here each field is its own primitive array (room, room
+// type, check-in/check-out epoch days, guests, total price, discount, payment method),
+// so a report reads a few arrays front to back and the CPU streams them from memory.
+// - rows are stored at their booking ID, so adding a booking is a few array writes
+//   and cancelling one just clears its "live" flag (a tombstone); nothing is moved
+// - arrays come in fixed-size chunks that are never copied, so the store grows
+//   without pausing and readers never see an array being replaced
+// ReservationEngine keeps it in step with every booking and cancellation. Writers take
+// the store's lock; scans do not. A scan counts every booking stored before it started;
+// bookings made or cancelled while it runs may or may not be counted.
+
+class BookingColumns {
+    static final int CHUNK_BITS = 16;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;               // Rows per chunk (65,536)
+    static final byte NO_TYPE = -1;                               // Room type not in RoomRepository.TYPES
+    static final char OTHER_PAYMENT = Character.MAX_VALUE;        // Shared code once every other code is taken
+    
+    private RoomRepository rooms;
+    private volatile Chunk[] chunks = new Chunk[0];               // Chunk i holds booking IDs [i * CHUNK_SIZE, (i + 1) * CHUNK_SIZE); null if none yet
+    private volatile int limit;                                   // One past the highest booking ID stored; written last by every change
+    private java.util.List<String> paymentNames = new java.util.concurrent.CopyOnWriteArrayList<>();   // Payment code -> method name
+    private java.util.Map<String, Character> paymentCodes = new java.util.HashMap<>();                  // Method name -> code (writers only)
+    
+    // One block of rows; a row is empty until its booking is stored
+    static class Chunk {
+        final int[] room = new int[CHUNK_SIZE];
+        final byte[] type = new byte[CHUNK_SIZE];                 // Index into RoomRepository.TYPES, or NO_TYPE
+        final int[] checkin = new int[CHUNK_SIZE];                // Epoch days
+        final int[] checkout = new int[CHUNK_SIZE];
+        final short[] guests = new short[CHUNK_SIZE];
+        final double[] price = new double[CHUNK_SIZE];            // Total paid, after discount
+        final byte[] discount = new byte[CHUNK_SIZE];             // Percent
+        final char[] payment = new char[CHUNK_SIZE];              // Payment method, as a code into paymentNames
+        final boolean[] live = new boolean[CHUNK_SIZE];           // False for empty rows and cancelled bookings
+    }
+    
+    // Totals over the bookings a scan matched, overall and per room type (indexed like RoomRepository.TYPES)
+    static class Summary {
+        long bookings;
+        double revenue;
+        long roomNights;
+        long guests;
+        long discountPercentSum;
+        final long[] bookingsByType = new long[RoomRepository.TYPES.length];
+        final double[] revenueByType = new double[RoomRepository.TYPES.length];
+        final long[] roomNightsByType = new long[RoomRepository.TYPES.length];
+        
+        // Add another part of the same scan (used when a scan is split over threads)
+        void add(Summary other) {
+            bookings += other.bookings;
+            revenue += other.revenue;
+            roomNights += other.roomNights;
+            guests += other.guests;
+            discountPercentSum += other.discountPercentSum;
+            for (int t = 0; t < bookingsByType.length; t++) {
+                bookingsByType[t] += other.bookingsByType[t];
+                revenueByType[t] += other.revenueByType[t];
+                roomNightsByType[t] += other.roomNightsByType[t];
+            }
+        }
+        
+        // Average price of a night sold (ADR), 0 if none
+        double averageDailyRate() {
+            return roomNights == 0 ? 0 : revenue / roomNights;
+        }
+    }
+    
+    public BookingColumns(RoomRepository rooms) {
+        this.rooms = rooms;
+    }
+    
+    // ===== Updates (called by ReservationEngine) =====
+    
+    public synchronized void bookingAdded(Booking b) {
+        int id = b.getId();
+        Chunk c = chunkFor(id);
+        int i = id & (CHUNK_SIZE - 1);
+        Room room = rooms.get(b.getRoomNumber());
+        c.room[i] = b.getRoomNumber();
+        c.type[i] = room == null ? NO_TYPE : typeCode(room.getType());
+        c.checkin[i] = b.getCheckinDay();
+        c.checkout[i] = b.getCheckoutDay();
+        c.guests[i] = (short) b.getGuests();
+        c.price[i] = b.getTotalPrice();
+        c.discount[i] = (byte) b.getDiscountPercent();
+        c.payment[i] = paymentCode(b.getPayment());
+        c.live[i] = true;
+        publish(id);
+    }
+    
+    public synchronized void bookingCancelled(Booking b) {
+        int id = b.getId();
+        Chunk[] cs = chunks;
+        int n = id >>> CHUNK_BITS;
+        if (n < cs.length && cs[n] != null) {
+            cs[n].live[id & (CHUNK_SIZE - 1)] = false;
+        }
+        publish(id);
+    }
+    
+    // Every change ends with a write of limit, so a scan that reads it first sees the change
+    private void publish(int id) {
+        limit = Math.max(limit, id + 1);
+    }
+    
+    // The chunk for a booking ID, allocating it (and growing the chunk table) if needed
+    private Chunk chunkFor(int id) {
+        int n = id >>> CHUNK_BITS;
+        Chunk[] cs = chunks;
+        if (n >= cs.length) {
+            cs = java.util.Arrays.copyOf(cs, Math.max(n + 1, cs.length * 2));
+        }
+        if (cs[n] == null) {
+            cs[n] = new Chunk();
+        }
+        chunks = cs;
+        return cs[n];
+    }
+    
+    // Code of a room type: its index in RoomRepository.TYPES, or NO_TYPE
+    static byte typeCode(String type) {
+        for (int t = 0; t < RoomRepository.TYPES.length; t++) {
+            if (RoomRepository.TYPES[t].equals(type)) {
+                return (byte) t;
+            }
+        }
+        return NO_TYPE;
+    }
+    
+    // Code of the payment method, without the card number (e.g. "GCash (****1234)" -> code of "GCash")
+    private char paymentCode(String payment) {
+        String method = payment == null ? "" : payment;
+        int paren = method.indexOf(" (");
+        if (paren >= 0) {
+            method = method.substring(0, paren);
+        }
+        Character code = paymentCodes.get(method);
+        if (code == null) {
+            // HotelService only books the methods a guest can pick, so there are a handful. Should the
+            // table still fill up, the rest share one "Other" code: a booking is never refused here.
+            if (paymentNames.size() >= OTHER_PAYMENT) {
+                return OTHER_PAYMENT;
+            }
+            code = (char) paymentNames.size();
+            paymentNames.add(method);
+            paymentCodes.put(method, code);
+        }
+        return code;
+    }
+    
+    // ===== Scans =====
+    
+    // One past the highest booking ID stored (scans cover IDs [0, limit()))
+    public int limit() {
+        return limit;
+    }
+    
+    // Name of the payment method a code in the payment column stands for
+    public String paymentName(int code) {
+        return code == OTHER_PAYMENT ? "Other" : paymentNames.get(code);
+    }
+    
+    // Totals for the live bookings that check in on a day in [fromDay, toDay)
+    public Summary summarize(int fromDay, int toDay) {
+        return summarize(fromDay, toDay, 0, limit);
+    }
+    
+    // Same, for booking IDs [firstId, endId) only, so a scan can be split into parts
+    public Summary summarize(int fromDay, int toDay, int firstId, int endId) {
+        Summary s = new Summary();
+        Chunk[] cs = chunks;
+        int end = Math.min(endId, cs.length * CHUNK_SIZE);
+        for (int id = firstId; id < end; ) {
+            Chunk c = cs[id >>> CHUNK_BITS];
+            int chunkEnd = Math.min(end, ((id >>> CHUNK_BITS) + 1) << CHUNK_BITS);
+            if (c != null) {
+                // Plain loops over the primitive arrays of one chunk
+                for (int i = id & (CHUNK_SIZE - 1), last = i + (chunkEnd - id); i < last; i++) {
+                    int ci = c.checkin[i];
+                    if (c.live[i] && ci >= fromDay && ci < toDay) {
+                        double price = c.price[i];
+                        int nights = c.checkout[i] - ci;
+                        s.bookings++;
+                        s.revenue += price;
+                        s.roomNights += nights;
+                        s.guests += c.guests[i];
+                        s.discountPercentSum += c.discount[i];
+                        int t = c.type[i];
+                        if (t >= 0) {
+                            s.bookingsByType[t]++;
+                            s.revenueByType[t] += price;
+                            s.roomNightsByType[t] += nights;
+                        }
+                    }
+                }
+            }
+            id = chunkEnd;
+        }
+        return s;
+    }
+    
+    // Add the live bookings with booking IDs [firstId, endId) to per-night buckets for the nights [fromDay, toDay):
+    // nights[type][day - fromDay] += 1 and revenue[type][day - fromDay] += that night's share of the price,
+    // for each night of each stay in the range. Row type = room type code, or the last row for NO_TYPE.
+    public void addNights(int fromDay, int toDay, int firstId, int endId, double[][] revenue, int[][] nights) {
+        Chunk[] cs = chunks;
+        int end = Math.min(endId, cs.length * CHUNK_SIZE);
+        int other = revenue.length - 1;
+        for (int id = firstId; id < end; ) {
+            Chunk c = cs[id >>> CHUNK_BITS];
+            int chunkEnd = Math.min(end, ((id >>> CHUNK_BITS) + 1) << CHUNK_BITS);
+            if (c != null) {
+                for (int i = id & (CHUNK_SIZE - 1), last = i + (chunkEnd - id); i < last; i++) {
+                    int ci = c.checkin[i];
+                    int stay = Math.max(1, c.checkout[i] - ci);   // Same as Booking: at least one night
+                    if (c.live[i] && ci < toDay && ci + stay > fromDay) {
+                        double perNight = c.price[i] / stay;
+                        int t = c.type[i] >= 0 ? c.type[i] : other;
+                        for (int day = Math.max(ci, fromDay), stop = Math.min(ci + stay, toDay); day < stop; day++) {
+                            nights[t][day - fromDay]++;
+                            revenue[t][day - fromDay] += perNight;
+                        }
+                    }
+                }
+            }
+            id = chunkEnd;
+        }
+    }
+}
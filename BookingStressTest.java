@@ -0,0 +1,147 @@
+// BOOKING STRESS TEST
+// Many desks booking and cancelling the same few rooms at once, then a check that nothing was double-sold
+// Usage: java BookingStressTest [threads] [rooms] [attempts per thread]
+//   defaults: 32 8 20000
+// Each thread loops over random stays of 1-4 nights in the next 30 nights (so most of them
+// overlap) on a handful of rooms: tryReserve, then add the booking; every fourth step instead
+// cancels a random booking ID, which may belong to another thread or be gone already.
+// Everything runs in memory (no journal), straight on ReservationEngine.
+// Afterwards it checks that:
+// - no room has two bookings sharing a night, and each room's calendar holds exactly its bookings
+// - stored bookings = successful adds - successful cancels, and the dashboard counter agrees
+// - the booking columns and the occupancy forecast count the same bookings and nights as the map
+// Prints the counts and every problem found; exits with status 1 if there was any.
+
+class BookingStressTest {
+    private static final int WINDOW = 30;       // Nights the stays are drawn from
+    private static final int MAX_NIGHTS = 4;
+    
+    private RoomRepository rooms = new RoomRepository();
+    private ReservationEngine bookings = new ReservationEngine(rooms);
+    private java.util.List<Room> roomList = new java.util.ArrayList<>();
+    private int firstDay = RoomCalendar.today() + 1;
+    private java.util.concurrent.atomic.LongAdder refused = new java.util.concurrent.atomic.LongAdder();
+    private java.util.concurrent.atomic.LongAdder added = new java.util.concurrent.atomic.LongAdder();
+    private java.util.concurrent.atomic.LongAdder cancelled = new java.util.concurrent.atomic.LongAdder();
+    private java.util.List<String> problems = new java.util.ArrayList<>();
+    
+    public BookingStressTest(int roomCount) {
+        for (int i = 0; i < roomCount; i++) {
+            Room r = new Room(101 + i, "Stress Room " + (i + 1), 1000 + 100 * i, 4, RoomRepository.TYPES[i % RoomRepository.TYPES.length]);
+            rooms.add(r);
+            roomList.add(r);
+        }
+    }
+    
+    // Run `threads` desks of `attempts` steps each, all released at the same moment
+    public void run(int threads, int attempts) throws InterruptedException {
+        java.util.concurrent.CountDownLatch start = new java.util.concurrent.CountDownLatch(1);
+        Thread[] desks = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            desks[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                desk(attempts);
+            }, "desk-" + (t + 1));
+            desks[t].start();
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Thread desk : desks) {
+            desk.join();
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        System.out.printf("%d threads x %d steps on %d rooms in %.2f s (%.0f steps/s)%n", threads, attempts, roomList.size(),
+            seconds, threads * (double) attempts / seconds);
+        System.out.printf("added %d, refused (night taken) %d, cancelled %d, stored %d%n",
+            added.sum(), refused.sum(), cancelled.sum(), bookings.size());
+    }
+    
+    private void desk(int attempts) {
+        java.util.concurrent.ThreadLocalRandom random = java.util.concurrent.ThreadLocalRandom.current();
+        for (int i = 0; i < attempts; i++) {
+            if (random.nextInt(4) == 0 && bookings.lastId() > 0) {
+                if (bookings.cancel(1 + random.nextInt(bookings.lastId())) != null) {
+                    cancelled.increment();
+                }
+                continue;
+            }
+            Room room = roomList.get(random.nextInt(roomList.size()));
+            int checkin = firstDay + random.nextInt(WINDOW - MAX_NIGHTS);
+            int checkout = checkin + 1 + random.nextInt(MAX_NIGHTS);
+            if (!bookings.tryReserve(room, checkin, checkout)) {
+                refused.increment();
+                continue;
+            }
+            bookings.add(new Booking(bookings.nextId(), "stress", room.getRoomNumber(), checkin, checkout, 1,
+                room.getPrice(), "Cash", (byte) 28, (byte) 24));
+            added.increment();
+        }
+    }
+    
+    // Check every invariant; returns the problems found
+    public java.util.List<String> verify() {
+        java.util.Map<Integer, java.util.List<Booking>> byRoom = new java.util.HashMap<>();
+        for (Booking b : bookings.all()) {
+            byRoom.computeIfAbsent(b.getRoomNumber(), n -> new java.util.ArrayList<>()).add(b);
+        }
+        int[] nightCounts = new int[WINDOW];
+        for (Room r : roomList) {
+            java.util.List<Booking> stays = byRoom.getOrDefault(r.getRoomNumber(), new java.util.ArrayList<>());
+            stays.sort(java.util.Comparator.comparingInt(Booking::getCheckinDay));
+            for (int i = 1; i < stays.size(); i++) {
+                Booking before = stays.get(i - 1), after = stays.get(i);
+                if (after.getCheckinDay() < before.getCheckoutDay()) {
+                    problems.add("Room " + r.getRoomNumber() + ": bookings #" + before.getId() + " and #" + after.getId() + " overlap");
+                }
+            }
+            for (Booking b : stays) {
+                if (r.getCalendar().isFree(b.getCheckinDay(), b.getCheckoutDay())) {
+                    problems.add("Room " + r.getRoomNumber() + ": booking #" + b.getId() + " is not on the calendar");
+                }
+                for (int day = b.getCheckinDay(); day < b.getCheckoutDay(); day++) {
+                    nightCounts[day - firstDay]++;
+                }
+            }
+            if (r.getCalendar().size() != stays.size()) {
+                problems.add("Room " + r.getRoomNumber() + ": calendar holds " + r.getCalendar().size() + " stays, bookings " + stays.size());
+            }
+        }
+        
+        long expected = added.sum() - cancelled.sum();
+        check("stored bookings", bookings.size(), expected);
+        check("dashboard bookings", bookings.stats().totalBookings(), expected);
+        check("guest bookings", bookings.forUser("stress").size(), expected);
+        check("column rows", bookings.columns().summarize(firstDay, firstDay + WINDOW).bookings, expected);
+        int[] forecast = bookings.forecast().occupiedRooms(null, firstDay, WINDOW);
+        for (int d = 0; d < WINDOW; d++) {
+            check("forecast rooms on " + java.time.LocalDate.ofEpochDay(firstDay + d), forecast[d], nightCounts[d]);
+        }
+        return problems;
+    }
+    
+    private void check(String what, long actual, long expected) {
+        if (actual != expected) {
+            problems.add(what + ": " + actual + ", expected " + expected);
+        }
+    }
+    
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int roomCount = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int attempts = args.length > 2 ? Integer.parseInt(args[2]) : 20000;
+        BookingStressTest test = new BookingStressTest(roomCount);
+        test.run(threads, attempts);
+        java.util.List<String> problems = test.verify();
+        for (String p : problems) {
+            System.out.println("PROBLEM: " + p);
+        }
+        System.out.println(problems.isEmpty() ? "OK: no double bookings, all counts match" : problems.size() + " problems");
+        if (!problems.isEmpty()) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+// BOOKING TABLE MODEL
+// Live table model for the admin bookings table
+// The table is built once; afterwards this model listens to the ReservationEngine
+// and applies each booking or cancellation as a single-row insert/delete event,
+// so the work per change does not depend on how many bookings are listed.
+// Rows are kept in booking-ID order; sorting and filtering are done by a
+// TableRowSorter on top of it, which only reorders row indexes and never copies bookings.
+// Engine events may come from any thread and are applied on the Swing event thread.
+
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+class BookingTableModel extends AbstractTableModel implements ReservationEngine.Listener {
+    static final int ACTION_COLUMN = 8;
+    private static final String[] COLUMNS = {"ID", "Guest", "Room", "Check-in", "Check-out", "Guests", "Total", "Payment", "Action"};
+    private static final Class<?>[] TYPES = {Integer.class, String.class, Integer.class, java.time.LocalDate.class, java.time.LocalDate.class,
+        Integer.class, Double.class, String.class, String.class};
+    
+    private java.util.ArrayList<Booking> rows = new java.util.ArrayList<>();   // Sorted by booking ID, only touched on the EDT
+    
+    // Show every booking in the engine and follow its changes from now on
+    public BookingTableModel(ReservationEngine engine) {
+        engine.addListener(this);   // Listen first so nothing booked during the copy below is missed
+        rows.addAll(engine.all());
+    }
+    
+    // ===== Engine events =====
+    
+    @Override
+    public void bookingAdded(Booking b) {
+        onEdt(() -> insert(b));
+    }
+    
+    @Override
+    public void bookingCancelled(Booking b) {
+        onEdt(() -> remove(b.getId()));
+    }
+    
+    // Always queued, even from the EDT, so rows never change in the middle of a table edit
+    // (the Cancel button cancels its own row while the editor is still open)
+    private static void onEdt(Runnable change) {
+        SwingUtilities.invokeLater(change);
+    }
+    
+    // Both updates ignore repeats, since a booking made while the model was being built
+    // can arrive both in the initial copy and as an event
+    private void insert(Booking b) {
+        int pos = indexOf(b.getId());
+        if (pos >= 0) {
+            return;
+        }
+        int row = -pos - 1;   // New IDs are the highest, so this is nearly always the end
+        rows.add(row, b);
+        fireTableRowsInserted(row, row);
+    }
+    
+    private void remove(int bookingId) {
+        int row = indexOf(bookingId);
+        if (row < 0) {
+            return;
+        }
+        rows.remove(row);
+        fireTableRowsDeleted(row, row);
+    }
+    
+    // Binary search by booking ID; returns -(insertion point) - 1 if absent
+    private int indexOf(int bookingId) {
+        int lo = 0, hi = rows.size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int id = rows.get(mid).getId();
+            if (id < bookingId) {
+                lo = mid + 1;
+            } else if (id > bookingId) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(lo + 1);
+    }
+    
+    // ===== TableModel =====
+    
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+    
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+    
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+    
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return TYPES[column];
+    }
+    
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column == ACTION_COLUMN;   // Only the Cancel button
+    }
+    
+    @Override
+    public Object getValueAt(int row, int column) {
+        Booking b = rows.get(row);
+        switch (column) {
+            case 0: return b.getId();
+            case 1: return b.getUsername();
+            case 2: return b.getRoomNumber();
+            case 3: return java.time.LocalDate.ofEpochDay(b.getCheckinDay());
+            case 4: return java.time.LocalDate.ofEpochDay(b.getCheckoutDay());
+            case 5: return b.getGuests();
+            case 6: return b.getTotalPrice();
+            case 7: return b.getPayment();
+            default: return "Cancel";
+        }
+    }
+}
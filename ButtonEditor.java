@@ -2,8 +2,8 @@
 // Custom editor for handling cancel button clicks in JTable cells
 // When a user clicks the Cancel button, this editor:
 // 1. Shows a confirmation dialog ("Are you sure?")
-// 2. If confirmed, removes the booking and marks the room as available
-// 3. Refreshes both admin dashboard AND rooms panel to show updated data immediately
+// 2. If confirmed, removes the booking and frees its dates on the room calendar
+// 3. The screens showing bookings and rooms refresh themselves from the cancellation event (see EventBus)
 
 import javax.swing.*;
 import javax.swing.table.TableCellEditor;
@@ -15,13 +15,9 @@ public class ButtonEditor extends DefaultCellEditor {
     protected JButton button;
     private String label;
     private boolean isPushed;
-    private AdminPanel adminPanel;   // Reference to admin panel to refresh after cancellation
-    private RoomsPanel roomsPanel;   // Reference to rooms panel to update room availability
 
-    public ButtonEditor(JCheckBox checkBox, AdminPanel adminPanel, RoomsPanel roomsPanel) {
+    public ButtonEditor(JCheckBox checkBox) {
         super(checkBox);
-        this.adminPanel = adminPanel;
-        this.roomsPanel = roomsPanel;  // Store reference to rooms panel
         
         // Create and style the button
         button = new JButton("Cancel");
@@ -63,36 +59,22 @@ public class ButtonEditor extends DefaultCellEditor {
  
         // If user clicked YES, proceed with cancellation
         if (response == JOptionPane.YES_OPTION) {
-            // Find the booking with matching ID and remove it
-            for (Booking b : SerenitySuitesHMS.bookings) {
-                if (b.getId() == bookingId) {
-                    SerenitySuitesHMS.bookings.remove(b);  // Remove from bookings list
-                    
-                    // Mark the room as available (not booked)
-                    for (Room r : SerenitySuitesHMS.rooms) {
-                        if (r.getRoomNumber() == b.getRoomNumber()) {
-                            r.setBooked(false);  // Room is now AVAILABLE
-                            break;
-                        }
-                    }
-                    
-                    // Show success message
-                    JOptionPane.showMessageDialog(SwingUtilities.getWindowAncestor(table),
-                        "Reservation #" + bookingId + " has been cancelled.\nRoom " + b.getRoomNumber() + " is now AVAILABLE.",
-                        "Success", JOptionPane.INFORMATION_MESSAGE);
-                    
-                    // Refresh the admin dashboard to show updated bookings and occupancy rate
-                    if (adminPanel != null) {
-                        adminPanel.refreshDashboard();
-                    }
-                    
-                    // Refresh the rooms panel to show room as available immediately
-                    if (roomsPanel != null) {
-                        roomsPanel.refreshRooms();
-                    }
-                    break;
+            Window window = SwingUtilities.getWindowAncestor(table);
+            // Remove the booking and free its dates on the room's calendar
+            // (on a worker thread, since the cancellation is saved to disk first)
+            BackgroundTasks.run(() -> SerenitySuitesHMS.service.cancel(bookingId, null), result -> {
+                if (!result.isOk()) {
+                    JOptionPane.showMessageDialog(window, result.message, result.title, JOptionPane.ERROR_MESSAGE);
+                    return;
                 }
-            }
+                Booking b = result.value;
+                // Show success message
+                JOptionPane.showMessageDialog(window,
+                    "Reservation #" + bookingId + " has been cancelled.\nRoom " + b.getRoomNumber() + " is now AVAILABLE for " + b.getCheckin() + " to " + b.getCheckout() + ".",
+                    "Success", JOptionPane.INFORMATION_MESSAGE);
+            }, ex -> JOptionPane.showMessageDialog(window,
+                "Reservation #" + bookingId + " could not be cancelled: " + ex.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE));
         }
 
         return button;
@@ -0,0 +1,162 @@
+// COLUMN SCAN BENCHMARK
+// A date-range revenue report over the whole booking history: Booking objects versus BookingColumns
+// Usage: java -Xmx3g ColumnScanBenchmark [bookings] [rounds]
+//   defaults: 10000000 5 (10M bookings need about 1.5 GB of heap for the objects and columns)
+// Builds `bookings` random stays over three years on 200 rooms, 5% of them cancelled, and
+// keeps them both ways: as a List<Booking> of the live ones (shuffled, so consecutive rows are
+// scattered over the heap like a history that was loaded and edited over time) and in a
+// BookingColumns store. Each round reports bookings, revenue, room nights and revenue per
+// room type for the stays that check in during one of the three years:
+//   stream    what a report over the list does: one stream per figure
+//   loop      one hand-written pass over the Booking objects for all figures
+//   columns   BookingColumns.summarize(), plain loops over primitive arrays
+// The first round is warm-up and not counted; the table shows the median of the other rounds
+// and whether each way came to the same totals as the columns.
+// JMH is not available in this build, so this is a plain timed loop like the other benchmarks.
+
+class ColumnScanBenchmark {
+    private static final int ROOMS = 200;
+    private static final int CANCEL_PERCENT = 5;
+    
+    private RoomRepository rooms = new RoomRepository();
+    private BookingColumns columns = new BookingColumns(rooms);
+    private java.util.List<Booking> live = new java.util.ArrayList<>();
+    private int fromDay, toDay;   // The year being reported
+    private String[] types = RoomRepository.TYPES;
+    
+    // Totals of one report, to check the three ways against each other
+    private static class Report {
+        long bookings;
+        double revenue;
+        long roomNights;
+        double[] revenueByType;
+        
+        Report(long bookings, double revenue, long roomNights, double[] revenueByType) {
+            this.bookings = bookings;
+            this.revenue = revenue;
+            this.roomNights = roomNights;
+            this.revenueByType = revenueByType;
+        }
+        
+        boolean sameAs(Report other) {
+            if (bookings != other.bookings || roomNights != other.roomNights || !close(revenue, other.revenue)) {
+                return false;
+            }
+            for (int t = 0; t < revenueByType.length; t++) {
+                if (!close(revenueByType[t], other.revenueByType[t])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        // Sums of doubles differ in the last digits when added in another order
+        private static boolean close(double a, double b) {
+            return Math.abs(a - b) <= 1e-9 * Math.max(Math.abs(a), Math.abs(b)) + 0.01;
+        }
+    }
+    
+    public ColumnScanBenchmark(int count) {
+        for (int i = 0; i < ROOMS; i++) {
+            rooms.add(new Room(101 + i, "Scan Room " + (i + 1), 1000 + 250 * (i % 8), 1 + i % 4, types[i % types.length]));
+        }
+        java.util.Random random = new java.util.Random(7);
+        int firstDay = RoomCalendar.today() - 365;
+        fromDay = firstDay + 365;
+        toDay = fromDay + 365;
+        String[] payments = {"Cash", "Credit Card - **** 1234", "GCash - **** 5678"};
+        for (int id = 1; id <= count; id++) {
+            int checkin = firstDay + random.nextInt(3 * 365);
+            Booking b = new Booking(id, "guest" + random.nextInt(1000), 101 + random.nextInt(ROOMS), checkin, checkin + 1 + random.nextInt(7),
+                1 + random.nextInt(4), 1000 + random.nextInt(4000), payments[random.nextInt(payments.length)], (byte) 28, (byte) 24);
+            if (random.nextInt(10) == 0) {
+                b.applyDiscount(10, "Benchmark Offer");
+            }
+            columns.bookingAdded(b);
+            if (random.nextInt(100) < CANCEL_PERCENT) {
+                columns.bookingCancelled(b);
+            } else {
+                live.add(b);
+            }
+        }
+        java.util.Collections.shuffle(live, random);
+    }
+    
+    private String typeOf(Booking b) {
+        Room r = rooms.get(b.getRoomNumber());
+        return r == null ? null : r.getType();
+    }
+    
+    private boolean inYear(Booking b) {
+        return b.getCheckinDay() >= fromDay && b.getCheckinDay() < toDay;
+    }
+    
+    private Report stream() {
+        long count = live.stream().filter(this::inYear).count();
+        double revenue = live.stream().filter(this::inYear).mapToDouble(Booking::getTotalPrice).sum();
+        long nights = live.stream().filter(this::inYear).mapToLong(Booking::getNumberOfNights).sum();
+        java.util.Map<String, Double> byType = live.stream().filter(this::inYear)
+            .collect(java.util.stream.Collectors.groupingBy(this::typeOf, java.util.stream.Collectors.summingDouble(Booking::getTotalPrice)));
+        double[] revenueByType = new double[types.length];
+        for (int t = 0; t < types.length; t++) {
+            revenueByType[t] = byType.getOrDefault(types[t], 0.0);
+        }
+        return new Report(count, revenue, nights, revenueByType);
+    }
+    
+    private Report loop() {
+        long count = 0, nights = 0;
+        double revenue = 0;
+        double[] revenueByType = new double[types.length];
+        for (Booking b : live) {
+            if (inYear(b)) {
+                count++;
+                revenue += b.getTotalPrice();
+                nights += b.getNumberOfNights();
+                int t = BookingColumns.typeCode(typeOf(b));
+                if (t >= 0) {
+                    revenueByType[t] += b.getTotalPrice();
+                }
+            }
+        }
+        return new Report(count, revenue, nights, revenueByType);
+    }
+    
+    private Report columns() {
+        BookingColumns.Summary s = columns.summarize(fromDay, toDay);
+        return new Report(s.bookings, s.revenue, s.roomNights, s.revenueByType);
+    }
+    
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        java.util.Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+    
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        long start = System.nanoTime();
+        ColumnScanBenchmark bench = new ColumnScanBenchmark(count);
+        System.out.printf("Built %,d bookings (%,d live) in %.1f s; median of %d rounds after warm-up%n",
+            count, bench.live.size(), (System.nanoTime() - start) / 1e9, rounds);
+        
+        String[] ways = {"stream", "loop", "columns"};
+        double[][] times = new double[ways.length][rounds];
+        Report[] reports = new Report[ways.length];
+        for (int r = 0; r <= rounds; r++) {
+            for (int w = 0; w < ways.length; w++) {
+                long began = System.nanoTime();
+                reports[w] = w == 0 ? bench.stream() : w == 1 ? bench.loop() : bench.columns();
+                if (r > 0) {   // Round 0 warms up the JIT
+                    times[w][r - 1] = (System.nanoTime() - began) / 1e6;
+                }
+            }
+        }
+        System.out.printf("%-8s %10s %12s %18s  %s%n", "scan", "ms", "bookings", "revenue", "totals");
+        for (int w = 0; w < ways.length; w++) {
+            System.out.printf("%-8s %10.1f %,12d %,18.2f  %s%n", ways[w], median(times[w]), reports[w].bookings, reports[w].revenue,
+                reports[w].sameAs(reports[2]) ? "match" : "DIFFER");
+        }
+    }
+}
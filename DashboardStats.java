@@ -0,0 +1,72 @@
+// DASHBOARD STATS
+// Running totals for the admin dashboard, updated in O(1) per booking event
+// instead of rescanning every booking and room on each refresh
+// - bookings and revenue, overall and per room type
+// - sum of discount percentages (for the average discount)
+// Rooms occupied per night are counted by OccupancyForecast, not here.
+// ReservationEngine calls bookingAdded/bookingCancelled after every change, so the
+// counters always match its bookings. Counters are lock-free adders, so front desks
+// booking at the same time never wait on each other here.
+
+class DashboardStats {
+    private RoomRepository rooms;
+    private java.util.concurrent.atomic.LongAdder bookings = new java.util.concurrent.atomic.LongAdder();
+    private java.util.concurrent.atomic.DoubleAdder revenue = new java.util.concurrent.atomic.DoubleAdder();
+    private java.util.concurrent.atomic.LongAdder discountPercentSum = new java.util.concurrent.atomic.LongAdder();
+    private java.util.concurrent.ConcurrentHashMap<String, java.util.concurrent.atomic.LongAdder> bookingsByType = new java.util.concurrent.ConcurrentHashMap<>();
+    private java.util.concurrent.ConcurrentHashMap<String, java.util.concurrent.atomic.DoubleAdder> revenueByType = new java.util.concurrent.ConcurrentHashMap<>();
+    
+    public DashboardStats(RoomRepository rooms) {
+        this.rooms = rooms;
+    }
+    
+    // ===== Updates (called by ReservationEngine) =====
+    
+    public void bookingAdded(Booking b) {
+        update(b, 1);
+    }
+    
+    public void bookingCancelled(Booking b) {
+        update(b, -1);
+    }
+    
+    // Add (sign = 1) or remove (sign = -1) one booking from every counter
+    private void update(Booking b, int sign) {
+        bookings.add(sign);
+        revenue.add(sign * b.getTotalPrice());
+        discountPercentSum.add(sign * b.getDiscountPercent());
+        
+        Room room = rooms.get(b.getRoomNumber());
+        if (room == null) {
+            return;
+        }
+        bookingsByType.computeIfAbsent(room.getType(), t -> new java.util.concurrent.atomic.LongAdder()).add(sign);
+        revenueByType.computeIfAbsent(room.getType(), t -> new java.util.concurrent.atomic.DoubleAdder()).add(sign * b.getTotalPrice());
+    }
+    
+    // ===== Reads (used by the dashboard) =====
+    
+    public int totalBookings() {
+        return bookings.intValue();
+    }
+    
+    public double totalRevenue() {
+        return revenue.sum();
+    }
+    
+    public int bookingsFor(String type) {
+        java.util.concurrent.atomic.LongAdder count = bookingsByType.get(type);
+        return count == null ? 0 : count.intValue();
+    }
+    
+    public double revenueFor(String type) {
+        java.util.concurrent.atomic.DoubleAdder sum = revenueByType.get(type);
+        return sum == null ? 0 : sum.sum();
+    }
+    
+    // Average discount percentage over all bookings (0 if there are none)
+    public double averageDiscountPercent() {
+        long count = bookings.sum();
+        return count == 0 ? 0 : discountPercentSum.sum() / (double) count;
+    }
+}
@@ -0,0 +1,150 @@
+// EVENT BUS
+// Tells the screens what changed in the hotel's data, so they no longer have to find
+// and refresh each other
+// Events: BookingCreated, BookingCancelled, RoomAdded, UserRegistered
+// Publishers (ReservationEngine, RoomRepository, UserDirectory) may run on any thread.
+// Events are queued and delivered on the Swing event thread once per frame (~16 ms):
+// each subscriber gets one call with every event of its types from that frame, so a
+// burst of 200 bulk bookings costs each screen one refresh instead of 200.
+// Subscriptions belong to a component and are only active while it is displayable, so
+// screens thrown away on logout stop receiving (and are not kept alive by) events.
+
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+
+class EventBus implements ReservationEngine.Listener {
+    private static final int FRAME_MS = 16;
+    
+    private java.util.concurrent.CopyOnWriteArrayList<Subscription> subscriptions = new java.util.concurrent.CopyOnWriteArrayList<>();
+    private java.util.concurrent.ConcurrentLinkedQueue<Event> pending = new java.util.concurrent.ConcurrentLinkedQueue<>();
+    private java.util.concurrent.atomic.AtomicBoolean flushScheduled = new java.util.concurrent.atomic.AtomicBoolean();
+    private javax.swing.Timer frameTimer = new javax.swing.Timer(FRAME_MS, e -> flush());
+    
+    // ===== Events =====
+    
+    abstract static class Event {
+    }
+    
+    static class BookingCreated extends Event {
+        private Booking booking;
+        BookingCreated(Booking booking) { this.booking = booking; }
+        public Booking getBooking() { return booking; }
+    }
+    
+    static class BookingCancelled extends Event {
+        private Booking booking;
+        BookingCancelled(Booking booking) { this.booking = booking; }
+        public Booking getBooking() { return booking; }
+    }
+    
+    static class RoomAdded extends Event {
+        private Room room;
+        RoomAdded(Room room) { this.room = room; }
+        public Room getRoom() { return room; }
+    }
+    
+    static class UserRegistered extends Event {
+        private User user;
+        UserRegistered(User user) { this.user = user; }
+        public User getUser() { return user; }
+    }
+    
+    // Receives the events of one frame, oldest first (never empty), on the Swing event thread
+    interface Subscriber {
+        void onEvents(java.util.List<Event> batch);
+    }
+    
+    private static class Subscription {
+        final Subscriber subscriber;
+        final Class<?>[] types;
+        
+        Subscription(Subscriber subscriber, Class<?>[] types) {
+            this.subscriber = subscriber;
+            this.types = types;
+        }
+        
+        boolean wants(Event e) {
+            for (Class<?> type : types) {
+                if (type.isInstance(e)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+    
+    public EventBus() {
+        frameTimer.setRepeats(false);
+    }
+    
+    // ===== Subscribing =====
+    
+    // Deliver events of the given types to the subscriber while the owner component is displayable
+    // (i.e. part of a window that is showing or about to show)
+    public void subscribe(JComponent owner, Subscriber subscriber, Class<?>... types) {
+        Subscription s = new Subscription(subscriber, types);
+        owner.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & java.awt.event.HierarchyEvent.DISPLAYABILITY_CHANGED) != 0) {
+                if (owner.isDisplayable()) {
+                    subscriptions.addIfAbsent(s);
+                } else {
+                    subscriptions.remove(s);
+                }
+            }
+        });
+        if (owner.isDisplayable()) {
+            subscriptions.add(s);
+        }
+    }
+    
+    // ===== Publishing =====
+    
+    public void publish(Event e) {
+        if (!anyoneWants(e)) {
+            return;   // Nobody is listening (e.g. while the saved data is loaded at startup)
+        }
+        pending.add(e);
+        if (flushScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(frameTimer::restart);   // The rest of this frame's events ride along
+        }
+    }
+    
+    @Override
+    public void bookingAdded(Booking b) {
+        publish(new BookingCreated(b));
+    }
+    
+    @Override
+    public void bookingCancelled(Booking b) {
+        publish(new BookingCancelled(b));
+    }
+    
+    private boolean anyoneWants(Event e) {
+        for (Subscription s : subscriptions) {
+            if (s.wants(e)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Hand every subscriber its share of the events queued since the last frame
+    private void flush() {
+        flushScheduled.set(false);   // Events published from here on start a new frame
+        java.util.List<Event> batch = new java.util.ArrayList<>();
+        for (Event e; (e = pending.poll()) != null; ) {
+            batch.add(e);
+        }
+        for (Subscription s : subscriptions) {
+            java.util.List<Event> mine = new java.util.ArrayList<>();
+            for (Event e : batch) {
+                if (s.wants(e)) {
+                    mine.add(e);
+                }
+            }
+            if (!mine.isEmpty()) {
+                s.subscriber.onEvents(mine);
+            }
+        }
+    }
+}
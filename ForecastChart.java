@@ -0,0 +1,120 @@
+// FORECAST CHART
+// Line chart of on-the-books occupancy for the next year, shown on the admin dashboard
+// One thin line per room type and a thick line for the whole hotel, each as the share
+// of that type's rooms booked per night. Hovering shows the night's figures.
+// The numbers come from OccupancyForecast when the chart paints (one array per line),
+// so a repaint is all it needs after bookings change.
+
+import java.awt.*;
+import javax.swing.*;
+
+class ForecastChart extends JComponent {
+    private static final Color[] TYPE_COLORS = {
+        new Color(40, 167, 69), new Color(23, 162, 184), new Color(255, 193, 7), new Color(220, 53, 69), new Color(118, 75, 162)
+    };
+    private static final Font LABEL_FONT = new Font("Segoe UI", Font.PLAIN, 11);
+    private static final int LEFT = 45, RIGHT = 120, TOP = 25, BOTTOM = 25;   // Room for axis labels and the legend
+    
+    private OccupancyForecast forecast;
+    private RoomRepository rooms;
+    
+    public ForecastChart(OccupancyForecast forecast, RoomRepository rooms) {
+        this.forecast = forecast;
+        this.rooms = rooms;
+        setPreferredSize(new Dimension(600, 200));
+        setToolTipText("");   // Turns tooltips on; the text depends on the night under the mouse
+    }
+    
+    @Override
+    public String getToolTipText(java.awt.event.MouseEvent e) {
+        int day = dayAt(e.getX());
+        if (day < 0) {
+            return null;
+        }
+        int night = RoomCalendar.today() + day;
+        StringBuilder text = new StringBuilder("<html><b>").append(java.time.LocalDate.ofEpochDay(night)).append("</b><br>");
+        text.append(String.format("All rooms: %.0f%% (%d of %d)<br>", forecast.occupancyPercent(null, night),
+            forecast.occupiedRooms(null, night), rooms.size()));
+        for (String type : RoomRepository.TYPES) {
+            text.append(String.format("%s: %.0f%%<br>", type, forecast.occupancyPercent(type, night)));
+        }
+        return text.append("</html>").toString();
+    }
+    
+    // Night (0 = tonight) under an x position, or -1 outside the plot
+    private int dayAt(int x) {
+        int w = getWidth() - LEFT - RIGHT;
+        if (w <= 0 || x < LEFT || x >= LEFT + w) {
+            return -1;
+        }
+        return (x - LEFT) * OccupancyForecast.HORIZON_DAYS / w;
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setColor(Color.WHITE);
+        g2.fillRect(0, 0, getWidth(), getHeight());
+        int w = getWidth() - LEFT - RIGHT, h = getHeight() - TOP - BOTTOM;
+        if (w <= 0 || h <= 0) {
+            g2.dispose();
+            return;
+        }
+        
+        g2.setFont(LABEL_FONT);
+        g2.setColor(SerenitySuitesHMS.PRIMARY);
+        g2.drawString("Occupancy on the books, next " + OccupancyForecast.HORIZON_DAYS + " nights", LEFT, TOP - 8);
+        
+        // Grid at 0, 25, 50, 75 and 100%
+        for (int p = 0; p <= 100; p += 25) {
+            int y = TOP + h - p * h / 100;
+            g2.setColor(new Color(235, 235, 235));
+            g2.drawLine(LEFT, y, LEFT + w, y);
+            g2.setColor(Color.GRAY);
+            g2.drawString(p + "%", 5, y + 4);
+        }
+        
+        // Month ticks
+        int today = RoomCalendar.today();
+        java.time.LocalDate month = java.time.LocalDate.ofEpochDay(today).withDayOfMonth(1).plusMonths(1);
+        while (month.toEpochDay() < today + OccupancyForecast.HORIZON_DAYS) {
+            int x = LEFT + (int) ((month.toEpochDay() - today) * w / OccupancyForecast.HORIZON_DAYS);
+            g2.drawString(month.getMonth().getDisplayName(java.time.format.TextStyle.SHORT, java.util.Locale.ENGLISH), x - 8, TOP + h + 16);
+            month = month.plusMonths(1);
+        }
+        
+        for (int t = 0; t < RoomRepository.TYPES.length; t++) {
+            String type = RoomRepository.TYPES[t];
+            drawLine(g2, type, rooms.byType(type).size(), TYPE_COLORS[t % TYPE_COLORS.length], 1f, w, h);
+            drawLegend(g2, type, TYPE_COLORS[t % TYPE_COLORS.length], LEFT + w + 15, TOP + 15 + t * 18);
+        }
+        drawLine(g2, null, rooms.size(), SerenitySuitesHMS.PRIMARY, 3f, w, h);
+        drawLegend(g2, "All rooms", SerenitySuitesHMS.PRIMARY, LEFT + w + 15, TOP + 15 + RoomRepository.TYPES.length * 18);
+        g2.dispose();
+    }
+    
+    // Occupancy of one type (null = all rooms) as a polyline across the plot
+    private void drawLine(Graphics2D g2, String type, int total, Color color, float width, int w, int h) {
+        if (total == 0) {
+            return;
+        }
+        int[] occupied = forecast.occupiedRooms(type, RoomCalendar.today(), OccupancyForecast.HORIZON_DAYS);
+        int[] xs = new int[occupied.length], ys = new int[occupied.length];
+        for (int d = 0; d < occupied.length; d++) {
+            xs[d] = LEFT + d * w / occupied.length;
+            ys[d] = TOP + h - (int) Math.min(h, (long) occupied[d] * h / total);
+        }
+        g2.setColor(color);
+        g2.setStroke(new BasicStroke(width));
+        g2.drawPolyline(xs, ys, occupied.length);
+    }
+    
+    private static void drawLegend(Graphics2D g2, String label, Color color, int x, int y) {
+        g2.setColor(color);
+        g2.fillRect(x, y - 8, 12, 8);
+        g2.setColor(Color.DARK_GRAY);
+        g2.drawString(label, x + 18, y);
+    }
+}
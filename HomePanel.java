@@ -72,7 +72,7 @@ class HomePanel extends JPanel {
 
 // Rooms Panel
 class RoomsPanel extends JPanel {
-    private JPanel container;
+    private RoomCardList roomList;   // Only the cards on screen are painted, however many rooms there are
     
     public RoomsPanel() {
         setLayout(new BorderLayout(20, 20));
@@ -84,100 +84,87 @@ class RoomsPanel extends JPanel {
         title.setForeground(SerenitySuitesHMS.PRIMARY);
         add(title, BorderLayout.NORTH);
         
-        container = new JPanel();
-        container.setLayout(new BoxLayout(container, BoxLayout.Y_AXIS));
-        container.setBackground(Color.WHITE);
-        container.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        // Two cards per row under one header per room type
+        roomList = new RoomCardList(2, 200, RoomCard::new);
         
         refreshRooms();
         
-        JScrollPane scroll = new JScrollPane(container);
-        scroll.setBorder(BorderFactory.createEmptyBorder());
+        JScrollPane scroll = new JScrollPane(roomList);
+        scroll.setBorder(BorderFactory.createLineBorder(new Color(200, 200, 200), 2));
         add(scroll, BorderLayout.CENTER);
+        
+        // New rooms need new sections; bookings only change the status drawn on the cards
+        SerenitySuitesHMS.events.subscribe(this, batch -> {
+            if (batch.stream().anyMatch(e -> e instanceof EventBus.RoomAdded)) {
+                refreshRooms();
+            } else {
+                roomList.repaint();
+            }
+        }, EventBus.RoomAdded.class, EventBus.BookingCreated.class, EventBus.BookingCancelled.class);
     }
     
     public void refreshRooms() {
-        container.removeAll();
-        
-        // Group rooms by type
-        String[] types = {"Standard", "Deluxe", "Executive", "Suite", "Family"};
-        for (String type : types) {
-            java.util.List<Room> roomsByType = SerenitySuitesHMS.rooms.stream()
-                .filter(r -> r.getType().equals(type))
-                .sorted((r1, r2) -> Integer.compare(r1.getRoomNumber(), r2.getRoomNumber()))  // Sort by room number
-                .collect(java.util.stream.Collectors.toList());
+        // Group rooms by type (the repository keeps each type sorted by room number)
+        java.util.List<String> headers = new java.util.ArrayList<>();
+        java.util.List<java.util.List<Room>> groups = new java.util.ArrayList<>();
+        for (String type : RoomRepository.TYPES) {
+            java.util.List<Room> roomsByType = SerenitySuitesHMS.rooms.byType(type);
             
             if (!roomsByType.isEmpty()) {
-                container.add(createCollapsibleRoomBox(type, roomsByType));
-                container.add(Box.createVerticalStrut(20));
+                headers.add(type + " Rooms (" + roomsByType.size() + ")");
+                groups.add(roomsByType);
             }
         }
-        
-        container.revalidate();
-        container.repaint();
+        roomList.setSections(headers, groups);
     }
     
-    private JPanel createCollapsibleRoomBox(String type, java.util.List<Room> rooms) {
-        JPanel boxContainer = new JPanel(new BorderLayout());
-        boxContainer.setBackground(Color.WHITE);
-        boxContainer.setMaximumSize(new Dimension(Integer.MAX_VALUE, Integer.MAX_VALUE));
-        boxContainer.setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(new Color(200, 200, 200), 2),
-            BorderFactory.createEmptyBorder(0, 0, 0, 0)));
-        
-        JPanel header = new JPanel(new BorderLayout(10, 0));
-        header.setBackground(SerenitySuitesHMS.PRIMARY);
-        header.setBorder(BorderFactory.createEmptyBorder(15, 20, 15, 20));
-        header.setPreferredSize(new Dimension(Integer.MAX_VALUE, 55));
-        
-        JLabel typeLabel = new JLabel(type + " Rooms (" + rooms.size() + ")");
-        typeLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
-        typeLabel.setForeground(Color.WHITE);
-        
-        header.add(typeLabel, BorderLayout.WEST);
-        
-        boxContainer.add(header, BorderLayout.NORTH);
-        
-        JPanel roomsPanel = new JPanel(new GridLayout(0, 2, 20, 20));
-        roomsPanel.setBackground(Color.WHITE);
-        roomsPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
-        
-        for (Room r : rooms) {
-            roomsPanel.add(createRoomCard(r));
+    // Card showing one room's details; a single instance is refilled for every room painted
+    private static class RoomCard extends RoomCardList.Card {
+        private static final Color CARD_BG = new Color(248, 249, 250);
+        private static final Font ROOM_FONT = new Font("Segoe UI", Font.BOLD, 22);
+        private static final Font STATUS_FONT = new Font("Segoe UI", Font.BOLD, 14);
+        
+        private JLabel room = new JLabel();
+        private JLabel name = new JLabel();
+        private JLabel category = new JLabel();
+        private JLabel capacity = new JLabel();
+        private JLabel price = new JLabel();
+        private JLabel status = new JLabel();
+        
+        RoomCard() {
+            setLayout(new BorderLayout(15, 15));
+            setBackground(CARD_BG);
+            setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(new Color(224, 224, 224), 2),
+                BorderFactory.createEmptyBorder(15, 15, 15, 15)));
+            
+            JPanel info = new JPanel(new GridLayout(6, 1, 5, 5));
+            info.setBackground(CARD_BG);
+            room.setFont(ROOM_FONT);
+            room.setForeground(SerenitySuitesHMS.PRIMARY);
+            status.setFont(STATUS_FONT);
+            info.add(room);
+            info.add(name);
+            info.add(category);
+            info.add(capacity);
+            info.add(price);
+            info.add(status);
+            add(info, BorderLayout.CENTER);
         }
         
-        boxContainer.add(roomsPanel, BorderLayout.CENTER);
-        
-        return boxContainer;
-    }
-    
-    private JPanel createRoomCard(Room r) {
-        JPanel card = new JPanel(new BorderLayout(15, 15));
-        card.setBackground(new Color(248, 249, 250));
-        card.setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(new Color(224, 224, 224), 2),
-            BorderFactory.createEmptyBorder(15, 15, 15, 15)));
-        
-        JPanel info = new JPanel(new GridLayout(6, 1, 5, 5));
-        info.setBackground(new Color(248, 249, 250));
-        
-        JLabel room = new JLabel("Room " + r.getRoomNumber());
-        room.setFont(new Font("Segoe UI", Font.BOLD, 22));
-        room.setForeground(SerenitySuitesHMS.PRIMARY);
-        info.add(room);
-        
-        info.add(new JLabel("Type: " + r.getName()));
-        info.add(new JLabel("Category: " + r.getType()));
-        info.add(new JLabel("Capacity: " + r.getCapacity() + " guests"));
-        info.add(new JLabel("Price: ₱" + r.getPrice() + " per night"));
-        
-        JLabel status = new JLabel("Status: " + (r.isBooked() ? "Occupied" : "Available"));
-        status.setFont(new Font("Segoe UI", Font.BOLD, 14));
-        status.setForeground(r.isBooked() ? SerenitySuitesHMS.DANGER : SerenitySuitesHMS.ACCENT);
-        info.add(status);
-        
-        card.add(info, BorderLayout.CENTER);
-        return card;
+        @Override
+        void showRoom(Room r) {
+            room.setText("Room " + r.getRoomNumber());
+            name.setText("Type: " + r.getName());
+            category.setText("Category: " + r.getType());
+            capacity.setText("Capacity: " + r.getCapacity() + " guests");
+            price.setText("Price: ₱" + r.getPrice() + " per night");
+            
+            // Read from the calendar at paint time, so the status is always current
+            boolean booked = r.isBooked();
+            status.setText("Status: " + (booked ? "Occupied" : "Available"));
+            status.setForeground(booked ? SerenitySuitesHMS.DANGER : SerenitySuitesHMS.ACCENT);
+        }
     }
 }
 
@@ -191,7 +178,18 @@ class BookPanel extends JPanel {
     private JComboBox<String> checkinTimeCombo;
     private JComboBox<String> checkoutTimeCombo;
     private JSpinner guestsSpinner;
-    private JPanel resultsPanel;
+    private JSpinner maxPriceSpinner;   // Highest nightly price to show (0 = any price)
+    private JSpinner flexibleNightsSpinner;   // Stay length for the flexible-date search
+    private RoomCardList resultsList;   // Search results, only visible cards are painted
+    private JScrollPane resultsScroll;
+    private JLabel noRoomsLabel;
+    private BackgroundTasks.Latest searchTask = new BackgroundTasks.Latest();   // Room search running in the background
+    
+    // Form values at the time of the last search (used by the result cards and "Book Now")
+    private String searchCi, searchCo, searchCiTime, searchCoTime;
+    private int searchGuests;
+    private long searchNights;    // 0 if the dates were not picked
+    private int searchCiDay;      // Check-in as an epoch day (valid when searchNights > 0)
     
     public BookPanel(SerenitySuitesHMS parent, MainPanel mainPanel) {
         this.parent = parent;
@@ -215,9 +213,11 @@ class BookPanel extends JPanel {
         checkinTimeCombo.setSelectedIndex(0);
         checkoutTimeCombo.setSelectedIndex(checkoutTimeCombo.getItemCount() - 1);
         guestsSpinner.setValue(1);
-        resultsPanel.removeAll();
-        resultsPanel.revalidate();
-        resultsPanel.repaint();
+        maxPriceSpinner.setValue(0);
+        flexibleNightsSpinner.setValue(3);
+        searchTask.cancel();
+        resultsList.clear();
+        resultsScroll.setViewportView(resultsList);
     }
     
     private JPanel createBookingForm() {
@@ -231,15 +231,20 @@ class BookPanel extends JPanel {
         g.fill = GridBagConstraints.HORIZONTAL;
         g.anchor = GridBagConstraints.WEST;
         
-        // Create results panel early so we can reference it
-        resultsPanel = new JPanel();
-        resultsPanel.setLayout(new BoxLayout(resultsPanel, BoxLayout.Y_AXIS));
-        resultsPanel.setBackground(Color.WHITE);
+        // Create results list early so we can reference it
+        resultsList = new RoomCardList(1, 140, BookingCard::new);
+        resultsList.setButtonAction(r -> BookingHandler.handleBooking(parent, r, searchCi, searchCo, searchGuests,
+            searchCiTime, searchCoTime, BookPanel.this));
+        noRoomsLabel = new JLabel();
+        noRoomsLabel.setFont(new Font("Segoe UI", Font.PLAIN, 16));
+        noRoomsLabel.setForeground(Color.GRAY);
+        noRoomsLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        noRoomsLabel.setVerticalAlignment(SwingConstants.TOP);
         
         g.gridx = 0; g.gridy = 0;
         form.add(new JLabel("Room Type:"), g);
         g.gridx = 1;
-        roomTypeCombo = new JComboBox<>(new String[]{"Standard", "Deluxe", "Executive", "Suite", "Family"});
+        roomTypeCombo = new JComboBox<>(RoomRepository.TYPES);
         roomTypeCombo.setPreferredSize(new Dimension(300, 35));
         form.add(roomTypeCombo, g);
         
@@ -256,9 +261,10 @@ class BookPanel extends JPanel {
         checkinBtn.setFont(new Font("Segoe UI", Font.PLAIN, 18));
         checkinBtn.setCursor(new Cursor(Cursor.HAND_CURSOR));
         checkinBtn.addActionListener(e -> {
-            String date = DatePickerDialog.showDatePicker(parent, "Select Check-in Date");
+            String date = DatePickerDialog.showDatePicker(parent, "Select Check-in Date", (String)roomTypeCombo.getSelectedItem());
             if (date != null) {
                 checkinField.setText(date);
+                searchTask.cancel();   // Criteria changed, the running search is out of date
             }
         });
         checkinPanel.add(checkinField, BorderLayout.CENTER);
@@ -278,9 +284,10 @@ class BookPanel extends JPanel {
         checkoutBtn.setFont(new Font("Segoe UI", Font.PLAIN, 18));
         checkoutBtn.setCursor(new Cursor(Cursor.HAND_CURSOR));
         checkoutBtn.addActionListener(e -> {
-            String date = DatePickerDialog.showDatePicker(parent, "Select Check-out Date");
+            String date = DatePickerDialog.showDatePicker(parent, "Select Check-out Date", (String)roomTypeCombo.getSelectedItem());
             if (date != null) {
                 checkoutField.setText(date);
+                searchTask.cancel();
             }
         });
         checkoutPanel.add(checkoutField, BorderLayout.CENTER);
@@ -292,10 +299,12 @@ class BookPanel extends JPanel {
         g.gridx = 1;
         guestsSpinner = new JSpinner(new SpinnerNumberModel(1, 1, 2, 1));
         guestsSpinner.setPreferredSize(new Dimension(300, 35));
+        guestsSpinner.addChangeListener(e -> searchTask.cancel());
         form.add(guestsSpinner, g);
         
         // Update guest limit based on room type selection
         roomTypeCombo.addActionListener(e -> {
+            searchTask.cancel();
             String selectedType = (String)roomTypeCombo.getSelectedItem();
             int maxGuests = 2; // Default for Standard, Deluxe, Executive
             if ("Suite".equals(selectedType)) {
@@ -307,6 +316,14 @@ class BookPanel extends JPanel {
             guestsSpinner.setModel(new SpinnerNumberModel(Math.min(currentValue, maxGuests), 1, maxGuests, 1));
         });
         
+        g.gridx = 0; g.gridy++;
+        form.add(new JLabel("Max Price/Night (0 = any):"), g);
+        g.gridx = 1;
+        maxPriceSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 1000000, 500));
+        maxPriceSpinner.setPreferredSize(new Dimension(300, 35));
+        maxPriceSpinner.addChangeListener(e -> searchTask.cancel());
+        form.add(maxPriceSpinner, g);
+        
         g.gridx = 0; g.gridy++;
         form.add(new JLabel("Check-in Time:"), g);
         g.gridx = 1;
@@ -322,6 +339,20 @@ class BookPanel extends JPanel {
         checkoutTimeCombo.setPreferredSize(new Dimension(300, 35));
         form.add(checkoutTimeCombo, g);
         
+        // Flexible dates: the check-in/check-out fields become the window to look in (next 2 weeks if empty)
+        g.gridx = 0; g.gridy++;
+        form.add(new JLabel("Flexible Dates (nights):"), g);
+        g.gridx = 1;
+        JPanel flexiblePanel = new JPanel(new BorderLayout(5, 0));
+        flexiblePanel.setBackground(Color.WHITE);
+        flexibleNightsSpinner = new JSpinner(new SpinnerNumberModel(3, 1, 30, 1));
+        flexibleNightsSpinner.setPreferredSize(new Dimension(80, 35));
+        JButton flexibleBtn = new JButton("Find Cheapest Dates");
+        flexibleBtn.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        flexiblePanel.add(flexibleNightsSpinner, BorderLayout.WEST);
+        flexiblePanel.add(flexibleBtn, BorderLayout.CENTER);
+        form.add(flexiblePanel, g);
+        
         g.gridx = 0; g.gridy++; g.gridwidth = 2;
         JButton search = UIComponents.createStyledButton("Search Available Rooms", SerenitySuitesHMS.PRIMARY);
         search.setPreferredSize(new Dimension(400, 45));
@@ -330,160 +361,230 @@ class BookPanel extends JPanel {
         main.add(form, BorderLayout.NORTH);
         
         search.addActionListener(e -> {
-            resultsPanel.removeAll();
             String type = (String)roomTypeCombo.getSelectedItem();
+            int[] stay = getSearchStay();
+            int guests = (int)guestsSpinner.getValue();
+            int maxPrice = (int)maxPriceSpinner.getValue();
+            noRoomsLabel.setText("Searching...");
+            resultsScroll.setViewportView(noRoomsLabel);
             
-            java.util.List<Room> availableRooms = SerenitySuitesHMS.rooms.stream()
-                .filter(r -> !r.isBooked() && r.getType().equals(type))
-                .collect(java.util.stream.Collectors.toList());
-            
-            if (availableRooms.isEmpty()) {
-                JLabel noRooms = new JLabel("No available rooms for " + type + " type.");
-                noRooms.setFont(new Font("Segoe UI", Font.PLAIN, 16));
-                noRooms.setForeground(Color.GRAY);
-                noRooms.setHorizontalAlignment(SwingConstants.CENTER);
-                resultsPanel.add(noRooms);
-            } else {
-                availableRooms.forEach(r -> {
-                    resultsPanel.add(createRoomBookingCard(r, checkinField.getText(), 
-                        checkoutField.getText(), (int)guestsSpinner.getValue(), 
-                        (String)checkinTimeCombo.getSelectedItem(), (String)checkoutTimeCombo.getSelectedItem(), BookPanel.this));
-                    resultsPanel.add(Box.createVerticalStrut(15));
-                });
-            }
-            
-            resultsPanel.revalidate();
-            resultsPanel.repaint();
+            // Rooms of the type that fit the guests and price, with no booking overlapping the dates,
+            // cheapest first; a full page of HotelService.MAX_RESULTS may have been cut short
+            // Runs on a worker thread; a newer search or a change to the form cancels this one
+            searchTask.submit(() -> SerenitySuitesHMS.service.search(type, stay[0], stay[1], guests, maxPrice, HotelService.MAX_RESULTS),
+            availableRooms -> {
+                rememberSearch();   // Form is unchanged since the click, or this search would have been cancelled
+                if (availableRooms.isEmpty()) {
+                    noRoomsLabel.setText("No available rooms for " + type + " type.");
+                    resultsScroll.setViewportView(noRoomsLabel);
+                } else if (availableRooms.size() == HotelService.MAX_RESULTS) {
+                    resultsList.setSections(java.util.Collections.singletonList("Showing the " + HotelService.MAX_RESULTS + " cheapest available rooms"),
+                        java.util.Collections.singletonList(availableRooms));
+                    resultsScroll.setViewportView(resultsList);
+                } else {
+                    resultsList.setRooms(availableRooms);
+                    resultsScroll.setViewportView(resultsList);
+                }
+            }, ex -> {
+                noRoomsLabel.setText("Search failed: " + ex.getMessage());
+                resultsScroll.setViewportView(noRoomsLabel);
+            });
         });
         
-        JScrollPane scroll = new JScrollPane(resultsPanel);
-        scroll.setBorder(BorderFactory.createEmptyBorder());
-        main.add(scroll, BorderLayout.CENTER);
+        flexibleBtn.addActionListener(e -> findFlexibleDates(search));
+        
+        resultsScroll = new JScrollPane(resultsList);
+        resultsScroll.setBorder(BorderFactory.createEmptyBorder());
+        resultsScroll.getViewport().setBackground(Color.WHITE);
+        main.add(resultsScroll, BorderLayout.CENTER);
         
         return main;
     }
     
+    // Cheapest room for each check-in day of an N-night stay inside the date window
+    // Picking an option fills in its dates and runs the normal search for them
+    private void findFlexibleDates(JButton search) {
+        String type = (String)roomTypeCombo.getSelectedItem();
+        int guests = (int)guestsSpinner.getValue();
+        int nights = (int)flexibleNightsSpinner.getValue();
+        int from = RoomCalendar.today(), to = from + 14;
+        try {
+            from = Math.max(from, RoomCalendar.toEpochDay(checkinField.getText()));
+            to = RoomCalendar.toEpochDay(checkoutField.getText());
+        } catch (java.time.format.DateTimeParseException e) {
+            // Window not picked; look at the next two weeks
+        }
+        if (to < from + nights) {
+            to = from + Math.max(14, nights);
+        }
+        int windowStart = from, windowEnd = to;
+        noRoomsLabel.setText("Searching...");
+        resultsScroll.setViewportView(noRoomsLabel);
+        
+        searchTask.submit(() -> {
+            Room[] cheapest = SerenitySuitesHMS.rooms.cheapestByStartDay(type, windowStart, windowEnd, nights, guests);
+            java.util.List<Object[]> options = new java.util.ArrayList<>();
+            for (int i = 0; i < cheapest.length; i++) {
+                Room r = cheapest[i];
+                if (r != null) {
+                    int ci = windowStart + i;
+                    options.add(new Object[]{java.time.LocalDate.ofEpochDay(ci), java.time.LocalDate.ofEpochDay(ci + nights),
+                        "Room " + r.getRoomNumber() + " - " + r.getName(), String.format("₱%.2f", SerenitySuitesHMS.rates.quote(r, ci, ci + nights))});
+                }
+            }
+            return options;
+        }, options -> {
+            if (options.isEmpty()) {
+                noRoomsLabel.setText("No " + type + " room is free for " + nights + " nights in a row in that window.");
+                resultsScroll.setViewportView(noRoomsLabel);
+                return;
+            }
+            resultsList.clear();
+            resultsScroll.setViewportView(resultsList);
+            
+            JTable table = new JTable(options.toArray(new Object[0][]), new String[]{"Check-in", "Check-out", "Cheapest Room", "Total"}) {
+                @Override
+                public boolean isCellEditable(int row, int column) { return false; }
+            };
+            table.setRowHeight(28);
+            table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+            table.setRowSelectionInterval(0, 0);
+            JScrollPane pane = new JScrollPane(table);
+            pane.setPreferredSize(new Dimension(560, 300));
+            int choice = JOptionPane.showConfirmDialog(parent, pane, "Cheapest " + nights + "-night stays (" + type + ")",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+            int row = table.getSelectedRow();
+            if (choice == JOptionPane.OK_OPTION && row >= 0) {
+                checkinField.setText(options.get(row)[0].toString());
+                checkoutField.setText(options.get(row)[1].toString());
+                search.doClick();
+            }
+        }, ex -> {
+            noRoomsLabel.setText("Search failed: " + ex.getMessage());
+            resultsScroll.setViewportView(noRoomsLabel);
+        });
+    }
+    
+    // Selected stay as epoch days {check-in, check-out}
+    // Falls back to tonight when the dates are missing or invalid
+    private int[] getSearchStay() {
+        try {
+            int ci = RoomCalendar.toEpochDay(checkinField.getText());
+            int co = RoomCalendar.toEpochDay(checkoutField.getText());
+            if (co > ci) {
+                return new int[]{ci, co};
+            }
+        } catch (java.time.format.DateTimeParseException e) {
+            // Dates not picked yet
+        }
+        int today = RoomCalendar.today();
+        return new int[]{today, today + 1};
+    }
+    
     private String[] generateTimeSlots() {
         String[] slots = new String[48];
-        int index = 0;
-        for (int h = 0; h < 24; h++) {
-            String ampm = h < 12 ? "AM" : "PM";
-            int hour12 = h == 0 ? 12 : h > 12 ? h - 12 : h;
-            slots[index++] = String.format("%d:00 %s", hour12, ampm);
-            slots[index++] = String.format("%d:30 %s", hour12, ampm);
+        for (int slot = 0; slot < slots.length; slot++) {
+            slots[slot] = Booking.timeSlotText(slot);
         }
         return slots;
     }
     
-    private JPanel createRoomBookingCard(Room r, String ci, String co, int g, String ciTime, String coTime, BookPanel bookPanel) {
-        JPanel card = new JPanel(new BorderLayout(15, 15));
-        card.setBackground(new Color(248, 249, 250));
-        card.setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(new Color(224, 224, 224), 2),
-            BorderFactory.createEmptyBorder(20, 20, 20, 20)));
-        card.setMaximumSize(new Dimension(Integer.MAX_VALUE, 140));
-        
-        // Calculate total price based on number of nights
-        double totalPrice = r.getPrice();
-        long nights = 1;
-        String priceDisplay = "Price: ₱" + String.format("%.2f", r.getPrice()) + " per night";
-        
-        if (ci != null && !ci.isEmpty() && co != null && !co.isEmpty()) {
+    // Copy the form values the results were searched with; nights are worked out once here, not per card
+    private void rememberSearch() {
+        searchCi = checkinField.getText();
+        searchCo = checkoutField.getText();
+        searchGuests = (int)guestsSpinner.getValue();
+        searchCiTime = (String)checkinTimeCombo.getSelectedItem();
+        searchCoTime = (String)checkoutTimeCombo.getSelectedItem();
+        searchNights = 0;
+        if (!searchCi.isEmpty() && !searchCo.isEmpty()) {
             try {
-                java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("yyyy-MM-dd");
-                java.util.Date checkinDate = sdf.parse(ci);
-                java.util.Date checkoutDate = sdf.parse(co);
-                nights = (checkoutDate.getTime() - checkinDate.getTime()) / (1000 * 60 * 60 * 24);
-                if (nights <= 0) {
-                    nights = 1;
-                }
-                totalPrice = r.getPrice() * nights;
-                priceDisplay = "Price: ₱" + String.format("%.2f", r.getPrice()) + " × " + nights + " night" + (nights > 1 ? "s" : "") + " = ₱" + String.format("%.2f", totalPrice);
-            } catch (Exception e) {
+                searchCiDay = RoomCalendar.toEpochDay(searchCi);
+                searchNights = Math.max(1, RoomCalendar.toEpochDay(searchCo) - searchCiDay);
+            } catch (java.time.format.DateTimeParseException e) {
                 // Use default price display if date parsing fails
             }
         }
-        
-        JPanel info = new JPanel(new GridLayout(4, 1, 5, 5));
-        info.setBackground(new Color(248, 249, 250));
-        
-        JLabel room = new JLabel("Room " + r.getRoomNumber() + " - " + r.getName());
-        room.setFont(new Font("Segoe UI", Font.BOLD, 18));
-        room.setForeground(SerenitySuitesHMS.PRIMARY);
-        info.add(room);
-        info.add(new JLabel("Type: " + r.getType() + " | Capacity: " + r.getCapacity() + " guests"));
-        
-        JLabel priceLabel = new JLabel(priceDisplay);
-        priceLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
-        priceLabel.setForeground(SerenitySuitesHMS.PRIMARY);
-        info.add(priceLabel);
-        
-        info.add(new JLabel("Status: Available"));
-        
-        card.add(info, BorderLayout.CENTER);
-        
-        JButton book = UIComponents.createStyledButton("Book Now", SerenitySuitesHMS.ACCENT);
-        book.setPreferredSize(new Dimension(130, 45));
-        final double finalTotalPrice = totalPrice;
-        book.addActionListener(e -> BookingHandler.handleBooking(parent, r, ci, co, g, ciTime, coTime, finalTotalPrice, bookPanel, mainPanel));
-        card.add(book, BorderLayout.EAST);
-        
-        return card;
-    }
-}
-
-// Booking Handler
-class BookingHandler {
-    // Create and initialize all available offers
-    private static java.util.List<Offer> initializeOffers() {
-        java.util.List<Offer> offers = new java.util.ArrayList<>();
-        offers.add(new Offer("Weekend Getaway", 20, "Book 2 nights, get 20% discount", "2+ nights"));
-        offers.add(new Offer("Early Bird Special", 15, "Book 30 days in advance", "Book 30+ days ahead"));
-        offers.add(new Offer("Extended Stay", 25, "Stay 7+ nights, save 25%", "7+ nights"));
-        offers.add(new Offer("Honeymoon Package", 30, "Romantic suite with extras", "Suite only"));
-        return offers;
     }
     
-    public static void handleBooking(SerenitySuitesHMS parent, Room r, String ci, String co, int g, String ciTime, String coTime, double totalPrice, BookPanel bookPanel, MainPanel mainPanel) {
-        if (ci == null || ci.isEmpty() || co == null || co.isEmpty()) {
-            JOptionPane.showMessageDialog(parent, "Please select check-in and check-out dates.", "Booking Failed", JOptionPane.ERROR_MESSAGE);
-            return;
+    // Result card with the price for the searched stay and a "Book Now" button
+    // A single instance is refilled for every room painted; clicks are routed by RoomCardList
+    private class BookingCard extends RoomCardList.Card {
+        private final Color cardBg = new Color(248, 249, 250);
+        private JLabel room = new JLabel();
+        private JLabel details = new JLabel();
+        private JLabel priceLabel = new JLabel();
+        private JLabel offerLabel = new JLabel();
+        
+        BookingCard() {
+            setLayout(new BorderLayout(15, 15));
+            setBackground(cardBg);
+            setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(new Color(224, 224, 224), 2),
+                BorderFactory.createEmptyBorder(20, 20, 20, 20)));
+            
+            JPanel info = new JPanel(new GridLayout(4, 1, 5, 5));
+            info.setBackground(cardBg);
+            room.setFont(new Font("Segoe UI", Font.BOLD, 18));
+            room.setForeground(SerenitySuitesHMS.PRIMARY);
+            priceLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
+            priceLabel.setForeground(SerenitySuitesHMS.PRIMARY);
+            info.add(room);
+            info.add(details);
+            info.add(priceLabel);
+            offerLabel.setForeground(SerenitySuitesHMS.ACCENT);
+            info.add(offerLabel);
+            add(info, BorderLayout.CENTER);
+            
+            JButton book = UIComponents.createStyledButton("Book Now", SerenitySuitesHMS.ACCENT);
+            book.setPreferredSize(new Dimension(130, 45));
+            add(book, BorderLayout.EAST);
         }
         
-        // Validate that checkout date is after check-in date
-        try {
-            java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("yyyy-MM-dd");
-            java.util.Date checkinDate = sdf.parse(ci);
-            java.util.Date checkoutDate = sdf.parse(co);
+        @Override
+        void showRoom(Room r) {
+            room.setText("Room " + r.getRoomNumber() + " - " + r.getName());
+            details.setText("Type: " + r.getType() + " | Capacity: " + r.getCapacity() + " guests");
             
-            if (checkoutDate.before(checkinDate) || checkoutDate.equals(checkinDate)) {
-                JOptionPane.showMessageDialog(parent, 
-                    "Check-out date must be after check-in date.\n\n" +
-                    "Check-in: " + ci + "\n" +
-                    "Check-out: " + co + "\n\n" +
-                    "Please select valid dates.", 
-                    "Invalid Date Range", JOptionPane.ERROR_MESSAGE);
-                return;
+            // Total price for the stay from the rate engine (each night at its own rate)
+            if (searchNights > 0) {
+                double totalPrice = SerenitySuitesHMS.rates.quote(r, searchCiDay, searchCiDay + (int) searchNights);
+                priceLabel.setText("Price: ₱" + String.format("%.2f", totalPrice) + " for " + searchNights + " night" + (searchNights > 1 ? "s" : "") + " (avg ₱" + String.format("%.2f", totalPrice / searchNights) + "/night)");
+                
+                // Best offer from the catalog's precomputed table (a lookup, not a check of every offer)
+                Offer offer = SerenitySuitesHMS.offers.quote(r.getType(), searchNights, searchCiDay);
+                if (offer != null) {
+                    double discounted = totalPrice - totalPrice * (offer.getDiscountPercent() / 100.0);   // Same rounding as Booking.applyDiscount
+                    offerLabel.setText("With " + offer.getName() + " (" + offer.getDiscountPercent() + "% OFF): ₱" + String.format("%.2f", discounted));
+                    return;
+                }
+            } else {
+                priceLabel.setText("Price: ₱" + String.format("%.2f", r.getPrice()) + " per night");
             }
-        } catch (java.text.ParseException e) {
-            JOptionPane.showMessageDialog(parent, "Invalid date format. Please use YYYY-MM-DD format.", "Date Format Error", JOptionPane.ERROR_MESSAGE);
+            offerLabel.setText("Status: Available");
+        }
+    }
+}
+
+// Booking Handler
+// Shows the booking steps as dialogs; the checks and the booking itself are HotelService's
+class BookingHandler {
+    public static void handleBooking(SerenitySuitesHMS parent, Room r, String ci, String co, int g, String ciTime, String coTime, BookPanel bookPanel) {
+        // Check the dates, guests and availability before asking how to pay
+        HotelService.Result<int[]> stay = SerenitySuitesHMS.service.parseStay(ci, co);
+        if (!stay.isOk()) {
+            showFailure(parent, stay);
             return;
         }
-        
-        if (g > r.getCapacity()) {
-            JOptionPane.showMessageDialog(parent, "Number of guests exceeds room capacity.", "Booking Failed", JOptionPane.ERROR_MESSAGE);
+        int checkinDay = stay.value[0], checkoutDay = stay.value[1];
+        HotelService.Result<HotelService.PricedStay> quote = SerenitySuitesHMS.service.quote(r.getRoomNumber(), checkinDay, checkoutDay, g);
+        if (!quote.isOk()) {
+            showFailure(parent, quote);
             return;
         }
         
-        // Get payment methods from user's profile
-        java.util.ArrayList<PaymentEntry> savedPayments = SerenitySuitesHMS.currentUser.getPaymentMethods();
-        java.util.List<String> paymentMethods = new java.util.ArrayList<>();
-        paymentMethods.add("Cash");
-        
-        // Add all saved payment methods to the list
-        for (PaymentEntry payment : savedPayments) {
-            paymentMethods.add(payment.getType() + " (" + payment.getMaskedNumber() + ")");
-        }
+        // Cash and the payment methods saved in the user's profile (the service accepts only these)
+        java.util.List<String> paymentMethods = SerenitySuitesHMS.service.paymentMethods(SerenitySuitesHMS.currentUser);
         
         // Show payment method selection dialog
         String selectedPayment = (String) JOptionPane.showInputDialog(parent,
@@ -498,37 +599,42 @@ class BookingHandler {
             return; // User cancelled
         }
         
-        // Store just the payment type (without masked number for display)
-        String paymentForBooking = selectedPayment;
-        
-        int id = SerenitySuitesHMS.bookings.size() + 1;
-        Booking b = new Booking(id, SerenitySuitesHMS.currentUser.getUsername(), r.getRoomNumber(), ci, co, g, r.getPrice(), paymentForBooking, ciTime, coTime);
-        
-        // Check and apply any applicable offers
-        java.util.List<Offer> offers = initializeOffers();
-        java.util.List<String> applicableOffers = new java.util.ArrayList<>();
-        
-        for (Offer offer : offers) {
-            if (offer.qualifies(b, r)) {
-                applicableOffers.add(offer.getName() + " (" + offer.getDiscountPercent() + "% OFF)");
-                // Apply the best offer (highest discount)
-                if (b.getDiscountPercent() == 0 || offer.getDiscountPercent() > b.getDiscountPercent()) {
-                    b.applyOffer(offer, r);
-                }
+        String username = SerenitySuitesHMS.currentUser.getUsername();
+        
+        // Reserve, price and save the booking on a worker thread (saving waits for the disk),
+        // then report back here on the EDT
+        parent.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        BackgroundTasks.run(() -> SerenitySuitesHMS.service.book(username, r.getRoomNumber(), checkinDay, checkoutDay, g,
+                selectedPayment, Booking.toTimeSlot(ciTime), Booking.toTimeSlot(coTime)),
+        result -> {
+            parent.setCursor(Cursor.getDefaultCursor());
+            if (!result.isOk()) {
+                showFailure(parent, result);
+                return;
             }
-        }
-        
-        SerenitySuitesHMS.bookings.add(b);
-        r.setBooked(true);
+            showBookingSuccess(parent, result.value, bookPanel);
+        }, ex -> {
+            parent.setCursor(Cursor.getDefaultCursor());
+            JOptionPane.showMessageDialog(parent, "The booking could not be saved: " + ex.getMessage(), "Booking Failed", JOptionPane.ERROR_MESSAGE);
+        });
+    }
+    
+    private static void showFailure(SerenitySuitesHMS parent, HotelService.Result<?> result) {
+        JOptionPane.showMessageDialog(parent, result.message, result.title, JOptionPane.ERROR_MESSAGE);
+    }
+    
+    private static void showBookingSuccess(SerenitySuitesHMS parent, HotelService.PricedStay stay, BookPanel bookPanel) {
+        Booking b = stay.booking;
+        int id = b.getId();
         
         // Build success message with offer details
         String message = "Booking successful! Booking ID: " + id + "\n";
-        if (applicableOffers.size() > 0) {
+        if (stay.offers.size() > 0) {
             message += "Applicable Offers:\n";
-            for (String offer : applicableOffers) {
-                message += "  ✓ " + offer + "\n";
+            for (Offer offer : stay.offers) {
+                message += "  ✓ " + offer.getName() + " (" + offer.getDiscountPercent() + "% OFF)\n";
             }
-            message += "\nBase Price: ₱" + String.format("%.2f", b.getPricePerNight() * b.getNumberOfNights());
+            message += "\nBase Price: ₱" + String.format("%.2f", b.getBasePrice());
             message += "\nDiscount: -₱" + String.format("%.2f", b.getDiscountAmount());
             message += "\nFinal Total: ₱" + String.format("%.2f", b.getTotalPrice());
         } else {
@@ -537,52 +643,30 @@ class BookingHandler {
         
         JOptionPane.showMessageDialog(parent, message, "Success", JOptionPane.INFORMATION_MESSAGE);
         
-        // Refresh the RoomsPanel to show updated room status
-        if (mainPanel != null && mainPanel.getRoomsPanel() != null) {
-            mainPanel.getRoomsPanel().refreshRooms();
-        }
-        
         // Reset the booking form for a fresh booking
+        // (rooms, reservations and the admin dashboard refresh themselves from the booking event)
         bookPanel.resetForm();
-        
-        // If admin made the booking, refresh admin dashboard
-        if (SerenitySuitesHMS.currentUser.getRole().equals("ADMIN")) {
-            refreshAdminDashboard();
-        }
-    }
-    
-    private static void refreshAdminDashboard() {
-        // Find the main frame and refresh admin panel
-        for (java.awt.Window w : java.awt.Window.getWindows()) {
-            if (w instanceof SerenitySuitesHMS) {
-                SerenitySuitesHMS frame = (SerenitySuitesHMS) w;
-                // The MainPanel will be in contentPanel, we need to access it
-                javax.swing.JPanel mainPanel = (javax.swing.JPanel) frame.getContentPane().getComponent(0);
-                for (java.awt.Component c : mainPanel.getComponents()) {
-                    if (c.getClass().getName().equals("MainPanel")) {
-                        MainPanel mp = (MainPanel) c;
-                        AdminPanel ap = mp.getAdminPanel();
-                        if (ap != null) {
-                            ap.refreshDashboard();
-                        }
-                        break;
-                    }
-                }
-            }
-        }
     }
 }
 
 // Admin Panel
 class AdminPanel extends JPanel {
     private JPanel content;
-    private JTable table;
-    private RoomsPanel roomsPanel;  // Reference to rooms panel to refresh when booking cancelled
+    private KeyedChildren<String, String[], StatCard> statCards;   // Stat cards by title; refresh updates their values in place
+    private ForecastChart forecastChart;                          // Next year's occupancy; reads the forecast when it paints
+    private JTable table;            // Built once; its model follows the bookings by itself
     private JTabbedPane tabbedPane;
     private JPanel roomManagementPanel;
+    private JLabel roomsTitle;                                    // "Current Rooms (n)" on the Manage Rooms tab
+    private KeyedTableModel<Integer, Room> roomsModel;            // Rows of the rooms table, by room number
+    private JTextField reportFrom, reportTo;                      // Reports tab: first and last night of the range (yyyy-MM-dd)
+    private JComboBox<String> reportPeriod, reportType;
+    private JLabel reportSummary;
+    private KeyedTableModel<String, RevenueReport.Row> reportModel;   // One row per day, week or month
+    private RevenueReport lastReport;                             // Regrouped without rescanning when only the grouping changes
+    private BackgroundTasks.Latest reportTask = new BackgroundTasks.Latest();
     
-    public AdminPanel(RoomsPanel roomsPanel) {
-        this.roomsPanel = roomsPanel;  // Store reference to rooms panel
+    public AdminPanel() {
         setLayout(new BorderLayout(20, 20));
         setBackground(Color.WHITE);
         setBorder(BorderFactory.createEmptyBorder(30, 30, 30, 30));
@@ -602,6 +686,17 @@ class AdminPanel extends JPanel {
         bookingsPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         content = new JPanel(new BorderLayout(20, 20));
         content.setBackground(Color.WHITE);
+        JPanel stats = new JPanel(new GridLayout(1, 4, 20, 0));
+        stats.setBackground(Color.WHITE);
+        statCards = new KeyedChildren<>(stats, 0, m -> m[0], m -> new StatCard(m[0]), StatCard::setValues);
+        forecastChart = new ForecastChart(SerenitySuitesHMS.bookings.forecast(), SerenitySuitesHMS.rooms);
+        forecastChart.setBorder(BorderFactory.createLineBorder(new Color(224, 224, 224), 1));
+        JPanel overview = new JPanel(new BorderLayout(0, 15));
+        overview.setBackground(Color.WHITE);
+        overview.add(stats, BorderLayout.NORTH);
+        overview.add(forecastChart, BorderLayout.CENTER);
+        content.add(overview, BorderLayout.NORTH);
+        buildBookingsTable();
         refreshDashboard();
         bookingsPanel.add(content, BorderLayout.CENTER);
         tabbedPane.addTab("Bookings", bookingsPanel);
@@ -612,7 +707,18 @@ class AdminPanel extends JPanel {
         refreshRoomManagement();
         tabbedPane.addTab("Manage Rooms", roomManagementPanel);
         
+        // Reports Tab
+        tabbedPane.addTab("Reports", createReportsPanel());
+        
         add(tabbedPane, BorderLayout.CENTER);
+        
+        // Follow bookings and new rooms; a burst of changes arrives as one batch, so one refresh
+        SerenitySuitesHMS.events.subscribe(this, batch -> {
+            refreshDashboard();
+            if (batch.stream().anyMatch(e -> e instanceof EventBus.RoomAdded)) {
+                refreshRoomList();
+            }
+        }, EventBus.BookingCreated.class, EventBus.BookingCancelled.class, EventBus.RoomAdded.class);
     }
     
     private void refreshRoomManagement() {
@@ -654,9 +760,7 @@ class AdminPanel extends JPanel {
         roomTypeLabel.setFont(new Font("Segoe UI", Font.BOLD, 12));
         formPanel.add(roomTypeLabel, g);
         g.gridy++;
-        JComboBox<String> roomTypeCombo = new JComboBox<>(new String[]{
-            "Standard", "Deluxe", "Executive", "Suite", "Family"
-        });
+        JComboBox<String> roomTypeCombo = new JComboBox<>(RoomRepository.TYPES);
         roomTypeCombo.setPreferredSize(new Dimension(350, 40));
         formPanel.add(roomTypeCombo, g);
         
@@ -709,19 +813,13 @@ class AdminPanel extends JPanel {
                 int roomNum = Integer.parseInt(roomNumStr);
                 double price = Double.parseDouble(priceStr);
                 
-                // Check if room number already exists
-                boolean exists = SerenitySuitesHMS.rooms.stream()
-                    .anyMatch(r -> r.getRoomNumber() == roomNum);
-                
-                if (exists) {
-                    JOptionPane.showMessageDialog(mainPanel, "Room number " + roomNum + " already exists!", 
-                        "Error", JOptionPane.ERROR_MESSAGE);
+                // Add new room (rejected if the room number already exists)
+                HotelService.Result<Room> added = SerenitySuitesHMS.service.addRoom(roomNum, roomName, price, capacity, roomType);
+                if (!added.isOk()) {
+                    JOptionPane.showMessageDialog(mainPanel, added.message, added.title, JOptionPane.ERROR_MESSAGE);
                     return;
                 }
                 
-                // Add new room
-                SerenitySuitesHMS.rooms.add(new Room(roomNum, roomName, price, capacity, roomType));
-                
                 JOptionPane.showMessageDialog(mainPanel, 
                     "✅ Room Added Successfully!\n\nRoom #" + roomNum + " (" + roomType + ")\nCapacity: " + capacity + " guests\nPrice: ₱" + price + "/night\n\nTotal Rooms: " + SerenitySuitesHMS.rooms.size(),
                     "Success", JOptionPane.INFORMATION_MESSAGE);
@@ -733,12 +831,6 @@ class AdminPanel extends JPanel {
                 roomTypeCombo.setSelectedIndex(0);
                 capacityCombo.setSelectedIndex(0);
                 
-                // Refresh rooms panel so new room appears
-                roomsPanel.refreshRooms();
-                
-                // Refresh room management to update count and table
-                refreshRoomManagement();
-                
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(mainPanel, "Please enter valid numbers!", "Error", JOptionPane.ERROR_MESSAGE);
             }
@@ -748,36 +840,48 @@ class AdminPanel extends JPanel {
         mainPanel.add(formPanel, BorderLayout.WEST);
         
         // Current Rooms Display (DYNAMIC)
+        mainPanel.add(buildRoomsTable(), BorderLayout.CENTER);
+        refreshRoomList();
+        
+        roomManagementPanel.add(mainPanel, BorderLayout.CENTER);
+        roomManagementPanel.revalidate();
+        roomManagementPanel.repaint();
+    }
+    
+    // Create the "Current Rooms" table once; refreshRoomList fills it
+    private JPanel buildRoomsTable() {
         JPanel roomsDisplayPanel = new JPanel(new BorderLayout(10, 10));
         roomsDisplayPanel.setBackground(Color.WHITE);
-        JLabel roomsTitle = new JLabel("Current Rooms (" + SerenitySuitesHMS.rooms.size() + ")");
+        roomsTitle = new JLabel();
         roomsTitle.setFont(new Font("Segoe UI", Font.BOLD, 14));
         roomsTitle.setForeground(SerenitySuitesHMS.PRIMARY);
         roomsDisplayPanel.add(roomsTitle, BorderLayout.NORTH);
         
-        // Rooms list (sorted by room number)
-        String[] cols = {"Room #", "Name", "Type", "Capacity", "Price/Night", "Status"};
-        Object[][] roomData = SerenitySuitesHMS.rooms.stream()
-            .sorted((r1, r2) -> Integer.compare(r1.getRoomNumber(), r2.getRoomNumber()))  // Sort by room number
-            .map(r -> new Object[]{
-                r.getRoomNumber(),
-                r.getName(),
-                r.getType(),
-                r.getCapacity() + " guests",
-                "₱" + r.getPrice(),
-                r.isBooked() ? "Occupied" : "Available"
-            })
-            .toArray(Object[][]::new);
-        
-        JTable roomsTable = new JTable(roomData, cols) {
-            @Override
-            public boolean isCellEditable(int row, int column) { return false; }
-        };
+        // "Tonight" is the rate engine's price for tonight (season, weekday and occupancy applied)
+        String[] cols = {"Room #", "Name", "Type", "Capacity", "Price/Night", "Tonight", "Status"};
+        roomsModel = new KeyedTableModel<>(cols, Room::getRoomNumber, r -> new Object[]{
+            r.getRoomNumber(),
+            r.getName(),
+            r.getType(),
+            r.getCapacity() + " guests",
+            "₱" + r.getPrice(),
+            SerenitySuitesHMS.rates.nightlyRate(r, RoomCalendar.today()),
+            r.isBooked() ? "Occupied" : "Available"
+        });
+        JTable roomsTable = new JTable(roomsModel);
         roomsTable.setRowHeight(30);
         roomsTable.setFont(new Font("Segoe UI", Font.PLAIN, 12));
         roomsTable.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 12));
         roomsTable.getTableHeader().setBackground(new Color(248, 249, 250));
         
+        // Tonight's rate stays a number underneath; only the rows on screen are formatted
+        roomsTable.getColumn("Tonight").setCellRenderer(new javax.swing.table.DefaultTableCellRenderer() {
+            @Override
+            protected void setValue(Object value) {
+                setText(value == null ? "" : "₱" + String.format("%.2f", value));
+            }
+        });
+        
         // Status column color
         roomsTable.getColumn("Status").setCellRenderer(new javax.swing.table.DefaultTableCellRenderer() {
             @Override
@@ -794,64 +898,221 @@ class AdminPanel extends JPanel {
         });
         
         roomsDisplayPanel.add(new JScrollPane(roomsTable), BorderLayout.CENTER);
-        mainPanel.add(roomsDisplayPanel, BorderLayout.CENTER);
+        return roomsDisplayPanel;
+    }
+    
+    // Bring the "Current Rooms" table up to date (sorted by room number); only changed rows repaint
+    private void refreshRoomList() {
+        roomsTitle.setText("Current Rooms (" + SerenitySuitesHMS.rooms.size() + ")");
+        roomsModel.setRows(SerenitySuitesHMS.rooms.all());
+    }
+    
+    // Revenue, ADR, RevPAR and occupancy over a date range, by day/week/month and room type
+    private JPanel createReportsPanel() {
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBackground(Color.WHITE);
+        panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+        
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
+        controls.setBackground(Color.WHITE);
+        java.time.LocalDate today = java.time.LocalDate.now();
+        reportFrom = createReportDateField(controls, "From:", today.withDayOfYear(1));
+        reportTo = createReportDateField(controls, "To:", today.withDayOfYear(today.lengthOfYear()));
+        
+        controls.add(new JLabel("Group by:"));
+        reportPeriod = new JComboBox<>(new String[]{"Day", "Week", "Month"});
+        reportPeriod.setSelectedIndex(2);
+        reportPeriod.addActionListener(e -> showReport());
+        controls.add(reportPeriod);
+        
+        controls.add(new JLabel("Room Type:"));
+        String[] types = new String[RoomRepository.TYPES.length + 1];
+        types[0] = "All Types";
+        System.arraycopy(RoomRepository.TYPES, 0, types, 1, RoomRepository.TYPES.length);
+        reportType = new JComboBox<>(types);
+        reportType.addActionListener(e -> showReport());
+        controls.add(reportType);
+        
+        JButton run = UIComponents.createStyledButton("Run Report", SerenitySuitesHMS.ACCENT);
+        run.setPreferredSize(new Dimension(130, 35));
+        run.addActionListener(e -> runReport());
+        controls.add(run);
+        
+        reportSummary = new JLabel("Pick a date range and click Run Report.");
+        reportSummary.setFont(new Font("Segoe UI", Font.BOLD, 13));
+        reportSummary.setForeground(SerenitySuitesHMS.PRIMARY);
+        
+        JPanel top = new JPanel(new BorderLayout(0, 10));
+        top.setBackground(Color.WHITE);
+        top.add(controls, BorderLayout.NORTH);
+        top.add(reportSummary, BorderLayout.SOUTH);
+        panel.add(top, BorderLayout.NORTH);
+        
+        String[] cols = {"Period", "Room Nights", "Nights Sold", "Occupancy", "Revenue", "ADR", "RevPAR"};
+        reportModel = new KeyedTableModel<>(cols, r -> r.label, r -> new Object[]{
+            r.label,
+            r.roomNightsAvailable,
+            r.nightsSold,
+            String.format("%.1f%%", r.occupancyPercent()),
+            String.format("₱%,.2f", r.revenue),
+            String.format("₱%,.2f", r.averageDailyRate()),
+            String.format("₱%,.2f", r.revPar())
+        });
+        JTable reportTable = new JTable(reportModel);
+        reportTable.setRowHeight(30);
+        reportTable.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        reportTable.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 12));
+        reportTable.getTableHeader().setBackground(new Color(248, 249, 250));
+        panel.add(new JScrollPane(reportTable), BorderLayout.CENTER);
+        return panel;
+    }
+    
+    private JTextField createReportDateField(JPanel controls, String label, java.time.LocalDate initial) {
+        controls.add(new JLabel(label));
+        JTextField field = UIComponents.createStyledTextField();
+        field.setPreferredSize(new Dimension(120, 35));
+        field.setText(initial.toString());
+        controls.add(field);
+        JButton pick = new JButton("📅");
+        pick.setPreferredSize(new Dimension(45, 35));
+        pick.setFont(new Font("Segoe UI", Font.PLAIN, 18));
+        pick.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        pick.addActionListener(e -> {
+            Window w = SwingUtilities.getWindowAncestor(this);
+            String date = DatePickerDialog.showDatePicker(w instanceof JFrame ? (JFrame) w : null, "Select Date");
+            if (date != null) {
+                field.setText(date);
+            }
+        });
+        controls.add(pick);
+        return field;
+    }
+    
+    // Scan the booking history for the range on a worker thread (the scan itself is split over all cores)
+    private void runReport() {
+        int fromDay, toDay;
+        try {
+            fromDay = RoomCalendar.toEpochDay(reportFrom.getText().trim());
+            toDay = RoomCalendar.toEpochDay(reportTo.getText().trim()) + 1;   // The "To" night is included
+        } catch (java.time.DateTimeException ex) {
+            JOptionPane.showMessageDialog(this, "Please enter dates as yyyy-MM-dd.", "Invalid Date", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (toDay <= fromDay) {
+            JOptionPane.showMessageDialog(this, "The end date must not be before the start date.", "Invalid Range", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
         
-        roomManagementPanel.add(mainPanel, BorderLayout.CENTER);
-        roomManagementPanel.revalidate();
-        roomManagementPanel.repaint();
+        reportSummary.setText("Building report...");
+        long started = System.nanoTime();
+        reportTask.submit(() -> RevenueReport.build(SerenitySuitesHMS.bookings.columns(), SerenitySuitesHMS.rooms, fromDay, toDay),
+            report -> {
+                lastReport = report;
+                showReport();
+                reportSummary.setText(reportSummary.getText() + String.format("   (built in %d ms)", (System.nanoTime() - started) / 1_000_000));
+            },
+            ex -> reportSummary.setText("Report failed: " + ex.getMessage()));
+    }
+    
+    // Show the last built report with the current grouping and room type
+    private void showReport() {
+        if (lastReport == null) {
+            return;
+        }
+        RevenueReport.Period period = RevenueReport.Period.values()[reportPeriod.getSelectedIndex()];
+        String type = reportType.getSelectedIndex() == 0 ? null : (String) reportType.getSelectedItem();
+        reportModel.setRows(lastReport.rows(period, type));
+        RevenueReport.Row total = lastReport.total(type);
+        reportSummary.setText(String.format("Revenue ₱%,.2f   |   ADR ₱%,.2f   |   RevPAR ₱%,.2f   |   Occupancy %.1f%%   |   %,d nights sold",
+            total.revenue, total.averageDailyRate(), total.revPar(), total.occupancyPercent(), total.nightsSold));
+    }
+    
+    // Bring the whole dashboard up to date after it was off screen (it misses events while hidden)
+    public void refreshAll() {
+        refreshDashboard();
+        refreshRoomList();
     }
     
+    // Update the stat cards; the bookings table below keeps itself up to date
     public void refreshDashboard() {
-        content.removeAll();
-        
-        JPanel stats = new JPanel(new GridLayout(1, 3, 20, 0));
-        stats.setBackground(Color.WHITE);
-        
-        int totalBookings = SerenitySuitesHMS.bookings.size();
-        double totalRevenue = SerenitySuitesHMS.bookings.stream()
-            .mapToDouble(Booking::getTotalPrice).sum();
-        double occupancy = SerenitySuitesHMS.rooms.stream()
-            .filter(Room::isBooked).count() * 100.0 / SerenitySuitesHMS.rooms.size();
-        
-        stats.add(createStatCard("Total Bookings", String.valueOf(totalBookings)));
-        stats.add(createStatCard("Total Revenue", "₱" + String.format("%.2f", totalRevenue)));
-        stats.add(createStatCard("Occupancy Rate", String.format("%.1f%%", occupancy)));
-        
-        content.add(stats, BorderLayout.NORTH);
-        
-        String[] cols = {"ID", "Guest", "Room", "Check-in", "Check-out", "Guests", "Total", "Payment", "Action"};
-        Object[][] data = SerenitySuitesHMS.bookings.stream()
-            .map(b -> new Object[]{
-                b.getId(), b.getUsername(), b.getRoomNumber(), 
-                b.getCheckin(), b.getCheckout(), b.getGuests(),
-                "₱" + b.getTotalPrice(), b.getPayment(), "Cancel"
-            })
-            .toArray(Object[][]::new);
-        
-        table = new JTable(data, cols) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 8; // Only Action column is editable
-            }
-        };
+        // Read the running totals instead of rescanning every booking and room
+        DashboardStats totals = SerenitySuitesHMS.bookings.stats();
+        double occupancy = SerenitySuitesHMS.bookings.forecast().occupancyPercent(null, RoomCalendar.today());
+        
+        // Per-type breakdown on hover
+        StringBuilder byType = new StringBuilder("<html>");
+        for (String type : RoomRepository.TYPES) {
+            byType.append(type).append(": ").append(totals.bookingsFor(type)).append(" bookings, ₱")
+                .append(String.format("%.2f", totals.revenueFor(type))).append("<br>");
+        }
+        byType.append("</html>");
+        
+        // Title, value, tooltip
+        statCards.reconcile(java.util.Arrays.asList(
+            new String[]{"Total Bookings", String.valueOf(totals.totalBookings()), byType.toString()},
+            new String[]{"Total Revenue", "₱" + String.format("%.2f", totals.totalRevenue()), byType.toString()},
+            new String[]{"Occupancy Rate", String.format("%.1f%%", occupancy), null},
+            new String[]{"Avg. Discount", String.format("%.1f%%", totals.averageDiscountPercent()), null}));
+        forecastChart.repaint();
+    }
+    
+    // Create the bookings table once, on a live model with sorting and a search filter
+    private void buildBookingsTable() {
+        BookingTableModel model = new BookingTableModel(SerenitySuitesHMS.bookings);
+        table = new JTable(model);
         table.setRowHeight(35);
         table.setFont(new Font("Segoe UI", Font.PLAIN, 13));
         table.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 13));
         table.getTableHeader().setBackground(new Color(248, 249, 250));
         
+        // Click a column header to sort; the sorter only keeps a row order, the bookings are not copied
+        javax.swing.table.TableRowSorter<BookingTableModel> sorter = new javax.swing.table.TableRowSorter<>(model);
+        sorter.setSortable(BookingTableModel.ACTION_COLUMN, false);
+        sorter.setSortsOnUpdates(true);   // Slot new rows into the current order instead of re-sorting everything
+        table.setRowSorter(sorter);
+        
+        // Totals are shown as pesos but stay numbers underneath so they sort correctly
+        table.getColumn("Total").setCellRenderer(new javax.swing.table.DefaultTableCellRenderer() {
+            @Override
+            protected void setValue(Object value) {
+                setText(value == null ? "" : "₱" + value);
+            }
+        });
+        
         // Add proper button renderer and editor for cancel action
         table.getColumn("Action").setCellRenderer(new ButtonRenderer());
-        table.getColumn("Action").setCellEditor(new ButtonEditor(new JCheckBox(), this, roomsPanel));
+        table.getColumn("Action").setCellEditor(new ButtonEditor(new JCheckBox()));
+        
+        // Search box: show only rows where ID, guest, room or dates contain the text
+        JTextField search = UIComponents.createStyledTextField();
+        search.setToolTipText("Search by ID, guest, room or date");
+        search.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { applyFilter(); }
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { applyFilter(); }
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { applyFilter(); }
+            
+            private void applyFilter() {
+                String text = search.getText().trim();
+                sorter.setRowFilter(text.isEmpty() ? null
+                    : RowFilter.regexFilter("(?i)" + java.util.regex.Pattern.quote(text), 0, 1, 2, 3, 4));
+            }
+        });
         
-        content.add(new JScrollPane(table), BorderLayout.CENTER);
-        content.revalidate();
-        content.repaint();
+        JPanel tablePanel = new JPanel(new BorderLayout(10, 10));
+        tablePanel.setBackground(Color.WHITE);
+        JPanel searchRow = new JPanel(new BorderLayout(10, 0));
+        searchRow.setBackground(Color.WHITE);
+        JLabel searchLabel = new JLabel("Search:");
+        searchLabel.setFont(new Font("Segoe UI", Font.BOLD, 12));
+        searchRow.add(searchLabel, BorderLayout.WEST);
+        searchRow.add(search, BorderLayout.CENTER);
+        tablePanel.add(searchRow, BorderLayout.NORTH);
+        tablePanel.add(new JScrollPane(table), BorderLayout.CENTER);
+        content.add(tablePanel, BorderLayout.CENTER);
     }
     
     private void cancelBooking(int bookingId) {
-        Booking booking = SerenitySuitesHMS.bookings.stream()
-            .filter(b -> b.getId() == bookingId)
-            .findFirst().orElse(null);
+        Booking booking = SerenitySuitesHMS.bookings.get(bookingId);
         
         if (booking != null) {
             // Show confirmation dialog
@@ -862,12 +1123,12 @@ class AdminPanel extends JPanel {
                 JOptionPane.WARNING_MESSAGE);
             
             if (response == JOptionPane.YES_OPTION) {
-                SerenitySuitesHMS.bookings.remove(booking);
-                
-                // Mark room as available
-                SerenitySuitesHMS.rooms.stream()
-                    .filter(r -> r.getRoomNumber() == booking.getRoomNumber())
-                    .findFirst().ifPresent(r -> r.setBooked(false));
+                // Removes the booking and frees its dates on the room's calendar
+                HotelService.Result<Booking> cancelled = SerenitySuitesHMS.service.cancel(bookingId, null);
+                if (!cancelled.isOk()) {
+                    JOptionPane.showMessageDialog(null, cancelled.message, cancelled.title, JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
                 
                 JOptionPane.showMessageDialog(null, "Reservation #" + bookingId + " has been cancelled.", 
                     "Success", JOptionPane.INFORMATION_MESSAGE);
@@ -876,24 +1137,33 @@ class AdminPanel extends JPanel {
     }
 
     
-    private JPanel createStatCard(String label, String value) {
-        JPanel card = new JPanel(new BorderLayout());
-        card.setBackground(SerenitySuitesHMS.PRIMARY);
-        card.setBorder(BorderFactory.createEmptyBorder(25, 25, 25, 25));
-        
-        JLabel val = new JLabel(value);
-        val.setFont(new Font("Segoe UI", Font.BOLD, 32));
-        val.setForeground(Color.WHITE);
-        val.setHorizontalAlignment(SwingConstants.CENTER);
-        
-        JLabel lbl = new JLabel(label);
-        lbl.setFont(new Font("Segoe UI", Font.PLAIN, 16));
-        lbl.setForeground(Color.WHITE);
-        lbl.setHorizontalAlignment(SwingConstants.CENTER);
+    // A dashboard figure: big value over its title
+    private static class StatCard extends JPanel {
+        private JLabel val = new JLabel();
+        
+        StatCard(String label) {
+            super(new BorderLayout());
+            setBackground(SerenitySuitesHMS.PRIMARY);
+            setBorder(BorderFactory.createEmptyBorder(25, 25, 25, 25));
+            
+            val.setFont(new Font("Segoe UI", Font.BOLD, 32));
+            val.setForeground(Color.WHITE);
+            val.setHorizontalAlignment(SwingConstants.CENTER);
+            
+            JLabel lbl = new JLabel(label);
+            lbl.setFont(new Font("Segoe UI", Font.PLAIN, 16));
+            lbl.setForeground(Color.WHITE);
+            lbl.setHorizontalAlignment(SwingConstants.CENTER);
+            
+            add(val, BorderLayout.CENTER);
+            add(lbl, BorderLayout.SOUTH);
+        }
         
-        card.add(val, BorderLayout.CENTER);
-        card.add(lbl, BorderLayout.SOUTH);
-        return card;
+        // Show {title, value, tooltip}; setText only relays out the card when the text really changes
+        void setValues(String[] m) {
+            val.setText(m[1]);
+            setToolTipText(m[2]);
+        }
     }
 }
 
@@ -903,9 +1173,14 @@ class DatePickerDialog extends JDialog {
     private int currentYear;
     private int currentMonth;
     private JLabel monthYearLabel;
-    private JPanel calendarPanel;
+    private AvailabilityCalendar calendarView;   // Painted month grid, shaded by rooms left
     
     public DatePickerDialog(JFrame parent, String title) {
+        this(parent, title, null);
+    }
+    
+    // roomType: shade each day by how many rooms of this type are still free (null = plain calendar)
+    public DatePickerDialog(JFrame parent, String title, String roomType) {
         super(parent, title, true);
         setSize(400, 450);
         setLocationRelativeTo(parent);
@@ -917,12 +1192,22 @@ class DatePickerDialog extends JDialog {
         
         add(createHeader(), BorderLayout.NORTH);
         
-        calendarPanel = new JPanel(new GridLayout(7, 7, 5, 5));
-        calendarPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        calendarView = new AvailabilityCalendar(roomType, day -> {
+            selectedDate = java.time.LocalDate.ofEpochDay(day).toString();
+            dispose();
+        });
+        JPanel calendarHolder = new JPanel(new BorderLayout());
+        calendarHolder.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        calendarHolder.add(calendarView, BorderLayout.CENTER);
         updateCalendar();
-        add(calendarPanel, BorderLayout.CENTER);
+        add(calendarHolder, BorderLayout.CENTER);
         
         JPanel footer = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        if (roomType != null) {
+            JLabel legend = new JLabel(roomType + " rooms left per night");
+            legend.setForeground(Color.GRAY);
+            footer.add(legend);
+        }
         JButton cancel = UIComponents.createStyledButton("Cancel", new Color(108, 117, 125));
         cancel.addActionListener(e -> dispose());
         footer.add(cancel);
@@ -977,72 +1262,18 @@ class DatePickerDialog extends JDialog {
         monthYearLabel.setText(months[currentMonth] + " " + currentYear);
     }
     
+    // Show the current month; the view loads that month's availability in one pass
     private void updateCalendar() {
-        calendarPanel.removeAll();
         updateMonthYearLabel();
-        
-        // Add day headers (Sun, Mon, Tue, Wed, Thu, Fri, Sat)
-        String[] days = {"Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat"};
-        for (String day : days) {
-            JLabel label = new JLabel(day, SwingConstants.CENTER);
-            label.setFont(new Font("Segoe UI", Font.BOLD, 12));
-            label.setForeground(SerenitySuitesHMS.PRIMARY);
-            calendarPanel.add(label);
-        }
-        
-        // Get calendar info for this month
-        java.util.Calendar cal = java.util.Calendar.getInstance();
-        cal.set(currentYear, currentMonth, 1);
-        int startDay = cal.get(java.util.Calendar.DAY_OF_WEEK) - 1;  // 0 = Sunday
-        int daysInMonth = cal.getActualMaximum(java.util.Calendar.DAY_OF_MONTH);
-        
-        // Add empty cells for days before month starts (to align correctly)
-        for (int i = 0; i < startDay; i++) {
-            calendarPanel.add(new JLabel(""));
-        }
-        
-        // Add all days of the month
-        for (int day = 1; day <= daysInMonth; day++) {
-            final int d = day;
-            JButton dayBtn = new JButton(String.valueOf(day));
-            dayBtn.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-            dayBtn.setFocusPainted(false);
-            dayBtn.setCursor(new Cursor(Cursor.HAND_CURSOR));
-            dayBtn.setBackground(Color.WHITE);
-            dayBtn.setBorder(BorderFactory.createLineBorder(new Color(220, 220, 220), 1));
-            
-            dayBtn.addActionListener(e -> {
-                selectedDate = String.format("%04d-%02d-%02d", currentYear, currentMonth + 1, d);
-                dispose();
-            });
-            
-            dayBtn.addMouseListener(new java.awt.event.MouseAdapter() {
-                public void mouseEntered(java.awt.event.MouseEvent e) {
-                    dayBtn.setBackground(SerenitySuitesHMS.PRIMARY);
-                    dayBtn.setForeground(Color.WHITE);
-                }
-                public void mouseExited(java.awt.event.MouseEvent e) {
-                    dayBtn.setBackground(Color.WHITE);
-                    dayBtn.setForeground(Color.BLACK);
-                }
-            });
-            
-            calendarPanel.add(dayBtn);
-        }
-        
-        // Add empty cells for remaining space (after month ends)
-        int totalCells = 7 + startDay + daysInMonth;  // 7 header + start empty + days
-        int remainingCells = 49 - totalCells;  // 7x7 grid = 49 cells total
-        for (int i = 0; i < remainingCells; i++) {
-            calendarPanel.add(new JLabel(""));
-        }
-        
-        calendarPanel.revalidate();
-        calendarPanel.repaint();
+        calendarView.setMonth(currentYear, currentMonth + 1);
     }
     
     public static String showDatePicker(JFrame parent, String title) {
-        DatePickerDialog dialog = new DatePickerDialog(parent, title);
+        return showDatePicker(parent, title, null);
+    }
+    
+    public static String showDatePicker(JFrame parent, String title, String roomType) {
+        DatePickerDialog dialog = new DatePickerDialog(parent, title, roomType);
         dialog.setVisible(true);
         return dialog.selectedDate;
     }
@@ -1050,8 +1281,9 @@ class DatePickerDialog extends JDialog {
 
 // Reservation Panel
 class ReservationPanel extends JPanel {
-    private JScrollPane scrollPane;
-    private JPanel contentPanel;
+    private CardLayout contentLayout;
+    private JPanel contentPanel;                                   // The table, or a message when there are no reservations
+    private KeyedTableModel<Integer, Booking> model;              // This user's bookings, by booking ID
     
     public ReservationPanel() {
         setLayout(new BorderLayout(20, 20));
@@ -1063,79 +1295,87 @@ class ReservationPanel extends JPanel {
         title.setForeground(SerenitySuitesHMS.PRIMARY);
         add(title, BorderLayout.NORTH);
         
-        contentPanel = new JPanel(new BorderLayout());
+        contentLayout = new CardLayout();
+        contentPanel = new JPanel(contentLayout);
         contentPanel.setBackground(Color.WHITE);
+        contentPanel.add(createEmptyPanel(), "EMPTY");
+        contentPanel.add(createTable(), "TABLE");
         
         updateReservations();
         add(contentPanel, BorderLayout.CENTER);
+        
+        // Update once per batch, and only if one of the changes is this user's
+        SerenitySuitesHMS.events.subscribe(this, batch -> {
+            for (EventBus.Event e : batch) {
+                Booking b = e instanceof EventBus.BookingCreated ? ((EventBus.BookingCreated) e).getBooking() : ((EventBus.BookingCancelled) e).getBooking();
+                if (b.getUsername().equals(SerenitySuitesHMS.currentUser.getUsername())) {
+                    updateReservations();
+                    return;
+                }
+            }
+        }, EventBus.BookingCreated.class, EventBus.BookingCancelled.class);
     }
     
-    private void updateReservations() {
-        contentPanel.removeAll();
-        
-        Object[][] data = getBookingsData();
-        
-        if (data.length == 0) {
-            JPanel emptyPanel = new JPanel(new GridBagLayout());
-            emptyPanel.setBackground(Color.WHITE);
-            
-            JPanel messagePanel = new JPanel();
-            messagePanel.setLayout(new BoxLayout(messagePanel, BoxLayout.Y_AXIS));
-            messagePanel.setBackground(Color.WHITE);
-            
-            JLabel emptyIcon = new JLabel("📋");
-            emptyIcon.setFont(new Font("Segoe UI", Font.PLAIN, 64));
-            emptyIcon.setAlignmentX(Component.CENTER_ALIGNMENT);
-            
-            JLabel emptyMsg = new JLabel("No reservations yet");
-            emptyMsg.setFont(new Font("Segoe UI", Font.BOLD, 20));
-            emptyMsg.setForeground(Color.GRAY);
-            emptyMsg.setAlignmentX(Component.CENTER_ALIGNMENT);
-            
-            JLabel emptySubMsg = new JLabel("Book a room to see your reservations here");
-            emptySubMsg.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-            emptySubMsg.setForeground(Color.GRAY);
-            emptySubMsg.setAlignmentX(Component.CENTER_ALIGNMENT);
-            
-            messagePanel.add(emptyIcon);
-            messagePanel.add(Box.createVerticalStrut(10));
-            messagePanel.add(emptyMsg);
-            messagePanel.add(Box.createVerticalStrut(5));
-            messagePanel.add(emptySubMsg);
-            
-            emptyPanel.add(messagePanel);
-            contentPanel.add(emptyPanel, BorderLayout.CENTER);
-        } else {
-            String[] cols = {"Booking ID", "Room", "Check-in", "Check-out", "Guests", "Total", "Payment"};
-            JTable table = new JTable(data, cols);
-            table.setRowHeight(35);
-            table.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-            table.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 14));
-            table.getTableHeader().setBackground(new Color(248, 249, 250));
-            table.setSelectionBackground(new Color(102, 126, 234, 50));
-            
-            scrollPane = new JScrollPane(table);
-            scrollPane.setBorder(BorderFactory.createLineBorder(new Color(224, 224, 224), 1));
-            contentPanel.add(scrollPane, BorderLayout.CENTER);
-        }
+    private JPanel createEmptyPanel() {
+        JPanel emptyPanel = new JPanel(new GridBagLayout());
+        emptyPanel.setBackground(Color.WHITE);
+        
+        JPanel messagePanel = new JPanel();
+        messagePanel.setLayout(new BoxLayout(messagePanel, BoxLayout.Y_AXIS));
+        messagePanel.setBackground(Color.WHITE);
+        
+        JLabel emptyIcon = new JLabel("📋");
+        emptyIcon.setFont(new Font("Segoe UI", Font.PLAIN, 64));
+        emptyIcon.setAlignmentX(Component.CENTER_ALIGNMENT);
+        
+        JLabel emptyMsg = new JLabel("No reservations yet");
+        emptyMsg.setFont(new Font("Segoe UI", Font.BOLD, 20));
+        emptyMsg.setForeground(Color.GRAY);
+        emptyMsg.setAlignmentX(Component.CENTER_ALIGNMENT);
+        
+        JLabel emptySubMsg = new JLabel("Book a room to see your reservations here");
+        emptySubMsg.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        emptySubMsg.setForeground(Color.GRAY);
+        emptySubMsg.setAlignmentX(Component.CENTER_ALIGNMENT);
+        
+        messagePanel.add(emptyIcon);
+        messagePanel.add(Box.createVerticalStrut(10));
+        messagePanel.add(emptyMsg);
+        messagePanel.add(Box.createVerticalStrut(5));
+        messagePanel.add(emptySubMsg);
+        
+        emptyPanel.add(messagePanel);
+        return emptyPanel;
+    }
+    
+    // Created once; updateReservations only changes the rows that differ
+    private JScrollPane createTable() {
+        String[] cols = {"Booking ID", "Room", "Check-in", "Check-out", "Guests", "Total", "Payment"};
+        model = new KeyedTableModel<>(cols, Booking::getId, b -> new Object[]{
+            b.getId(), 
+            "Room " + b.getRoomNumber(), 
+            b.getCheckin() + " " + b.getCheckinTime(), 
+            b.getCheckout() + " " + b.getCheckoutTime(), 
+            b.getGuests(), 
+            "₱" + String.format("%.2f", b.getTotalPrice()), 
+            b.getPayment()
+        });
+        JTable table = new JTable(model);
+        table.setRowHeight(35);
+        table.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        table.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 14));
+        table.getTableHeader().setBackground(new Color(248, 249, 250));
+        table.setSelectionBackground(new Color(102, 126, 234, 50));
         
-        contentPanel.revalidate();
-        contentPanel.repaint();
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setBorder(BorderFactory.createLineBorder(new Color(224, 224, 224), 1));
+        return scrollPane;
     }
     
-    private Object[][] getBookingsData() {
-        return SerenitySuitesHMS.bookings.stream()
-            .filter(b -> b.getUsername().equals(SerenitySuitesHMS.currentUser.getUsername()))
-            .map(b -> new Object[]{
-                b.getId(), 
-                "Room " + b.getRoomNumber(), 
-                b.getCheckin() + " " + b.getCheckinTime(), 
-                b.getCheckout() + " " + b.getCheckoutTime(), 
-                b.getGuests(), 
-                "₱" + String.format("%.2f", b.getTotalPrice()), 
-                b.getPayment()
-            })
-            .toArray(Object[][]::new);
+    private void updateReservations() {
+        java.util.List<Booking> mine = new java.util.ArrayList<>(SerenitySuitesHMS.bookings.forUser(SerenitySuitesHMS.currentUser.getUsername()));
+        model.setRows(mine);
+        contentLayout.show(contentPanel, mine.isEmpty() ? "EMPTY" : "TABLE");
     }
     
     public void refreshReservations() {
@@ -1202,10 +1442,10 @@ class OffersPanel extends JPanel {
         JPanel offers = new JPanel(new GridLayout(0, 2, 20, 20));
         offers.setBackground(Color.WHITE);
         
-        offers.add(createOfferCard("Weekend Getaway", "20% OFF", "Book 2 nights, get 20% discount"));
-        offers.add(createOfferCard("Early Bird Special", "15% OFF", "Book 30 days in advance"));
-        offers.add(createOfferCard("Extended Stay", "25% OFF", "Stay 7+ nights, save 25%"));
-        offers.add(createOfferCard("Honeymoon Package", "30% OFF", "Romantic suite with extras"));
+        // Same catalog the booking flow applies
+        for (Offer o : SerenitySuitesHMS.offers.all()) {
+            offers.add(createOfferCard(o.getName(), o.getDiscountPercent() + "% OFF", o.getDescription()));
+        }
         
         add(new JScrollPane(offers), BorderLayout.CENTER);
     }
@@ -0,0 +1,281 @@
+// HOTEL LOAD TEST
+// Load-test client for HotelServer: many open connections at once, reporting throughput and latency
+// Usage: java HotelLoadTest [base URL] [connections] [seconds] [username] [password]
+//   defaults: http://localhost:8080 1000 30 guest1 guest123 (the account books, looks up and
+//   cancels with HTTP Basic authentication; searches are sent without it)
+// Each connection is a simulated desk that sends one request at a time, back to back:
+// 80% room searches, 10% bookings (a room from its last search), 5% lookups and 5%
+// cancellations of bookings it made.
+// All connections are driven by one thread with a non-blocking selector and a minimal
+// HTTP/1.1 reader, so the client stays cheap next to the server it is measuring (it is
+// usually run on the same machine) and a thousand connections need no thousand threads.
+// The first WARMUP_PERCENT of the run is not counted (the JIT is still warming up on both sides).
+// Prints requests per second, the status codes seen and p50/p90/p99/max latency per kind of request.
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+class HotelLoadTest {
+    private static final int WARMUP_PERCENT = 20;
+    private static final long GRACE_NANOS = 30_000_000_000L;   // How long to wait for the last replies after the run
+    private static final int SEARCH = 0, BOOK = 1, LOOKUP = 2, CANCEL = 3;
+    private static final String[] KINDS = {"search", "book", "lookup", "cancel"};
+    private static final java.util.regex.Pattern ROOM_NUMBER = java.util.regex.Pattern.compile("\"number\":(\\d+)");
+    private static final java.util.regex.Pattern BOOKING_ID = java.util.regex.Pattern.compile("\"id\":(\\d+)");
+    
+    private java.net.InetSocketAddress address;
+    private String host;
+    private String authorization;   // "Basic ..." header value for the account
+    private Selector selector;
+    private long countFrom, stopAt;   // System.nanoTime(): requests started from countFrom are counted; none start after stopAt
+    private int running;              // Desks that have not finished
+    private long[][] latencies = new long[KINDS.length][1024];   // Nanoseconds, per kind of request
+    private int[] counted = new int[KINDS.length];
+    private java.util.Map<Integer, Integer> statuses = new java.util.TreeMap<>();
+    private int failures;             // Requests lost to a closed or refused connection
+    
+    // One connection's worth of traffic: sends its next request when the last one is answered
+    private class Desk {
+        private SocketChannel channel;
+        private ByteBuffer out;
+        private ByteBuffer in = ByteBuffer.allocate(16 * 1024);
+        private int kind;
+        private long start;
+        private java.util.Random random = new java.util.Random();
+        private java.util.List<Integer> lastRooms = new java.util.ArrayList<>();   // Free rooms from the last search
+        private String lastCheckin, lastCheckout;
+        private java.util.List<Integer> myBookings = new java.util.ArrayList<>();
+        
+        void connect() throws java.io.IOException {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(java.net.StandardSocketOptions.TCP_NODELAY, true);
+            in.clear();
+            if (channel.connect(address)) {
+                send();
+            } else {
+                channel.register(selector, SelectionKey.OP_CONNECT, this);
+            }
+        }
+        
+        // Send the next request, or hang up once the run is over
+        void send() throws java.io.IOException {
+            start = System.nanoTime();
+            if (start >= stopAt) {
+                channel.close();
+                running--;
+                return;
+            }
+            int roll = random.nextInt(100);
+            kind = roll < 80 ? SEARCH : roll < 90 ? BOOK : roll < 95 ? LOOKUP : CANCEL;
+            if ((kind == BOOK && lastRooms.isEmpty()) || (kind != SEARCH && kind != BOOK && myBookings.isEmpty())) {
+                kind = SEARCH;   // Nothing to book or look up yet
+            }
+            out = ByteBuffer.wrap(request(kind).getBytes(java.nio.charset.StandardCharsets.ISO_8859_1));
+            channel.write(out);
+            channel.register(selector, out.hasRemaining() ? SelectionKey.OP_WRITE : SelectionKey.OP_READ, this);
+        }
+        
+        void ready(SelectionKey key) throws java.io.IOException {
+            if (key.isConnectable()) {
+                channel.finishConnect();
+                send();
+            } else if (key.isWritable()) {
+                channel.write(out);
+                if (!out.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+            } else if (key.isReadable()) {
+                if (!in.hasRemaining()) {
+                    ByteBuffer bigger = ByteBuffer.allocate(in.capacity() * 2);
+                    in.flip();
+                    in = bigger.put(in);
+                }
+                if (channel.read(in) < 0) {
+                    throw new java.io.EOFException("Connection closed by the server");
+                }
+                received();
+            }
+        }
+        
+        // Handle the reply once all of it has arrived (headers, then Content-Length bytes of body)
+        private void received() throws java.io.IOException {
+            byte[] data = in.array();
+            int headerEnd = -1;
+            for (int i = 3; i < in.position(); i++) {
+                if (data[i] == '\n' && data[i - 1] == '\r' && data[i - 2] == '\n' && data[i - 3] == '\r') {
+                    headerEnd = i + 1;
+                    break;
+                }
+            }
+            if (headerEnd < 0) {
+                return;
+            }
+            String head = new String(data, 0, headerEnd, java.nio.charset.StandardCharsets.ISO_8859_1).toLowerCase(java.util.Locale.ROOT);
+            int at = head.indexOf("\ncontent-length:");
+            int length = at < 0 ? 0 : Integer.parseInt(head.substring(at + 16, head.indexOf('\r', at)).trim());
+            if (in.position() < headerEnd + length) {
+                return;
+            }
+            int status = Integer.parseInt(head.substring(9, 12));
+            if (start >= countFrom) {
+                record(kind, status, System.nanoTime() - start);
+            }
+            remember(status, new String(data, headerEnd, length, java.nio.charset.StandardCharsets.UTF_8));
+            in.clear();
+            send();
+        }
+        
+        private String request(int kind) {
+            if (kind == SEARCH) {
+                java.time.LocalDate checkin = java.time.LocalDate.now().plusDays(random.nextInt(365));
+                lastCheckin = checkin.toString();
+                lastCheckout = checkin.plusDays(1 + random.nextInt(4)).toString();
+                String type = RoomRepository.TYPES[random.nextInt(RoomRepository.TYPES.length)];
+                return http("GET", "/rooms?limit=10&checkin=" + lastCheckin + "&checkout=" + lastCheckout + "&type=" + type, null, false);
+            }
+            if (kind == BOOK) {
+                return http("POST", "/bookings", "room=" + lastRooms.get(random.nextInt(lastRooms.size())) +
+                    "&checkin=" + lastCheckin + "&checkout=" + lastCheckout);
+            }
+            int id = myBookings.get(random.nextInt(myBookings.size()));
+            if (kind == LOOKUP) {
+                return http("GET", "/bookings/" + id, null);
+            }
+            myBookings.remove(Integer.valueOf(id));
+            return http("DELETE", "/bookings/" + id, null);
+        }
+        
+        // Remember what the reply tells us for later requests
+        private void remember(int status, String body) {
+            if (kind == SEARCH && status == 200) {
+                lastRooms.clear();
+                java.util.regex.Matcher m = ROOM_NUMBER.matcher(body);
+                while (m.find()) {
+                    lastRooms.add(Integer.parseInt(m.group(1)));
+                }
+            } else if (kind == BOOK && status == 201) {
+                java.util.regex.Matcher m = BOOKING_ID.matcher(body);
+                if (m.find()) {
+                    myBookings.add(Integer.parseInt(m.group(1)));
+                }
+            }
+        }
+    }
+    
+    public HotelLoadTest(String baseUrl, String username, String password) {
+        java.net.URI base = java.net.URI.create(baseUrl);
+        this.host = base.getHost();
+        this.address = new java.net.InetSocketAddress(base.getHost(), base.getPort() < 0 ? 80 : base.getPort());
+        this.authorization = "Basic " + java.util.Base64.getEncoder().encodeToString(
+            (username + ":" + password).getBytes(java.nio.charset.StandardCharsets.UTF_8));
+    }
+    
+    // Run `connections` desks for `seconds` seconds and print the results
+    public void run(int connections, int seconds) throws java.io.IOException {
+        selector = Selector.open();
+        long start = System.nanoTime();
+        countFrom = start + seconds * 1_000_000_000L * WARMUP_PERCENT / 100;
+        stopAt = start + seconds * 1_000_000_000L;
+        for (int i = 0; i < connections; i++) {
+            Desk desk = new Desk();
+            running++;
+            reconnect(desk, false);
+        }
+        while (running > 0 && System.nanoTime() < stopAt + GRACE_NANOS) {
+            selector.select(100);
+            for (SelectionKey key : selector.selectedKeys()) {
+                Desk desk = (Desk) key.attachment();
+                try {
+                    desk.ready(key);
+                } catch (java.io.IOException e) {
+                    reconnect(desk, true);
+                }
+            }
+            selector.selectedKeys().clear();
+        }
+        selector.close();
+        report(connections, (stopAt - countFrom) / 1e9);
+    }
+    
+    // (Re)open a desk's connection; a request in flight on the old one counts as failed
+    private void reconnect(Desk desk, boolean lostRequest) throws java.io.IOException {
+        if (lostRequest) {
+            failures++;
+            desk.channel.close();
+        }
+        try {
+            desk.connect();
+        } catch (java.io.IOException e) {
+            failures++;   // Server not reachable: this desk sits the run out
+            running--;
+        }
+    }
+    
+    private String http(String method, String target, String form) {
+        return http(method, target, form, true);
+    }
+    
+    private String http(String method, String target, String form, boolean signedIn) {
+        StringBuilder request = new StringBuilder(method).append(' ').append(target).append(" HTTP/1.1\r\nHost: ").append(host).append("\r\n");
+        if (signedIn) {
+            request.append("Authorization: ").append(authorization).append("\r\n");
+        }
+        if (form != null) {
+            request.append("Content-Type: application/x-www-form-urlencoded\r\nContent-Length: ").append(form.length()).append("\r\n\r\n").append(form);
+        } else {
+            request.append("\r\n");
+        }
+        return request.toString();
+    }
+    
+    private void record(int kind, int status, long nanos) {
+        if (counted[kind] == latencies[kind].length) {
+            latencies[kind] = java.util.Arrays.copyOf(latencies[kind], counted[kind] * 2);
+        }
+        latencies[kind][counted[kind]++] = nanos;
+        statuses.merge(status, 1, Integer::sum);
+    }
+    
+    private void report(int connections, double countedSeconds) {
+        long[] all = new long[0];
+        System.out.printf("%d connections, %.0f s counted (after %d%% warm-up)%n", connections, countedSeconds, WARMUP_PERCENT);
+        System.out.printf("%-8s %10s %10s %10s %10s %10s %10s%n", "request", "count", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (int k = 0; k < KINDS.length; k++) {
+            long[] sorted = java.util.Arrays.copyOf(latencies[k], counted[k]);
+            java.util.Arrays.sort(sorted);
+            printRow(KINDS[k], sorted, countedSeconds);
+            long[] merged = java.util.Arrays.copyOf(all, all.length + sorted.length);
+            System.arraycopy(sorted, 0, merged, all.length, sorted.length);
+            all = merged;
+        }
+        java.util.Arrays.sort(all);
+        printRow("all", all, countedSeconds);
+        System.out.println("status codes: " + statuses + ", failed requests: " + failures);
+    }
+    
+    private static void printRow(String name, long[] sorted, double seconds) {
+        System.out.printf("%-8s %10d %10.0f %10.2f %10.2f %10.2f %10.2f%n", name, sorted.length, sorted.length / seconds,
+            percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99), sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+    }
+    
+    // The p-th percentile of sorted nanoseconds, in milliseconds
+    private static double percentile(long[] sorted, int p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(sorted.length * p / 100.0) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+    
+    public static void main(String[] args) throws java.io.IOException {
+        String base = args.length > 0 ? args[0] : "http://localhost:" + HotelServer.DEFAULT_PORT;
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        String username = args.length > 3 ? args[3] : "guest1";
+        String password = args.length > 4 ? args[4] : "guest123";
+        new HotelLoadTest(base, username, password).run(connections, seconds);
+    }
+}
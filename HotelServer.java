@@ -0,0 +1,323 @@
+// HOTEL SERVER
+// HTTP API over the same rooms and bookings as the window, for other front desks and kiosks
+// Started with --server [port] next to the window, or --headless [port] without it (see SerenitySuitesHMS.main)
+//   GET    /rooms?checkin=&checkout=[&type=&guests=&maxPrice=&limit=]   free rooms for the stay, cheapest first
+//   POST   /bookings        form fields room, checkin, checkout [, guest, guests, payment, checkinTime, checkoutTime]
+//   GET    /bookings/{id}
+//   DELETE /bookings/{id}   cancel
+// Everything but the room search needs an account: HTTP Basic authentication with the same
+// username and password as the login screen. Guests book, see and cancel only their own
+// bookings; staff and admin accounts may name another `guest` to book for and see or cancel
+// any booking. payment is "Cash" (the default) or one of the guest's saved methods as the
+// booking form lists it, e.g. "GCash (**** 1234)".
+// Dates are yyyy-MM-dd and times like "2:00 PM". Replies are JSON; a refused request gets
+// {"error": "..."} with 400 (bad field), 401 (no or wrong credentials), 403 (not allowed for
+// this account), 404 (no such booking) or 422 (e.g. room already taken).
+// Every request goes through HotelService, so the rules and the journal are the same as at
+// the desk, and the window's screens update from the booking events as usual.
+// Each request runs on its own virtual thread when the JDK has them (21+). Older JDKs use a
+// fixed pool of WORKERS threads instead: enough for requests waiting on the journal's group
+// commit to share one fsync, without a platform thread per open connection.
+// There is no login, so it listens on the loopback address unless started with --bind <address>;
+// only bind it to an interface on the hotel's own network.
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+class HotelServer {
+    static final int DEFAULT_PORT = 8080;
+    private static final int WORKERS = 256;        // Request threads when there are no virtual threads
+    private static final int BACKLOG = 4096;       // Connections the OS may queue before they are accepted
+    private static final int MAX_RESULTS = 100;    // Most rooms one search returns (below HotelService.MAX_RESULTS)
+    private static final int MAX_IDLE_CONNECTIONS = 10_000;   // Keep-alive connections kept open between requests
+    
+    private HotelService service;
+    private ReservationEngine bookings;
+    private HttpServer server;
+    private java.util.concurrent.ExecutorService executor;
+    private boolean virtualThreads;
+    
+    // A reply: status code and JSON body
+    private static class Reply {
+        final int status;
+        final String body;
+        
+        Reply(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+    
+    // Answers the requests under one path; caller is the account the request signed in as (null if none)
+    private interface Route {
+        Reply handle(String method, String path, java.util.Map<String, String> params, User caller);
+    }
+    
+    public HotelServer(HotelService service, ReservationEngine bookings) {
+        this.service = service;
+        this.bookings = bookings;
+    }
+    
+    // Start listening (port 0 = any free port)
+    public void start(java.net.InetSocketAddress address) throws java.io.IOException {
+        tuneJdkServer();
+        server = HttpServer.create(address, BACKLOG);
+        server.createContext("/rooms", exchange -> serve(exchange, this::rooms));
+        server.createContext("/bookings", exchange -> serve(exchange, this::bookings));
+        executor = newExecutor();
+        server.setExecutor(executor);
+        server.start();
+    }
+    
+    // Stop accepting requests and let the ones running finish (for up to a second)
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+    
+    public int port() {
+        return server.getAddress().getPort();
+    }
+    
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+    
+    // ===== Routes =====
+    
+    private Reply rooms(String method, String path, java.util.Map<String, String> params, User caller) {
+        if (!path.equals("/rooms")) {
+            return error(404, "Not found: " + path);
+        }
+        if (!method.equals("GET")) {
+            return error(405, "Use GET");
+        }
+        HotelService.Result<int[]> stay = service.parseStay(params.get("checkin"), params.get("checkout"));
+        if (!stay.isOk()) {
+            return error(400, stay.message);
+        }
+        int guests = intParam(params, "guests", 1);
+        int limit = Math.min(MAX_RESULTS, intParam(params, "limit", 20));
+        double maxPrice = params.containsKey("maxPrice") ? Double.parseDouble(params.get("maxPrice")) : 0;
+        java.util.List<Room> found = service.search(params.get("type"), stay.value[0], stay.value[1], guests, maxPrice, limit);
+        
+        StringBuilder json = new StringBuilder("[");
+        for (Room r : found) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            // Price of this stay in the room, after the best offer (it may have been booked since the search)
+            HotelService.Result<HotelService.PricedStay> quote = service.quote(r.getRoomNumber(), stay.value[0], stay.value[1], guests);
+            json.append("{\"number\":").append(r.getRoomNumber())
+                .append(",\"name\":").append(quote(r.getName()))
+                .append(",\"type\":").append(quote(r.getType()))
+                .append(",\"capacity\":").append(r.getCapacity())
+                .append(",\"price\":").append(r.getPrice())
+                .append(",\"stayTotal\":").append(quote.isOk() ? String.valueOf(quote.value.booking.getTotalPrice()) : "null")
+                .append('}');
+        }
+        return new Reply(200, json.append(']').toString());
+    }
+    
+    private Reply bookings(String method, String path, java.util.Map<String, String> params, User caller) {
+        if (caller == null) {
+            return error(401, "Sign in with your username and password (HTTP Basic authentication)");
+        }
+        boolean staff = HotelService.isStaff(caller);
+        if (path.equals("/bookings") || path.equals("/bookings/")) {
+            if (!method.equals("POST")) {
+                return error(405, "Use POST to book, or GET /bookings/{id}");
+            }
+            for (String field : new String[]{"room", "checkin", "checkout"}) {
+                if (!params.containsKey(field)) {
+                    return error(400, "Missing field: " + field);
+                }
+            }
+            String guest = params.getOrDefault("guest", caller.getUsername());
+            if (!staff && !guest.equals(caller.getUsername())) {
+                return error(403, "Only staff can book for another guest");
+            }
+            HotelService.Result<HotelService.PricedStay> booked = service.book(guest,
+                Integer.parseInt(params.get("room")), params.get("checkin"), params.get("checkout"),
+                intParam(params, "guests", 1), params.getOrDefault("payment", "Cash"),
+                params.getOrDefault("checkinTime", "2:00 PM"), params.getOrDefault("checkoutTime", "12:00 PM"));
+            return booked.isOk() ? new Reply(201, json(booked.value.booking)) : error(422, booked.message);
+        }
+        
+        int id = Integer.parseInt(path.substring("/bookings/".length()));
+        Booking b = bookings.get(id);
+        if (b == null || (!staff && !b.getUsername().equals(caller.getUsername()))) {
+            return error(404, "Reservation #" + id + " does not exist.");   // Other guests' bookings are not shown
+        }
+        if (method.equals("GET")) {
+            return new Reply(200, json(b));
+        }
+        if (method.equals("DELETE")) {
+            HotelService.Result<Booking> cancelled = service.cancel(id, staff ? null : caller.getUsername());
+            if (cancelled.isOk()) {
+                return new Reply(200, json(cancelled.value));
+            }
+            return error(bookings.get(id) == null ? 404 : 422, cancelled.message);
+        }
+        return error(405, "Use GET or DELETE");
+    }
+    
+    // ===== Plumbing =====
+    
+    // Run a route and send its reply; malformed numbers, dates and other bad values are the client's
+    // fault (400). Anything else is a 500 that names no internals; the details go to the log.
+    private void serve(HttpExchange exchange, Route route) throws java.io.IOException {
+        try {
+            Reply reply;
+            try {
+                String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+                User caller = authorization == null ? null : signIn(authorization);
+                if (authorization != null && caller == null) {
+                    reply = error(401, "Wrong username or password");
+                } else {
+                    reply = route.handle(exchange.getRequestMethod(), exchange.getRequestURI().getPath(), params(exchange), caller);
+                }
+            } catch (NumberFormatException e) {
+                reply = error(400, "Not a number: " + e.getMessage());
+            } catch (IllegalArgumentException | java.time.DateTimeException e) {
+                reply = error(400, "Invalid value: " + e.getMessage());
+            } catch (RuntimeException e) {
+                System.err.println("Hotel API: " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + " failed: " + e);
+                reply = error(500, "Internal error");
+            }
+            if (reply.status == 401) {
+                exchange.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"Serenity Suites\"");
+            }
+            byte[] body = reply.body.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(reply.status, body.length);
+            exchange.getResponseBody().write(body);
+        } finally {
+            exchange.close();
+        }
+    }
+    
+    // Query string and (for a form POST) body fields; the body wins when a name is in both
+    private static java.util.Map<String, String> params(HttpExchange exchange) throws java.io.IOException {
+        java.util.Map<String, String> params = new java.util.HashMap<>();
+        addFields(params, exchange.getRequestURI().getRawQuery());
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        if (body.length > 0) {
+            addFields(params, new String(body, java.nio.charset.StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+    
+    // The account an "Authorization: Basic base64(username:password)" header signs in as, or null
+    // if the header is malformed or the password is wrong
+    private User signIn(String authorization) {
+        if (!authorization.regionMatches(true, 0, "Basic ", 0, 6)) {
+            return null;
+        }
+        String credentials;
+        try {
+            credentials = new String(java.util.Base64.getDecoder().decode(authorization.substring(6).trim()), java.nio.charset.StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        int colon = credentials.indexOf(':');
+        if (colon < 0) {
+            return null;
+        }
+        HotelService.Result<User> user = service.authenticate(credentials.substring(0, colon), credentials.substring(colon + 1));
+        return user.isOk() ? user.value : null;
+    }
+    
+    // Decode "a=1&b=two+words" into the map
+    private static void addFields(java.util.Map<String, String> params, String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for (String pair : encoded.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(java.net.URLDecoder.decode(name, java.nio.charset.StandardCharsets.UTF_8),
+                java.net.URLDecoder.decode(value, java.nio.charset.StandardCharsets.UTF_8));
+        }
+    }
+    
+    private static int intParam(java.util.Map<String, String> params, String name, int fallback) {
+        String value = params.get(name);
+        return value == null ? fallback : Integer.parseInt(value);
+    }
+    
+    private static Reply error(int status, String message) {
+        return new Reply(status, "{\"error\":" + quote(message) + "}");
+    }
+    
+    private static String json(Booking b) {
+        return "{\"id\":" + b.getId() +
+            ",\"username\":" + quote(b.getUsername()) +
+            ",\"room\":" + b.getRoomNumber() +
+            ",\"checkin\":" + quote(b.getCheckin()) +
+            ",\"checkout\":" + quote(b.getCheckout()) +
+            ",\"checkinTime\":" + quote(b.getCheckinTime()) +
+            ",\"checkoutTime\":" + quote(b.getCheckoutTime()) +
+            ",\"nights\":" + b.getNumberOfNights() +
+            ",\"guests\":" + b.getGuests() +
+            ",\"payment\":" + quote(b.getPayment()) +
+            ",\"basePrice\":" + b.getBasePrice() +
+            ",\"offer\":" + quote(b.getAppliedOffer()) +
+            ",\"discount\":" + b.getDiscountAmount() +
+            ",\"total\":" + b.getTotalPrice() + "}";
+    }
+    
+    // A JSON string literal
+    private static String quote(String s) {
+        if (s == null) {
+            return "null";
+        }
+        StringBuilder out = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.append('"').toString();
+    }
+    
+    // The JDK server's defaults suit a handful of clients: without TCP_NODELAY a keep-alive reply
+    // waits up to 40 ms for the client's delayed ACK, and only 200 idle connections are kept open
+    // (the rest are closed after every reply, so busy desks keep reconnecting). Raise both unless
+    // they were set on the command line; the server reads them when the first one is created.
+    private static void tuneJdkServer() {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        if (System.getProperty("sun.net.httpserver.maxIdleConnections") == null) {
+            System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(MAX_IDLE_CONNECTIONS));
+        }
+    }
+    
+    // A virtual thread per request if this JDK has them, otherwise a fixed pool of daemon threads
+    // (looked up by name so the code still compiles and runs on JDK 17)
+    private java.util.concurrent.ExecutorService newExecutor() {
+        try {
+            java.util.concurrent.ExecutorService perTask = (java.util.concurrent.ExecutorService)
+                java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            virtualThreads = true;
+            return perTask;
+        } catch (ReflectiveOperationException e) {
+            // JDK 17-20 (or virtual threads not enabled)
+        }
+        java.util.concurrent.atomic.AtomicInteger count = new java.util.concurrent.atomic.AtomicInteger();
+        return java.util.concurrent.Executors.newFixedThreadPool(WORKERS, r -> {
+            Thread t = new Thread(r, "hms-http-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+}
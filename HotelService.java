@@ -0,0 +1,300 @@
+// HOTEL SERVICE
+// Every guest and front-desk operation in one place, with no Swing in it
+// Search, quote, book, cancel, register, sign in and add room check their input the same
+// way the forms used to and return a Result instead of showing a dialog: the value on
+// success, or a title and message saying what was wrong. The Swing handlers only turn a
+// Result into a dialog, so the same rules serve the screens, scripts and benchmarks.
+// Methods may be called from any thread; the repositories underneath do their own locking.
+// Changes that cannot be saved to the journal are refused and reported as a failed Result.
+
+class HotelService {
+    static final int MAX_RESULTS = 200;   // Most rooms one search returns (past this, calendar checks dominate)
+    private static final java.util.regex.Pattern EMAIL = java.util.regex.Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+    
+    private UserDirectory users;
+    private RoomRepository rooms;
+    private ReservationEngine bookings;
+    private OfferCatalog offers;
+    private RateEngine rates;
+    
+    // Outcome of an operation: the value, or why it failed (title for a dialog, message for the user)
+    static class Result<T> {
+        final T value;
+        final String title;
+        final String message;
+        
+        private Result(T value, String title, String message) {
+            this.value = value;
+            this.title = title;
+            this.message = message;
+        }
+        
+        static <T> Result<T> ok(T value) {
+            return new Result<>(value, null, null);
+        }
+        
+        static <T> Result<T> failed(String title, String message) {
+            return new Result<>(null, title, message);
+        }
+        
+        boolean isOk() {
+            return message == null;
+        }
+    }
+    
+    // A priced stay with every offer it qualifies for (best first, the best one applied)
+    // For a quote the booking is not stored and has ID 0
+    static class PricedStay {
+        final Booking booking;
+        final java.util.List<Offer> offers;
+        
+        PricedStay(Booking booking, java.util.List<Offer> offers) {
+            this.booking = booking;
+            this.offers = offers;
+        }
+    }
+    
+    public HotelService(UserDirectory users, RoomRepository rooms, ReservationEngine bookings, OfferCatalog offers, RateEngine rates) {
+        this.users = users;
+        this.rooms = rooms;
+        this.bookings = bookings;
+        this.offers = offers;
+        this.rates = rates;
+    }
+    
+    // ===== Rooms and stays =====
+    
+    // Check-in and check-out dates ("yyyy-MM-dd") as epoch days [check-in, check-out)
+    public Result<int[]> parseStay(String checkin, String checkout) {
+        if (checkin == null || checkin.isEmpty() || checkout == null || checkout.isEmpty()) {
+            return Result.failed("Booking Failed", "Please select check-in and check-out dates.");
+        }
+        int checkinDay, checkoutDay;
+        try {
+            checkinDay = RoomCalendar.toEpochDay(checkin);
+            checkoutDay = RoomCalendar.toEpochDay(checkout);
+        } catch (java.time.format.DateTimeParseException e) {
+            return Result.failed("Date Format Error", "Invalid date format. Please use YYYY-MM-DD format.");
+        }
+        if (checkoutDay <= checkinDay) {
+            return Result.failed("Invalid Date Range", "Check-out date must be after check-in date.\n\n" +
+                "Check-in: " + checkin + "\n" +
+                "Check-out: " + checkout + "\n\n" +
+                "Please select valid dates.");
+        }
+        return Result.ok(new int[]{checkinDay, checkoutDay});
+    }
+    
+    // Free rooms of a type (null = any) for the stay that hold the guests, cheapest first, at most `limit`
+    // and never more than MAX_RESULTS; maxPrice is the base nightly price (0 = no limit)
+    // An empty stay finds nothing
+    public java.util.List<Room> search(String type, int checkinDay, int checkoutDay, int guests, double maxPrice, int limit) {
+        if (checkoutDay <= checkinDay) {
+            return new java.util.ArrayList<>();
+        }
+        return rooms.search(type, checkinDay, checkoutDay, guests, 0, maxPrice > 0 ? maxPrice : Double.MAX_VALUE, 0, Math.min(limit, MAX_RESULTS));
+    }
+    
+    // Price of a stay in a room that is free for it, after the best offer
+    public Result<PricedStay> quote(int roomNumber, int checkinDay, int checkoutDay, int guests) {
+        Result<Room> room = checkStay(roomNumber, checkinDay, checkoutDay, guests);
+        if (!room.isOk()) {
+            return Result.failed(room.title, room.message);
+        }
+        if (!room.value.isAvailable(checkinDay, checkoutDay)) {
+            return alreadyBooked(roomNumber);
+        }
+        return Result.ok(price(room.value, 0, "", checkinDay, checkoutDay, guests, "", (byte) 0, (byte) 0));   // Times do not change the price
+    }
+    
+    // Book a stay for a registered user (times as half-hour slots, see Booking.toTimeSlot) and save it
+    public Result<PricedStay> book(String username, int roomNumber, int checkinDay, int checkoutDay, int guests,
+            String payment, byte checkinSlot, byte checkoutSlot) {
+        User user = username == null ? null : users.findByUsername(username);
+        if (user == null) {
+            return Result.failed("Booking Failed", "There is no account named " + username + ".");
+        }
+        if (!paymentMethods(user).contains(payment)) {
+            return Result.failed("Booking Failed", "Please pick Cash or one of the payment methods saved in your profile.");
+        }
+        Result<Room> room = checkStay(roomNumber, checkinDay, checkoutDay, guests);
+        if (!room.isOk()) {
+            return Result.failed(room.title, room.message);
+        }
+        // Block the dates on the room's calendar (fails if someone else has any of the nights)
+        if (!bookings.tryReserve(room.value, checkinDay, checkoutDay)) {
+            return alreadyBooked(roomNumber);
+        }
+        PricedStay stay = null;
+        try {
+            stay = price(room.value, bookings.nextId(), username, checkinDay, checkoutDay, guests, payment, checkinSlot, checkoutSlot);
+            bookings.add(stay.booking);   // Frees the dates itself if the booking cannot be saved
+        } catch (RuntimeException e) {
+            if (stay == null) {
+                bookings.release(room.value, checkinDay, checkoutDay);   // Pricing failed: nothing else will free them
+            }
+            return Result.failed("Booking Failed", "The booking could not be saved: " + e.getMessage());
+        }
+        return Result.ok(stay);
+    }
+    
+    // Same, with the dates and times as the booking form shows them ("yyyy-MM-dd", "2:30 PM")
+    public Result<PricedStay> book(String username, int roomNumber, String checkin, String checkout, int guests,
+            String payment, String checkinTime, String checkoutTime) {
+        Result<int[]> stay = parseStay(checkin, checkout);
+        if (!stay.isOk()) {
+            return Result.failed(stay.title, stay.message);
+        }
+        byte checkinSlot, checkoutSlot;
+        if (checkinTime == null || checkoutTime == null) {
+            return Result.failed("Booking Failed", "Please select check-in and check-out times.");
+        }
+        try {
+            checkinSlot = Booking.toTimeSlot(checkinTime);
+            checkoutSlot = Booking.toTimeSlot(checkoutTime);
+        } catch (IllegalArgumentException e) {   // Also a NumberFormatException from a bad hour or minute
+            return Result.failed("Booking Failed", "Invalid check-in or check-out time. Please use a time like 2:00 PM.");
+        }
+        return book(username, roomNumber, stay.value[0], stay.value[1], guests, payment, checkinSlot, checkoutSlot);
+    }
+    
+    // Cancel a booking and free its dates; username null = any booking (staff), otherwise only that guest's own
+    public Result<Booking> cancel(int bookingId, String username) {
+        Booking b = bookings.get(bookingId);
+        if (b == null || (username != null && !username.equals(b.getUsername()))) {
+            return Result.failed("Cancellation Failed", "Reservation #" + bookingId + " does not exist or was already cancelled.");
+        }
+        try {
+            b = bookings.cancel(bookingId);
+        } catch (java.io.UncheckedIOException e) {
+            return Result.failed("Error", "Reservation #" + bookingId + " could not be cancelled: " + e.getMessage());
+        }
+        if (b == null) {
+            return Result.failed("Cancellation Failed", "Reservation #" + bookingId + " does not exist or was already cancelled.");
+        }
+        return Result.ok(b);
+    }
+    
+    // Add a room to the hotel; the room number must be new
+    public Result<Room> addRoom(int roomNumber, String name, double price, int capacity, String type) {
+        if (name == null || name.trim().isEmpty() || type == null || type.isEmpty()) {
+            return Result.failed("Error", "Please fill all fields!");
+        }
+        if (roomNumber <= 0 || price <= 0 || capacity <= 0) {
+            return Result.failed("Error", "Room number, price and capacity must be greater than zero.");
+        }
+        Room room = new Room(roomNumber, name.trim(), price, capacity, type);
+        try {
+            if (!rooms.add(room)) {
+                return Result.failed("Error", "Room number " + roomNumber + " already exists!");
+            }
+        } catch (java.io.UncheckedIOException e) {
+            return Result.failed("Error", "The room could not be saved: " + e.getMessage());
+        }
+        return Result.ok(room);
+    }
+    
+    // ===== Accounts =====
+    
+    // Create an account; phone must be 11 digits and both passwords the same
+    public Result<User> register(String username, String email, String phone, String password, String confirmPassword, String role) {
+        if (username.isEmpty() || email.isEmpty() || password.isEmpty()) {
+            return Result.failed("Registration Failed", "Please fill all required fields!");
+        }
+        if (phone.isEmpty() || phone.length() != 11) {
+            return Result.failed("Registration Failed", "Phone number must be exactly 11 digits!");
+        }
+        if (!isValidEmail(email)) {
+            return Result.failed("Registration Failed", "Please enter a valid email address!");
+        }
+        if (!password.equals(confirmPassword)) {
+            return Result.failed("Registration Failed", "Passwords do not match!");
+        }
+        User u = new User(username, password, role, email, phone);
+        try {
+            // register() rejects a taken username or email
+            if (!users.register(u)) {
+                return Result.failed("Registration Failed", users.findByUsername(username) != null ?
+                    "Username already exists!" : "Email address is already registered!");
+            }
+        } catch (java.io.UncheckedIOException e) {
+            return Result.failed("Registration Failed", "The account could not be saved: " + e.getMessage());
+        }
+        return Result.ok(u);
+    }
+    
+    // The user with this username and password, whatever the role (e.g. for API requests)
+    public Result<User> authenticate(String username, String password) {
+        User u = users.authenticate(username, password);
+        if (u == null) {
+            return Result.failed("Login Failed", "Invalid username or password!");
+        }
+        return Result.ok(u);
+    }
+    
+    // Check if a user may act for every guest (front desk and admin accounts)
+    public static boolean isStaff(User u) {
+        return u.getRole().equals("STAFF") || u.getRole().equals("ADMIN");
+    }
+    
+    // The user matching all three credentials
+    public Result<User> authenticate(String username, String password, String role) {
+        User u = users.authenticate(username, password, role);
+        if (u == null) {
+            return Result.failed("Login Failed", "Invalid username, password, or user type!");
+        }
+        return Result.ok(u);
+    }
+    
+    // The payment methods a user can book with, as the booking form lists them: "Cash", then each
+    // saved method as "GCash (**** 1234)" (type and masked number only)
+    public java.util.List<String> paymentMethods(User user) {
+        java.util.List<String> methods = new java.util.ArrayList<>();
+        methods.add("Cash");
+        for (PaymentEntry p : user.getPaymentMethods()) {
+            methods.add(p.getType() + " (" + p.getMaskedNumber() + ")");
+        }
+        return methods;
+    }
+    
+    // ===== Internals =====
+    
+    private static boolean isValidEmail(String email) {
+        return EMAIL.matcher(email).matches();
+    }
+    
+    // The room, if it exists and the stay and guests fit it (availability is checked by the caller)
+    private Result<Room> checkStay(int roomNumber, int checkinDay, int checkoutDay, int guests) {
+        Room room = rooms.get(roomNumber);
+        if (room == null) {
+            return Result.failed("Booking Failed", "Room " + roomNumber + " does not exist.");
+        }
+        if (checkoutDay <= checkinDay) {
+            return Result.failed("Invalid Date Range", "Check-out date must be after check-in date.");
+        }
+        if (guests < 1) {
+            return Result.failed("Booking Failed", "At least one guest is needed.");
+        }
+        if (guests > room.getCapacity()) {
+            return Result.failed("Booking Failed", "Number of guests exceeds room capacity.");
+        }
+        return Result.ok(room);
+    }
+    
+    private static <T> Result<T> alreadyBooked(int roomNumber) {
+        return Result.failed("Booking Failed", "Room " + roomNumber + " is already booked for the selected dates.");
+    }
+    
+    // Price the stay night by night (the booking keeps the average nightly rate) and apply the best offer
+    private PricedStay price(Room room, int id, String username, int checkinDay, int checkoutDay, int guests,
+            String payment, byte checkinSlot, byte checkoutSlot) {
+        double stayPrice = rates.quote(room, checkinDay, checkoutDay);
+        Booking b = new Booking(id, username, room.getRoomNumber(), checkinDay, checkoutDay, guests,
+            stayPrice / (checkoutDay - checkinDay), payment, checkinSlot, checkoutSlot);
+        java.util.List<Offer> matching = offers.applicable(b, room);
+        if (!matching.isEmpty()) {
+            b.applyDiscount(matching.get(0).getDiscountPercent(), matching.get(0).getName());
+        }
+        return new PricedStay(b, matching);
+    }
+}
@@ -0,0 +1,582 @@
+// JOURNAL
+// Append-only write-ahead log that makes users, rooms and bookings survive a restart
+// Every change is written as one small binary record BEFORE it is applied in memory:
+//   [int length][byte type][payload][int CRC32 of type+payload]
+// On startup replay() reads the records written after the last snapshot (see Snapshot)
+// back into the in-memory stores. The window splits this in two: replayUsers() first
+// (enough to sign in), then replayRoomsAndBookings() in the background.
+// A torn or corrupt record at the end (e.g. power loss mid-write) ends the replay
+// and is cut off so new records are appended after the last good one.
+//
+// Group commit: a caller that finds a flush already in progress waits for it, and
+// the next flush writes everything queued meanwhile with a single fsync.
+// With groupCommit = false every record gets its own write + fsync.
+// Every write and fsync runs on the journal's own writer thread, and callers wait for it without
+// reacting to interrupts: an interrupted caller (e.g. a cancelled background task) would otherwise
+// close the file channel for good, and a record it gave up on would still be written later.
+// syncedLength() is how much of the journal is known to be on disk; a snapshot never reads past it.
+//
+// Offsets count record bytes over the journal's whole life, across files. The active file starts
+// with [int magic][long offset of its first record]; rollOver() renames it to <file>.sealed and
+// carries on in a new one, so once a snapshot covers the sealed file it can simply be deleted
+// (see Snapshot.checkpoint). Replay reads the sealed file, if one is left, before the active one.
+// A journal from before rollover has no header and starts at offset 0.
+
+class Journal {
+    // Record types
+    static final byte REGISTER = 1;        // New user account
+    static final byte ADD_ROOM = 2;        // New room
+    static final byte BOOK = 3;            // New booking
+    static final byte CANCEL = 4;          // Booking cancelled
+    static final byte ADD_PAYMENT = 5;     // Payment method saved to a user
+    static final byte REMOVE_PAYMENT = 6;  // Payment method removed from a user
+    static final byte PASSWORD = 7;        // Password changed or reset
+    static final byte PROFILE = 8;         // Email / phone changed
+    
+    // Which records a replay applies
+    private static final int ALL_RECORDS = 0, USER_RECORDS = 1, HOTEL_RECORDS = 2;
+    
+    private static final int MAGIC = 0x534A524E;   // "SJRN"
+    private static final int HEADER = 12;          // Magic + offset of the file's first record
+    
+    private java.nio.file.Path file;
+    private java.nio.file.Path sealed;   // Where rollOver() moves the full file
+    private java.nio.channels.FileChannel channel;   // Active file; replaced by rollOver() on the writer thread
+    private long start;                  // Journal offset of the active file's first record
+    private int header;                  // Header bytes in the active file (0 for a journal from before rollover)
+    private boolean groupCommit;
+    private volatile long synced;   // Journal offset covered by the last fsync (always the end of a record)
+    private long replayFrom, replayEnd;   // Records read by replayUsers(), for replayRoomsAndBookings()
+    
+    // Group commit state (guarded by this)
+    private java.io.ByteArrayOutputStream pending = new java.io.ByteArrayOutputStream();
+    private long appended;      // Records queued so far
+    private long durable;       // Records written and fsynced so far
+    private boolean flushing;   // A caller is currently writing a batch
+    private java.io.IOException failure;   // Set if a batch could not be written
+    private java.util.concurrent.ExecutorService writer = java.util.concurrent.Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "journal-writer");
+        t.setDaemon(true);
+        return t;
+    });
+    
+    public Journal(java.nio.file.Path file, boolean groupCommit) throws java.io.IOException {
+        this.file = file;
+        this.sealed = file.resolveSibling(file.getFileName() + ".sealed");
+        this.groupCommit = groupCommit;
+        this.channel = java.nio.channels.FileChannel.open(file,
+            java.nio.file.StandardOpenOption.CREATE,
+            java.nio.file.StandardOpenOption.READ,
+            java.nio.file.StandardOpenOption.WRITE);
+        boolean afterRollOver = java.nio.file.Files.exists(sealed);
+        if (channel.size() == 0 || (afterRollOver && channel.size() < HEADER)) {
+            // New journal, or a crash in rollOver() before the new file's header was complete
+            channel.truncate(0);
+            writeHeader(channel, afterRollOver ? end(sealed) : 0);
+        }
+        long[] h = readHeader(channel);
+        header = (int) h[0];
+        start = h[1];
+        channel.force(false);   // Whatever an earlier run left unsynced
+        channel.position(channel.size());
+        synced = start + channel.size() - header;
+    }
+    
+    public java.nio.file.Path file() {
+        return file;
+    }
+    
+    // Journal bytes that are written and fsynced; later bytes may still be in flight
+    public long syncedLength() {
+        return synced;
+    }
+    
+    // ===== Files =====
+    
+    private static void writeHeader(java.nio.channels.FileChannel ch, long firstOffset) throws java.io.IOException {
+        java.nio.ByteBuffer h = java.nio.ByteBuffer.allocate(HEADER).putInt(MAGIC).putLong(firstOffset);
+        h.flip();
+        while (h.hasRemaining()) {
+            ch.write(h, h.position());
+        }
+        ch.force(false);
+    }
+    
+    // {header bytes, journal offset of the first record} of a journal file
+    private static long[] readHeader(java.nio.channels.FileChannel ch) throws java.io.IOException {
+        java.nio.ByteBuffer h = java.nio.ByteBuffer.allocate(HEADER);
+        if (ch.size() >= HEADER) {
+            ch.read(h, 0);
+            if (h.getInt(0) == MAGIC) {
+                return new long[]{HEADER, h.getLong(4)};
+            }
+        }
+        return new long[]{0, 0};   // Written before rollover existed
+    }
+    
+    // Journal offset just past the last byte of a journal file
+    private static long end(java.nio.file.Path file) throws java.io.IOException {
+        try (java.nio.channels.FileChannel ch = java.nio.channels.FileChannel.open(file, java.nio.file.StandardOpenOption.READ)) {
+            long[] h = readHeader(ch);
+            return h[1] + ch.size() - h[0];
+        }
+    }
+    
+    // The file rollOver() moved aside, which a snapshot does not cover yet (it may not exist)
+    public java.nio.file.Path sealedFile() {
+        return sealed;
+    }
+    
+    // Move the active file to sealedFile() and continue in a new one; returns the journal offset
+    // where the sealed file ends. Runs on the writer thread between two writes, so no record is
+    // split between the files. Refused while an earlier sealed file is still there.
+    public long rollOver() throws java.io.IOException {
+        synchronized (this) {
+            checkFailure();   // A failed batch may have left half a record at the end
+        }
+        java.util.concurrent.Future<Long> done = writer.submit(() -> {
+            if (java.nio.file.Files.exists(sealed)) {
+                throw new java.io.IOException("The journal was rolled over already; " + sealed + " is not in a snapshot yet");
+            }
+            channel.force(false);
+            long end = start + channel.size() - header;
+            java.nio.channels.FileChannel next = java.nio.channels.FileChannel.open(file.resolveSibling(file.getFileName() + ".next"),
+                java.nio.file.StandardOpenOption.CREATE, java.nio.file.StandardOpenOption.TRUNCATE_EXISTING,
+                java.nio.file.StandardOpenOption.READ, java.nio.file.StandardOpenOption.WRITE);
+            writeHeader(next, end);
+            java.nio.file.Files.move(file, sealed, java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+            java.nio.file.Files.move(file.resolveSibling(file.getFileName() + ".next"), file, java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+            channel.close();
+            channel = next;
+            channel.position(HEADER);
+            start = end;
+            header = HEADER;
+            return end;
+        });
+        return waitFor(done);
+    }
+    
+    // Apply every record of the sealed file from `from` on with `reader`; returns where the file ends
+    // A sealed file is complete, so one that cannot be read to the end is reported as damaged
+    public long readSealed(long from, RecordReader reader) throws java.io.IOException {
+        try (java.nio.channels.FileChannel ch = java.nio.channels.FileChannel.open(sealed, java.nio.file.StandardOpenOption.READ)) {
+            long[] h = readHeader(ch);
+            long end = h[1] + ch.size() - h[0];
+            if (from < h[1]) {
+                throw new java.io.IOException(sealed + " starts after the snapshot ends; records are missing");
+            }
+            if (from < end && scan(ch, h, from, end, reader) != end) {
+                throw new java.io.IOException(sealed + " is damaged");
+            }
+            return end;
+        }
+    }
+    
+    // Receives the records of a journal file in order: the type byte followed by the payload
+    interface RecordReader {
+        void read(byte[] body) throws java.io.IOException;
+    }
+    
+    // ===== Replay =====
+    
+    // Largest record replay() will accept; anything bigger is treated as corruption
+    private static final int MAX_RECORD = 1 << 20;
+    
+    // Replay the records stored after `from` (where the loaded snapshot ends, or 0) into the
+    // stores and position the journal for new writes
+    // Must run before the journal is attached to the stores; returns the number of records replayed
+    public int replay(UserDirectory users, RoomRepository rooms, ReservationEngine bookings, long from) throws java.io.IOException {
+        long[] result = readRecords(channel, from, Long.MAX_VALUE, ALL_RECORDS, users, rooms, bookings);
+        endReplay(result[0]);
+        return (int) result[1];
+    }
+    
+    // First half of a split replay: only the user and payment-method records after `from`
+    // None of them depends on a room or booking, so those can follow later (replayRoomsAndBookings)
+    // while the journal already takes new user records; returns the number of records replayed
+    public int replayUsers(UserDirectory users, long from) throws java.io.IOException {
+        long[] result = readRecords(channel, from, Long.MAX_VALUE, USER_RECORDS, users, null, null);
+        replayFrom = from;
+        replayEnd = result[0];
+        endReplay(result[0]);
+        return (int) result[1];
+    }
+    
+    // Second half: the room, booking and cancellation records replayUsers() skipped
+    // Reads through its own channel, so it may run while new records are appended
+    public int replayRoomsAndBookings(RoomRepository rooms, ReservationEngine bookings) throws java.io.IOException {
+        try (java.nio.channels.FileChannel ch = java.nio.channels.FileChannel.open(file, java.nio.file.StandardOpenOption.READ)) {
+            return (int) readRecords(ch, replayFrom, replayEnd, HOTEL_RECORDS, null, rooms, bookings)[1];
+        }
+    }
+    
+    // Drop a damaged tail so new records follow the last good one
+    private void endReplay(long good) throws java.io.IOException {
+        channel.truncate(header + good - start);
+        channel.position(header + good - start);
+        synced = good;
+    }
+    
+    // Apply every intact record of the given kinds that starts in [from, to), first from the sealed
+    // file if there is one, then from `active` (a channel on the active file)
+    // Returns {end of the last intact record, records applied}
+    private long[] readRecords(java.nio.channels.FileChannel active, long from, long to, int kinds,
+            UserDirectory users, RoomRepository rooms, ReservationEngine bookings) throws java.io.IOException {
+        long[] count = {0};
+        RecordReader apply = body -> {
+            if (kinds == ALL_RECORDS || (kinds == HOTEL_RECORDS) == (body[0] == ADD_ROOM || body[0] == BOOK || body[0] == CANCEL)) {
+                apply(body, users, rooms, bookings);
+                count[0]++;
+            }
+        };
+        long good = from;
+        if (java.nio.file.Files.exists(sealed)) {
+            good = Math.max(from, readSealed(from, apply));
+        }
+        long[] h = readHeader(active);
+        if (good < h[1]) {
+            throw new java.io.IOException("The journal starts after the snapshot ends; records are missing");
+        }
+        if (good > h[1] + active.size() - h[0]) {
+            throw new java.io.IOException("The journal is shorter than the snapshot expects (was it replaced?)");
+        }
+        return new long[]{scan(active, h, good, to, apply), count[0]};
+    }
+    
+    // Pass every intact record that starts in [from, to) of a journal file to `reader`
+    // h is the file's header (see readHeader); returns the end of the last intact record
+    private static long scan(java.nio.channels.FileChannel channel, long[] h, long from, long to, RecordReader reader) throws java.io.IOException {
+        channel.position(h[0] + from - h[1]);
+        java.io.DataInputStream in = new java.io.DataInputStream(new java.io.BufferedInputStream(
+            java.nio.channels.Channels.newInputStream(channel), 1 << 16));
+        long good = from;     // End of the last intact record
+        
+        while (good < to) {
+            byte[] body;
+            int storedCrc;
+            try {
+                int length = in.readInt();
+                if (length <= 0 || length > MAX_RECORD) {
+                    break;
+                }
+                body = new byte[length];
+                in.readFully(body);
+                storedCrc = in.readInt();
+            } catch (java.io.EOFException e) {
+                break;   // Clean end of file, or a record cut short
+            }
+            java.util.zip.CRC32 crc = new java.util.zip.CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != storedCrc) {
+                break;
+            }
+            reader.read(body);
+            good += body.length + 8;
+        }
+        return good;
+    }
+    
+    // Apply one record to the in-memory stores (only a user record when rooms and bookings are null)
+    static void apply(byte[] body, UserDirectory users, RoomRepository rooms, ReservationEngine bookings) throws java.io.IOException {
+        java.io.DataInputStream in = new java.io.DataInputStream(new java.io.ByteArrayInputStream(body));
+        byte type = in.readByte();
+        switch (type) {
+            case REGISTER:
+                users.register(User.stored(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF()));
+                break;
+            case ADD_ROOM:
+                rooms.add(readRoom(in));
+                break;
+            case BOOK: {
+                Booking b = readBooking(in);
+                Room r = rooms.get(b.getRoomNumber());
+                if (r != null) {
+                    bookings.tryReserve(r, b.getCheckinDay(), b.getCheckoutDay());
+                }
+                bookings.add(b);
+                break;
+            }
+            case CANCEL:
+                bookings.cancel(in.readInt());
+                break;
+            case ADD_PAYMENT: {
+                User u = users.findByUsername(in.readUTF());
+                if (u != null) {
+                    users.addPaymentMethod(u, in.readUTF(), in.readUTF(), in.readUTF());
+                }
+                break;
+            }
+            case REMOVE_PAYMENT: {
+                User u = users.findByUsername(in.readUTF());
+                if (u != null) {
+                    users.removePaymentMethod(u, in.readInt());
+                }
+                break;
+            }
+            case PASSWORD: {
+                User u = users.findByUsername(in.readUTF());
+                if (u != null) {
+                    u.setPasswordHash(User.storedPassword(in.readUTF()));
+                }
+                break;
+            }
+            case PROFILE: {
+                User u = users.findByUsername(in.readUTF());
+                if (u != null) {
+                    users.updateProfile(u, in.readUTF(), in.readUTF());
+                }
+                break;
+            }
+            default:
+                throw new java.io.IOException("Unknown journal record type " + type);
+        }
+    }
+    
+    private static Room readRoom(java.io.DataInputStream in) throws java.io.IOException {
+        return new Room(in.readInt(), in.readUTF(), in.readDouble(), in.readInt(), in.readUTF());
+    }
+    
+    private static Booking readBooking(java.io.DataInputStream in) throws java.io.IOException {
+        Booking b = new Booking(in.readInt(), in.readUTF(), in.readInt(), in.readUTF(), in.readUTF(),
+            in.readInt(), in.readDouble(), in.readUTF(), in.readUTF(), in.readUTF());
+        int discountPercent = in.readInt();
+        String offerName = in.readUTF();
+        if (discountPercent > 0) {
+            b.applyDiscount(discountPercent, offerName);
+        }
+        return b;
+    }
+    
+    // Decoding single records without applying them (for Snapshot.checkpoint)
+    
+    private static java.io.DataInputStream payload(byte[] body) {
+        return new java.io.DataInputStream(new java.io.ByteArrayInputStream(body, 1, body.length - 1));
+    }
+    
+    static Room roomOf(byte[] addRoom) throws java.io.IOException {
+        return readRoom(payload(addRoom));
+    }
+    
+    static Booking bookingOf(byte[] book) throws java.io.IOException {
+        return readBooking(payload(book));
+    }
+    
+    static int bookingIdOf(byte[] cancel) throws java.io.IOException {
+        return payload(cancel).readInt();
+    }
+    
+    // Every user record starts with the username
+    static String usernameOf(byte[] userRecord) throws java.io.IOException {
+        return payload(userRecord).readUTF();
+    }
+    
+    // ===== Writing =====
+    
+    public void logRegister(User u) {
+        append(REGISTER, out -> {
+            out.writeUTF(u.getUsername());
+            out.writeUTF(u.getPasswordHash());
+            out.writeUTF(u.getRole());
+            out.writeUTF(u.getEmail());
+            out.writeUTF(u.getPhone());
+        });
+    }
+    
+    public void logAddRoom(Room r) {
+        append(ADD_ROOM, out -> {
+            out.writeInt(r.getRoomNumber());
+            out.writeUTF(r.getName());
+            out.writeDouble(r.getPrice());
+            out.writeInt(r.getCapacity());
+            out.writeUTF(r.getType());
+        });
+    }
+    
+    public void logBook(Booking b) {
+        append(BOOK, out -> {
+            out.writeInt(b.getId());
+            out.writeUTF(b.getUsername());
+            out.writeInt(b.getRoomNumber());
+            out.writeUTF(b.getCheckin());
+            out.writeUTF(b.getCheckout());
+            out.writeInt(b.getGuests());
+            out.writeDouble(b.getPricePerNight());
+            out.writeUTF(b.getPayment());
+            out.writeUTF(b.getCheckinTime());
+            out.writeUTF(b.getCheckoutTime());
+            out.writeInt(b.getDiscountPercent());
+            out.writeUTF(b.getAppliedOffer());
+        });
+    }
+    
+    public void logCancel(int bookingId) {
+        append(CANCEL, out -> out.writeInt(bookingId));
+    }
+    
+    // number is the masked number (see PaymentEntry)
+    public void logAddPayment(User u, String type, String number, String name) {
+        append(ADD_PAYMENT, out -> {
+            out.writeUTF(u.getUsername());
+            out.writeUTF(type);
+            out.writeUTF(number);
+            out.writeUTF(name);
+        });
+    }
+    
+    public void logRemovePayment(User u, int index) {
+        append(REMOVE_PAYMENT, out -> {
+            out.writeUTF(u.getUsername());
+            out.writeInt(index);
+        });
+    }
+    
+    public void logPassword(User u, String passwordHash) {
+        append(PASSWORD, out -> {
+            out.writeUTF(u.getUsername());
+            out.writeUTF(passwordHash);
+        });
+    }
+    
+    public void logProfile(User u, String email, String phone) {
+        append(PROFILE, out -> {
+            out.writeUTF(u.getUsername());
+            out.writeUTF(email);
+            out.writeUTF(phone);
+        });
+    }
+    
+    // Payload writer for one record
+    private interface RecordWriter {
+        void write(java.io.DataOutputStream out) throws java.io.IOException;
+    }
+    
+    // Encode one record and return once it is durable on disk
+    private void append(byte type, RecordWriter payload) {
+        try {
+            java.io.ByteArrayOutputStream body = new java.io.ByteArrayOutputStream(64);
+            java.io.DataOutputStream out = new java.io.DataOutputStream(body);
+            out.writeByte(type);
+            payload.write(out);
+            byte[] bytes = body.toByteArray();
+            java.util.zip.CRC32 crc = new java.util.zip.CRC32();
+            crc.update(bytes);
+            
+            java.nio.ByteBuffer record = java.nio.ByteBuffer.allocate(bytes.length + 8);
+            record.putInt(bytes.length).put(bytes).putInt((int) crc.getValue());
+            
+            if (groupCommit) {
+                commitGrouped(record.array());
+            } else {
+                synchronized (this) {
+                    writeAndSync(record.array());
+                    synced += record.capacity();
+                }
+            }
+        } catch (java.io.IOException e) {
+            throw new java.io.UncheckedIOException("Could not write to the journal", e);
+        }
+    }
+    
+    // Queue a record, then either flush the whole queue ourselves or wait for the flush in progress
+    private void commitGrouped(byte[] record) throws java.io.IOException {
+        byte[] batch;
+        long batchEnd;
+        synchronized (this) {
+            checkFailure();
+            pending.write(record, 0, record.length);
+            long mine = ++appended;
+            // Our record is queued now and will be written whatever happens, so keep waiting for
+            // it through interrupts (and pass the interrupt on afterwards) rather than report it lost
+            boolean interrupted = false;
+            try {
+                while (flushing) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                        continue;
+                    }
+                    checkFailure();
+                    if (durable >= mine) {
+                        return;   // Another caller's batch already included our record
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            // Become the flusher for everything queued so far
+            flushing = true;
+            batch = pending.toByteArray();
+            batchEnd = appended;
+            pending.reset();
+        }
+        
+        // Write outside the lock so other callers can queue up the next batch meanwhile
+        java.io.IOException error = null;
+        try {
+            writeAndSync(batch);
+        } catch (java.io.IOException e) {
+            error = e;
+        }
+        
+        synchronized (this) {
+            flushing = false;
+            if (error == null) {
+                durable = batchEnd;
+                synced += batch.length;   // Batches are written one at a time, in order
+            } else {
+                failure = error;   // Records in the lost batch can never be confirmed
+            }
+            notifyAll();
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+    
+    // Once a batch failed to reach the disk, refuse further writes
+    private void checkFailure() throws java.io.IOException {
+        if (failure != null) {
+            throw new java.io.IOException("Journal is unusable after an earlier write error", failure);
+        }
+    }
+    
+    // Write the bytes at the end of the file and fsync them, on the writer thread
+    // Waits without giving up on an interrupt: the bytes are written either way (see the header)
+    private void writeAndSync(byte[] bytes) throws java.io.IOException {
+        java.util.concurrent.Future<Void> done = writer.submit(() -> {
+            java.nio.ByteBuffer buffer = java.nio.ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            return null;
+        });
+        waitFor(done);
+    }
+    
+    // Result of a writer-thread task; waits through interrupts like writeAndSync()
+    private <T> T waitFor(java.util.concurrent.Future<T> done) throws java.io.IOException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return done.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (java.util.concurrent.ExecutionException e) {
+                    if (e.getCause() instanceof java.io.IOException) {
+                        throw (java.io.IOException) e.getCause();
+                    }
+                    throw new java.io.IOException("Could not write to the journal", e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+// JOURNAL BENCHMARK
+// Bookings per second when every booking is fsynced on its own versus with group commit
+// Usage: java JournalBenchmark [desks] [bookings per desk] [folder]
+//   defaults: 16 300 and java.io.tmpdir (use a folder on the disk the hotel really runs on;
+//   a RAM disk such as /dev/shm makes fsync free and shows nothing)
+// For each mode a new journal file is created in the folder and `desks` threads book at
+// the same time through ReservationEngine, each on its own room one night after another,
+// so every attempt succeeds and the time is all in booking and saving:
+//   per-commit  groupCommit = false: one write + fsync per booking
+//   group       groupCommit = true: desks that arrive during a flush share the next fsync
+// Afterwards the file is replayed into new stores to check that every booking came back.
+// Both modes run once first without being counted, so neither pays for the JIT warming up.
+// Prints the time, bookings per second and journal size per mode.
+
+class JournalBenchmark {
+    private int desks;
+    private int perDesk;
+    private java.nio.file.Path folder;
+    
+    public JournalBenchmark(int desks, int perDesk, java.nio.file.Path folder) {
+        this.desks = desks;
+        this.perDesk = perDesk;
+        this.folder = folder;
+    }
+    
+    // Book desks x perDesk stays through a journal in the given mode and print a row if `report`;
+    // returns the seconds taken
+    public double run(String mode, boolean groupCommit, boolean report) throws Exception {
+        java.nio.file.Path file = folder.resolve("journal-benchmark-" + mode + ".journal");
+        java.nio.file.Files.deleteIfExists(file);
+        RoomRepository rooms = new RoomRepository();
+        ReservationEngine bookings = new ReservationEngine(rooms);
+        for (int d = 0; d < desks; d++) {
+            rooms.add(new Room(101 + d, "Desk Room " + (d + 1), 1500, 2, RoomRepository.TYPES[d % RoomRepository.TYPES.length]));
+        }
+        Journal journal = new Journal(file, groupCommit);
+        bookings.setJournal(journal);
+        
+        int firstDay = RoomCalendar.today() + 1;
+        java.util.concurrent.CountDownLatch start = new java.util.concurrent.CountDownLatch(1);
+        Thread[] threads = new Thread[desks];
+        for (int d = 0; d < desks; d++) {
+            Room room = rooms.get(101 + d);
+            threads[d] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perDesk; i++) {
+                    int checkin = firstDay + i;
+                    if (bookings.tryReserve(room, checkin, checkin + 1)) {
+                        bookings.add(new Booking(bookings.nextId(), "guest1", room.getRoomNumber(), checkin, checkin + 1,
+                            1, room.getPrice(), "Cash", (byte) 28, (byte) 24));
+                    }
+                }
+            }, "desk-" + (d + 1));
+            threads[d].start();
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        
+        // Everything that was acknowledged must come back from the file
+        RoomRepository replayedRooms = new RoomRepository();
+        for (Room r : rooms.all()) {
+            replayedRooms.add(new Room(r.getRoomNumber(), r.getName(), r.getPrice(), r.getCapacity(), r.getType()));
+        }
+        ReservationEngine replayed = new ReservationEngine(replayedRooms);
+        new Journal(file, true).replay(new UserDirectory(), replayedRooms, replayed, 0);
+        if (report) {
+            System.out.printf("%-12s %10d %10.2f %12.0f %,14d %s%n", mode, bookings.size(), seconds, bookings.size() / seconds,
+                java.nio.file.Files.size(file), replayed.size() == bookings.size() ? "replay OK" : "REPLAY LOST " + (bookings.size() - replayed.size()));
+        }
+        java.nio.file.Files.deleteIfExists(file);
+        return seconds;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int desks = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int perDesk = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+        java.nio.file.Path folder = java.nio.file.Paths.get(args.length > 2 ? args[2] : System.getProperty("java.io.tmpdir"));
+        JournalBenchmark bench = new JournalBenchmark(desks, perDesk, folder);
+        System.out.printf("%d desks x %d bookings, journal in %s%n", desks, perDesk, folder.toAbsolutePath());
+        System.out.printf("%-12s %10s %10s %12s %14s%n", "mode", "bookings", "seconds", "bookings/s", "journal bytes");
+        bench.run("per-commit", false, false);   // Warm-up
+        bench.run("group", true, false);
+        double perCommit = bench.run("per-commit", false, true);
+        double group = bench.run("group", true, true);
+        System.out.printf("group commit is %.1fx faster%n", perCommit / group);
+    }
+}
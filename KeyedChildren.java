@@ -0,0 +1,69 @@
+// KEYED CHILDREN
+// Keeps the child components of a panel in step with a list of view models
+// Each model has a key (e.g. a stat card's title or a payment's position). On
+// reconcile, the child of a key that is still there is kept and updated in place,
+// children are created for new keys and removed for keys that are gone, and
+// nothing else is rebuilt. The panel is only laid out again when children were
+// added, removed or moved; a refresh that only changes text just repaints the
+// labels that changed.
+
+import java.awt.*;
+
+class KeyedChildren<K, M, C extends Component> {
+    private Container parent;
+    private int firstIndex;                                   // Children before this position are not managed (e.g. a title)
+    private java.util.function.Function<M, K> keyOf;
+    private java.util.function.Function<M, C> create;        // Builds the component for a new key
+    private java.util.function.BiConsumer<C, M> update;      // Fills a component with its model's current values
+    private java.util.Map<K, C> children = new java.util.HashMap<>();
+    
+    public KeyedChildren(Container parent, int firstIndex, java.util.function.Function<M, K> keyOf,
+            java.util.function.Function<M, C> create, java.util.function.BiConsumer<C, M> update) {
+        this.parent = parent;
+        this.firstIndex = firstIndex;
+        this.keyOf = keyOf;
+        this.create = create;
+        this.update = update;
+    }
+    
+    // Make the managed children match the models, in order (keys must be unique)
+    public void reconcile(java.util.List<M> models) {
+        boolean changed = false;
+        java.util.Map<K, C> next = new java.util.HashMap<>();
+        for (M m : models) {
+            next.put(keyOf.apply(m), null);
+        }
+        
+        // Drop the children whose key is gone
+        for (java.util.Map.Entry<K, C> e : children.entrySet()) {
+            if (!next.containsKey(e.getKey())) {
+                parent.remove(e.getValue());
+                changed = true;
+            }
+        }
+        
+        // Update the rest in place, create the new ones, and move any that are out of order
+        int position = firstIndex;
+        for (M m : models) {
+            K key = keyOf.apply(m);
+            C c = children.get(key);
+            if (c == null) {
+                c = create.apply(m);
+                parent.add(c, position);
+                changed = true;
+            } else if (parent.getComponent(position) != c) {
+                parent.setComponentZOrder(c, position);   // Moves the child without rebuilding it
+                changed = true;
+            }
+            update.accept(c, m);
+            next.put(key, c);
+            position++;
+        }
+        children = next;
+        
+        if (changed) {
+            parent.revalidate();
+            parent.repaint();
+        }
+    }
+}
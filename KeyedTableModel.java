@@ -0,0 +1,98 @@
+// KEYED TABLE MODEL
+// Read-only table model whose rows follow a list of view models by key
+// (e.g. a room number or a booking ID). setRows compares the new list with the rows
+// already shown: rows whose key is gone are deleted, new keys are inserted and a
+// kept row is only reported as updated if one of its cells changed. The table then
+// repaints just those rows and keeps its scroll position and selection, instead of
+// being thrown away and rebuilt on every refresh.
+
+class KeyedTableModel<K, M> extends javax.swing.table.AbstractTableModel {
+    private String[] columns;
+    private java.util.function.Function<M, K> keyOf;
+    private java.util.function.Function<M, Object[]> rowOf;   // Cell values of a model, one per column
+    private java.util.List<K> keys = new java.util.ArrayList<>();
+    private java.util.List<Object[]> rows = new java.util.ArrayList<>();
+    
+    public KeyedTableModel(String[] columns, java.util.function.Function<M, K> keyOf, java.util.function.Function<M, Object[]> rowOf) {
+        this.columns = columns;
+        this.keyOf = keyOf;
+        this.rowOf = rowOf;
+    }
+    
+    // Show these models, in order (keys must be unique)
+    public void setRows(java.util.List<M> models) {
+        java.util.List<K> nextKeys = new java.util.ArrayList<>(models.size());
+        for (M m : models) {
+            nextKeys.add(keyOf.apply(m));
+        }
+        
+        // Same rows in the same order (the usual case): only compare cells
+        if (nextKeys.equals(keys)) {
+            for (int i = 0; i < keys.size(); i++) {
+                Object[] row = rowOf.apply(models.get(i));
+                if (!java.util.Arrays.equals(rows.get(i), row)) {
+                    rows.set(i, row);
+                    fireTableRowsUpdated(i, i);
+                }
+            }
+            return;
+        }
+        
+        java.util.Map<K, Object[]> next = new java.util.LinkedHashMap<>();
+        for (M m : models) {
+            next.put(keyOf.apply(m), rowOf.apply(m));
+        }
+        
+        // Delete the rows whose key is gone, last first so the reported indices stay valid
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            if (!next.containsKey(keys.get(i))) {
+                keys.remove(i);
+                rows.remove(i);
+                fireTableRowsDeleted(i, i);
+            }
+        }
+        java.util.Set<K> shown = new java.util.HashSet<>(keys);
+        
+        // Walk the new order: keep matching rows, insert new ones, and move any that are out of place
+        int i = 0;
+        for (java.util.Map.Entry<K, Object[]> e : next.entrySet()) {
+            if (i < keys.size() && keys.get(i).equals(e.getKey())) {
+                if (!java.util.Arrays.equals(rows.get(i), e.getValue())) {
+                    rows.set(i, e.getValue());
+                    fireTableRowsUpdated(i, i);
+                }
+            } else {
+                if (shown.contains(e.getKey())) {
+                    int old = keys.indexOf(e.getKey());   // Only searched for a row that moved
+                    keys.remove(old);
+                    rows.remove(old);
+                    fireTableRowsDeleted(old, old);
+                }
+                keys.add(i, e.getKey());
+                rows.add(i, e.getValue());
+                fireTableRowsInserted(i, i);
+            }
+            i++;
+        }
+    }
+    
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+    
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+    
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+    
+    @Override
+    public Object getValueAt(int row, int column) {
+        return rows.get(row)[column];
+    }
+}
@@ -0,0 +1,147 @@
+// OCCUPANCY FORECAST
+// Rooms on the books for each night of the coming year, per room type
+// A booking adds one room to every night of its stay. Instead of touching every night,
+// the forecast keeps a difference array per room type: +1 on the check-in night and
+// -1 on the check-out night, so a booking or cancellation is two array writes.
+// The running total (prefix sum) of the difference array is the number of rooms
+// booked each night, and the running total of that gives room nights over any range
+// with one subtraction. Both running totals are rebuilt only when a query needs them
+// after a change (a few hundred additions), so each query afterwards is an array read.
+// The window starts on the day it was built and covers WINDOW_DAYS nights; once it has
+// less than HORIZON_DAYS left it is rebuilt from the booking columns starting today.
+// Used by the rate engine (tonight's occupancy), the dashboard's occupancy card and forecast
+// chart, and the date picker's availability shading.
+
+class OccupancyForecast {
+    static final int HORIZON_DAYS = 365;                 // Nights ahead that are always covered
+    static final int WINDOW_DAYS = 2 * HORIZON_DAYS;
+    
+    private RoomRepository rooms;
+    private BookingColumns columns;                      // Full history, for rebuilding the window
+    private int origin;                                  // Epoch day of index 0
+    private int[][] diff;                                // [type row][night - origin]: check-ins minus check-outs
+    private int[][] occupied;                            // Prefix sums of diff: rooms booked per night
+    private long[][] cumulative;                         // Prefix sums of occupied: cumulative[t][i] = room nights before origin + i
+    private boolean[] dirty;                             // Running totals of a row are out of date
+    
+    public OccupancyForecast(RoomRepository rooms, BookingColumns columns) {
+        this.rooms = rooms;
+        this.columns = columns;
+        rebuild(RoomCalendar.today());
+    }
+    
+    // ===== Updates (called by ReservationEngine) =====
+    
+    public synchronized void bookingAdded(Booking b) {
+        update(b, 1);
+    }
+    
+    public synchronized void bookingCancelled(Booking b) {
+        update(b, -1);
+    }
+    
+    private void update(Booking b, int sign) {
+        Room room = rooms.get(b.getRoomNumber());
+        int t = row(room == null ? null : room.getType());
+        int from = b.getCheckinDay() - origin;
+        int to = b.getCheckinDay() + Math.max(1, b.getCheckoutDay() - b.getCheckinDay()) - origin;   // At least one night, like Booking
+        if (to <= 0 || from >= WINDOW_DAYS) {
+            return;   // Outside the window; picked up by the next rebuild if it comes into range
+        }
+        diff[t][Math.max(0, from)] += sign;
+        diff[t][Math.min(WINDOW_DAYS, to)] -= sign;
+        dirty[t] = true;
+    }
+    
+    // ===== Queries =====
+    
+    // Rooms of a type (null = all types) booked for one night; 0 outside the window
+    public synchronized int occupiedRooms(String type, int day) {
+        return occupiedRooms(type, day, 1)[0];
+    }
+    
+    // Rooms of a type (null = all types) booked for each of `days` nights from firstDay
+    public synchronized int[] occupiedRooms(String type, int firstDay, int days) {
+        moveWindow();
+        int[] counts = new int[days];
+        int from = Math.max(0, origin - firstDay), to = Math.min(days, origin + WINDOW_DAYS - firstDay);   // Nights inside the window
+        for (int t = 0; t < diff.length; t++) {
+            if (type == null || t == row(type)) {
+                refresh(t);
+                for (int d = from; d < to; d++) {
+                    counts[d] += occupied[t][firstDay + d - origin];
+                }
+            }
+        }
+        return counts;
+    }
+    
+    // Room nights of a type (null = all types) booked over the nights [fromDay, toDay), clipped to the window
+    public synchronized long roomNights(String type, int fromDay, int toDay) {
+        moveWindow();
+        int from = Math.max(0, Math.min(WINDOW_DAYS, fromDay - origin));
+        int to = Math.max(from, Math.min(WINDOW_DAYS, toDay - origin));
+        long sum = 0;
+        for (int t = 0; t < diff.length; t++) {
+            if (type == null || t == row(type)) {
+                refresh(t);
+                sum += cumulative[t][to] - cumulative[t][from];
+            }
+        }
+        return sum;
+    }
+    
+    // Share of a type's rooms (null = all rooms) booked for one night, in percent
+    public double occupancyPercent(String type, int day) {
+        int total = type == null ? rooms.size() : rooms.byType(type).size();
+        return total == 0 ? 0 : occupiedRooms(type, day) * 100.0 / total;
+    }
+    
+    // ===== Internals =====
+    
+    // Start a new window today once the current one no longer reaches HORIZON_DAYS ahead
+    private void moveWindow() {
+        int today = RoomCalendar.today();
+        if (today + HORIZON_DAYS > origin + WINDOW_DAYS) {
+            rebuild(today);
+        }
+    }
+    
+    // Bring a row's running totals up to date if it changed since they were built
+    private void refresh(int t) {
+        if (dirty[t]) {
+            int running = 0;
+            for (int i = 0; i < WINDOW_DAYS; i++) {
+                running += diff[t][i];
+                occupied[t][i] = running;
+                cumulative[t][i + 1] = cumulative[t][i] + running;
+            }
+            dirty[t] = false;
+        }
+    }
+    
+    // Start a new window at the given day, filled from every live booking
+    private void rebuild(int start) {
+        int types = RoomRepository.TYPES.length + 1;
+        origin = start;
+        diff = new int[types][WINDOW_DAYS + 1];
+        occupied = new int[types][WINDOW_DAYS];
+        cumulative = new long[types][WINDOW_DAYS + 1];
+        dirty = new boolean[types];
+        int[][] nights = new int[types][WINDOW_DAYS];
+        columns.addNights(origin, origin + WINDOW_DAYS, 0, columns.limit(), new double[types][WINDOW_DAYS], nights);
+        for (int t = 0; t < types; t++) {
+            for (int i = 0; i < WINDOW_DAYS; i++) {
+                diff[t][i] = nights[t][i] - (i == 0 ? 0 : nights[t][i - 1]);
+            }
+            diff[t][WINDOW_DAYS] = -nights[t][WINDOW_DAYS - 1];
+            dirty[t] = true;
+        }
+    }
+    
+    // Row of a room type: its index in RoomRepository.TYPES, or the last row for any other type
+    private static int row(String type) {
+        int t = type == null ? -1 : BookingColumns.typeCode(type);
+        return t >= 0 ? t : RoomRepository.TYPES.length;
+    }
+}
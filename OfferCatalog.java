@@ -0,0 +1,169 @@
+// OFFER CATALOG
+// Every promotion the hotel runs, shared by the booking flow and the Offers page
+// Offers are indexed by room type: each type gets the offers that can apply to it
+// (its own plus the any-type ones), sorted by discount with the biggest first.
+// Best-offer table: the nights and lead-time conditions of all offers split stays
+// into a few buckets (e.g. nights 1 | 2-6 | 7+). Every stay in a bucket qualifies
+// for the same offers, so the best offer per (room type, nights bucket, lead-time
+// bucket) is worked out once when the catalog changes, and quoting a stay is two
+// bucket lookups and an array read. Offers limited to a date window cannot be
+// bucketed this way and are checked directly after the table lookup.
+// The index is rebuilt when an offer is added and swapped in whole, so bookings on
+// other threads can read it without locking.
+
+class OfferCatalog {
+    private java.util.List<Offer> offers = new java.util.ArrayList<>();   // In the order they were declared (display order)
+    private volatile Index index = new Index(java.util.Collections.emptyList());
+    
+    // The hotel's standard promotions
+    public static OfferCatalog defaults() {
+        OfferCatalog catalog = new OfferCatalog();
+        // Name, discount %, description, criteria text, min nights, min lead days, room type (null = any)
+        catalog.add(new Offer("Weekend Getaway", 20, "Book 2 nights, get 20% discount", "2+ nights", 2, 0, null));
+        catalog.add(new Offer("Early Bird Special", 15, "Book 30 days in advance", "Book 30+ days ahead", 0, 30, null));
+        catalog.add(new Offer("Extended Stay", 25, "Stay 7+ nights, save 25%", "7+ nights", 7, 0, null));
+        catalog.add(new Offer("Honeymoon Package", 30, "Romantic suite with extras", "Suite only", 0, 0, "Suite"));
+        return catalog;
+    }
+    
+    // Add an offer and rebuild the index and best-offer table
+    public synchronized void add(Offer offer) {
+        offers.add(offer);
+        index = new Index(new java.util.ArrayList<>(offers));
+    }
+    
+    // All offers in display order (read-only)
+    public synchronized java.util.List<Offer> all() {
+        return java.util.Collections.unmodifiableList(new java.util.ArrayList<>(offers));
+    }
+    
+    // The best offer for a stay that is not booked yet (search results), or null if none
+    public Offer quote(String roomType, long nights, int checkinDay) {
+        return index.best(roomType, nights, checkinDay - RoomCalendar.today(), checkinDay);
+    }
+    
+    // Every offer the booking qualifies for, biggest discount first
+    public java.util.List<Offer> applicable(Booking booking, Room room) {
+        int today = RoomCalendar.today();
+        java.util.List<Offer> result = new java.util.ArrayList<>();
+        for (Offer o : index.candidates(room.getType())) {
+            if (o.matches(booking, today)) {
+                result.add(o);
+            }
+        }
+        return result;
+    }
+    
+    // Lookup structures for one version of the catalog; never changed after it is built
+    private static class Index {
+        private java.util.List<Offer> offers;                                          // Declaration order (breaks ties)
+        private java.util.Map<String, Offer[]> byType = new java.util.HashMap<>();      // Room type -> candidates, best first
+        private Offer[] anyType;                                                       // Candidates for a room type no offer names
+        private int[] nightCuts;                                                       // Distinct minimum nights, ascending
+        private int[] leadCuts;                                                        // Distinct minimum lead days, ascending
+        private java.util.Map<String, Offer[][]> table = new java.util.HashMap<>();     // Room type -> best offer [nights bucket][lead bucket]
+        private Offer[][] anyTypeTable;
+        private Offer[] windowed;                                                      // Offers with a date window, best first
+        
+        Index(java.util.List<Offer> offers) {
+            this.offers = offers;
+            nightCuts = offers.stream().mapToInt(Offer::getMinNights).filter(n -> n > 0).distinct().sorted().toArray();
+            leadCuts = offers.stream().mapToInt(Offer::getMinLeadDays).filter(n -> n > 0).distinct().sorted().toArray();
+            windowed = sortedByDiscount(offers.stream().filter(Index::isWindowed));
+            
+            java.util.Set<String> types = new java.util.LinkedHashSet<>(java.util.Arrays.asList(RoomRepository.TYPES));
+            for (Offer o : offers) {
+                if (o.getRoomType() != null) {
+                    types.add(o.getRoomType());
+                }
+            }
+            for (String type : types) {
+                Offer[] candidates = candidatesFor(type);
+                byType.put(type, candidates);
+                table.put(type, buildTable(candidates));
+            }
+            anyType = candidatesFor(null);
+            anyTypeTable = buildTable(anyType);
+        }
+        
+        private static boolean isWindowed(Offer o) {
+            return o.getFirstCheckinDay() != Offer.ANY_DAY_FROM || o.getLastCheckinDay() != Offer.ANY_DAY_UNTIL;
+        }
+        
+        // Biggest discount first; the sort is stable, so among equal discounts the one declared first wins
+        private static Offer[] sortedByDiscount(java.util.stream.Stream<Offer> offers) {
+            return offers.sorted(java.util.Comparator.comparingInt(Offer::getDiscountPercent).reversed()).toArray(Offer[]::new);
+        }
+        
+        // Offers that can apply to a room type (null = only the any-type offers)
+        private Offer[] candidatesFor(String type) {
+            return sortedByDiscount(offers.stream().filter(o -> o.getRoomType() == null || o.getRoomType().equals(type)));
+        }
+        
+        // Best offer without a date window for each bucket
+        // The shortest stay and lead time in a bucket stand for all of it, since no condition changes inside a bucket
+        private Offer[][] buildTable(Offer[] candidates) {
+            Offer[][] best = new Offer[nightCuts.length + 1][leadCuts.length + 1];
+            for (int n = 0; n <= nightCuts.length; n++) {
+                int nights = n == 0 ? 0 : nightCuts[n - 1];
+                for (int l = 0; l <= leadCuts.length; l++) {
+                    int lead = l == 0 ? 0 : leadCuts[l - 1];
+                    for (Offer o : candidates) {
+                        if (!isWindowed(o) && reaches(nights, o.getMinNights()) && reaches(lead, o.getMinLeadDays())) {
+                            best[n][l] = o;   // Candidates are sorted, so the first match is the best
+                            break;
+                        }
+                    }
+                }
+            }
+            return best;
+        }
+        
+        // Same test as Offer's rule: a minimum of 0 or less is no condition
+        private static boolean reaches(long value, int minimum) {
+            return minimum <= 0 || value >= minimum;
+        }
+        
+        // Bucket of a value = how many cuts it reaches
+        private static int bucket(int[] cuts, long value) {
+            int lo = 0, hi = cuts.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cuts[mid] <= value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+        
+        Offer[] candidates(String type) {
+            Offer[] list = byType.get(type);
+            return list != null ? list : anyType;
+        }
+        
+        Offer best(String type, long nights, int leadDays, int checkinDay) {
+            Offer[][] t = table.get(type);
+            if (t == null) {
+                t = anyTypeTable;
+            }
+            Offer best = t[bucket(nightCuts, nights)][bucket(leadCuts, leadDays)];
+            
+            // A date-window offer only wins with a bigger discount, or an equal one declared earlier
+            for (Offer o : windowed) {
+                if (best != null && o.getDiscountPercent() < best.getDiscountPercent()) {
+                    break;
+                }
+                if (o.appliesTo(type) && reaches(nights, o.getMinNights()) && reaches(leadDays, o.getMinLeadDays())
+                        && checkinDay >= o.getFirstCheckinDay() && checkinDay <= o.getLastCheckinDay()) {
+                    if (best == null || o.getDiscountPercent() > best.getDiscountPercent() || offers.indexOf(o) < offers.indexOf(best)) {
+                        best = o;
+                    }
+                    break;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -3,7 +3,11 @@ import javax.swing.*;
 
 // Separate ProfilePanel implementation (handles payment method + number)
 class ProfilePanel extends JPanel {
-    private JPanel paymentDisplayPanel;
+    private JLabel savedTitle;                                      // "Saved Payment Methods (n):"
+    private JLabel noPaymentLabel;
+    private KeyedChildren<Integer, Integer, PaymentCard> paymentCards;   // One card per saved method, by position in the list
+    private JTextField emailField;
+    private JTextField phoneField;
     
     public ProfilePanel() {
         setLayout(new BorderLayout());
@@ -31,11 +35,7 @@ class ProfilePanel extends JPanel {
         scrollContent.add(Box.createVerticalStrut(30));
         
         // Payment Methods Section
-        paymentDisplayPanel = new JPanel();
-        paymentDisplayPanel.setLayout(new BoxLayout(paymentDisplayPanel, BoxLayout.Y_AXIS));
-        paymentDisplayPanel.setBackground(Color.WHITE);
-        refreshPaymentDisplay(paymentDisplayPanel);
-        scrollContent.add(paymentDisplayPanel);
+        scrollContent.add(createPaymentMethodsSection());
         scrollContent.add(Box.createVerticalGlue());
         
         JScrollPane scroll = new JScrollPane(scrollContent);
@@ -43,11 +43,13 @@ class ProfilePanel extends JPanel {
         add(scroll, BorderLayout.CENTER);
     }
     
-    private void refreshPaymentDisplay(JPanel displayPanel) {
-        displayPanel.removeAll();
-        displayPanel.add(createPaymentMethodsSection());
-        displayPanel.revalidate();
-        displayPanel.repaint();
+    // Bring the saved payment methods up to date: cards are kept and refilled, only added or removed at the end
+    private void refreshPaymentDisplay() {
+        int count = SerenitySuitesHMS.currentUser.getPaymentMethods().size();
+        savedTitle.setText("Saved Payment Methods (" + count + "):");
+        savedTitle.setVisible(count > 0);
+        noPaymentLabel.setVisible(count == 0);
+        paymentCards.reconcile(java.util.stream.IntStream.range(0, count).boxed().collect(java.util.stream.Collectors.toList()));
     }
     
     private JPanel createProfileInfoSection() {
@@ -88,9 +90,9 @@ class ProfilePanel extends JPanel {
         emailLabel.setFont(new Font("Segoe UI", Font.BOLD, 12));
         form.add(emailLabel, g);
         g.gridy++;
-        JTextField email = UIComponents.createStyledTextField();
-        email.setText(SerenitySuitesHMS.currentUser.getEmail());
-        form.add(email, g);
+        emailField = UIComponents.createStyledTextField();
+        emailField.setText(SerenitySuitesHMS.currentUser.getEmail());
+        form.add(emailField, g);
         
         // Phone
         g.gridy++;
@@ -98,9 +100,9 @@ class ProfilePanel extends JPanel {
         phoneLabel.setFont(new Font("Segoe UI", Font.BOLD, 12));
         form.add(phoneLabel, g);
         g.gridy++;
-        JTextField phone = UIComponents.createStyledTextField();
-        phone.setText(SerenitySuitesHMS.currentUser.getPhone());
-        form.add(phone, g);
+        phoneField = UIComponents.createStyledTextField();
+        phoneField.setText(SerenitySuitesHMS.currentUser.getPhone());
+        form.add(phoneField, g);
         
         section.add(form);
         return section;
@@ -171,23 +173,24 @@ class ProfilePanel extends JPanel {
         saveBtn.setMaximumSize(new Dimension(150, 40));
         saveBtn.setAlignmentX(Component.LEFT_ALIGNMENT);
         saveBtn.addActionListener(e -> {
-            JTextField emailField = (JTextField) form.getComponent(5);
-            JTextField phoneField = (JTextField) form.getComponent(9);
-            String newEmail = emailField.getText();
+            String newEmail = emailField.getText().trim();
             String newPhone = phoneField.getText();
             String np = new String(newPass.getPassword());
             String np2 = new String(confirmPass.getPassword());
             
-            if (!np.isEmpty()) {
-                if (!np.equals(np2)) {
-                    JOptionPane.showMessageDialog(ProfilePanel.this, "Passwords do not match!", "Error", JOptionPane.ERROR_MESSAGE);
-                    return;
-                }
-                SerenitySuitesHMS.currentUser.setPassword(np);
+            if (!np.isEmpty() && !np.equals(np2)) {
+                JOptionPane.showMessageDialog(ProfilePanel.this, "Passwords do not match!", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
             }
             
-            SerenitySuitesHMS.currentUser.setEmail(newEmail);
-            SerenitySuitesHMS.currentUser.setPhone(newPhone);
+            // Profile changes go through the user directory so the email index stays correct
+            if (!SerenitySuitesHMS.users.updateProfile(SerenitySuitesHMS.currentUser, newEmail, newPhone)) {
+                JOptionPane.showMessageDialog(ProfilePanel.this, "Email address is already registered!", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            if (!np.isEmpty()) {
+                SerenitySuitesHMS.users.changePassword(SerenitySuitesHMS.currentUser, np);
+            }
             
             JOptionPane.showMessageDialog(ProfilePanel.this, "Profile updated successfully!");
             currentPass.setText("");
@@ -212,69 +215,25 @@ class ProfilePanel extends JPanel {
         section.add(sectionTitle);
         section.add(Box.createVerticalStrut(10));
         
-        // Display all saved payment methods
-        java.util.ArrayList<PaymentEntry> payments = SerenitySuitesHMS.currentUser.getPaymentMethods();
-        
-        if (payments.size() > 0) {
-            JLabel savedTitle = new JLabel("Saved Payment Methods (" + payments.size() + "):");
-            savedTitle.setFont(new Font("Segoe UI", Font.BOLD, 13));
-            savedTitle.setForeground(SerenitySuitesHMS.PRIMARY);
-            section.add(savedTitle);
-            section.add(Box.createVerticalStrut(10));
-            
-            for (int i = 0; i < payments.size(); i++) {
-                PaymentEntry entry = payments.get(i);
-                JPanel paymentCard = new JPanel(new BorderLayout(10, 10));
-                paymentCard.setBackground(new Color(248, 249, 250));
-                paymentCard.setBorder(BorderFactory.createCompoundBorder(
-                    BorderFactory.createLineBorder(new Color(224, 224, 224), 1),
-                    BorderFactory.createEmptyBorder(15, 15, 15, 15)));
-                paymentCard.setMaximumSize(new Dimension(Integer.MAX_VALUE, 90));
-                
-                JLabel methodLabel = new JLabel(entry.getType());
-                methodLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
-                
-                JLabel numberLabel = new JLabel(entry.getMaskedNumber());
-                numberLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
-                numberLabel.setForeground(Color.GRAY);
-                
-                JLabel nameLabel = new JLabel("Account: " + entry.getName());
-                nameLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
-                nameLabel.setForeground(Color.GRAY);
-                
-                JPanel info = new JPanel(new GridLayout(3, 1));
-                info.setBackground(new Color(248, 249, 250));
-                info.add(methodLabel);
-                info.add(numberLabel);
-                info.add(nameLabel);
-                paymentCard.add(info, BorderLayout.CENTER);
-                
-                // Remove button
-                JButton removeBtn = new JButton("✕");
-                removeBtn.setFont(new Font("Segoe UI", Font.BOLD, 16));
-                removeBtn.setPreferredSize(new Dimension(45, 45));
-                removeBtn.setForeground(SerenitySuitesHMS.DANGER);
-                removeBtn.setFocusPainted(false);
-                removeBtn.setBorderPainted(false);
-                removeBtn.setBackground(Color.WHITE);
-                removeBtn.setCursor(new Cursor(Cursor.HAND_CURSOR));
-                final int index = i;
-                removeBtn.addActionListener(e -> {
-                    SerenitySuitesHMS.currentUser.removePaymentMethod(index);
-                    refreshPaymentDisplay(paymentDisplayPanel);
-                });
-                paymentCard.add(removeBtn, BorderLayout.EAST);
-                
-                section.add(paymentCard);
-                section.add(Box.createVerticalStrut(10));
-            }
-        } else {
-            JLabel noPaymentLabel = new JLabel("No payment methods saved.");
-            noPaymentLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
-            noPaymentLabel.setForeground(Color.GRAY);
-            section.add(noPaymentLabel);
-            section.add(Box.createVerticalStrut(20));
-        }
+        // Saved payment methods (filled by refreshPaymentDisplay)
+        savedTitle = new JLabel();
+        savedTitle.setFont(new Font("Segoe UI", Font.BOLD, 13));
+        savedTitle.setForeground(SerenitySuitesHMS.PRIMARY);
+        savedTitle.setBorder(BorderFactory.createEmptyBorder(0, 0, 10, 0));
+        section.add(savedTitle);
+        
+        JPanel paymentList = new JPanel();
+        paymentList.setLayout(new BoxLayout(paymentList, BoxLayout.Y_AXIS));
+        paymentList.setBackground(Color.WHITE);
+        paymentCards = new KeyedChildren<>(paymentList, 0, i -> i, i -> new PaymentCard(i), PaymentCard::showEntry);
+        section.add(paymentList);
+        
+        noPaymentLabel = new JLabel("No payment methods saved.");
+        noPaymentLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        noPaymentLabel.setForeground(Color.GRAY);
+        noPaymentLabel.setBorder(BorderFactory.createEmptyBorder(0, 0, 20, 0));
+        section.add(noPaymentLabel);
+        refreshPaymentDisplay();
         
         section.add(Box.createVerticalStrut(20));
         
@@ -343,7 +302,7 @@ class ProfilePanel extends JPanel {
             }
             
             // Add payment method to user's list
-            SerenitySuitesHMS.currentUser.addPaymentMethod(method, number, name);
+            SerenitySuitesHMS.users.addPaymentMethod(SerenitySuitesHMS.currentUser, method, number, name);
             
             JOptionPane.showMessageDialog(ProfilePanel.this, "Payment method added successfully!");
             numberField.setText("");
@@ -351,13 +310,71 @@ class ProfilePanel extends JPanel {
             typeCombo.setSelectedIndex(0);
             
             // Refresh the payment methods display
-            refreshPaymentDisplay(paymentDisplayPanel);
+            refreshPaymentDisplay();
         });
         section.add(addPaymentBtn);
         
         return section;
     }
     
+    // Card for the saved payment method at one position in the user's list
+    // After a removal the cards below it are refilled with the entries that moved up
+    private class PaymentCard extends JPanel {
+        private JLabel methodLabel = new JLabel();
+        private JLabel numberLabel = new JLabel();
+        private JLabel nameLabel = new JLabel();
+        
+        PaymentCard(int index) {
+            super(new BorderLayout());
+            setBackground(Color.WHITE);
+            setMaximumSize(new Dimension(Integer.MAX_VALUE, 100));
+            
+            JPanel paymentCard = new JPanel(new BorderLayout(10, 10));
+            paymentCard.setBackground(new Color(248, 249, 250));
+            paymentCard.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(new Color(224, 224, 224), 1),
+                BorderFactory.createEmptyBorder(15, 15, 15, 15)));
+            
+            methodLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
+            numberLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+            numberLabel.setForeground(Color.GRAY);
+            nameLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+            nameLabel.setForeground(Color.GRAY);
+            
+            JPanel info = new JPanel(new GridLayout(3, 1));
+            info.setBackground(new Color(248, 249, 250));
+            info.add(methodLabel);
+            info.add(numberLabel);
+            info.add(nameLabel);
+            paymentCard.add(info, BorderLayout.CENTER);
+            
+            // Remove button
+            JButton removeBtn = new JButton("✕");
+            removeBtn.setFont(new Font("Segoe UI", Font.BOLD, 16));
+            removeBtn.setPreferredSize(new Dimension(45, 45));
+            removeBtn.setForeground(SerenitySuitesHMS.DANGER);
+            removeBtn.setFocusPainted(false);
+            removeBtn.setBorderPainted(false);
+            removeBtn.setBackground(Color.WHITE);
+            removeBtn.setCursor(new Cursor(Cursor.HAND_CURSOR));
+            removeBtn.addActionListener(e -> {
+                SerenitySuitesHMS.users.removePaymentMethod(SerenitySuitesHMS.currentUser, index);
+                refreshPaymentDisplay();
+            });
+            paymentCard.add(removeBtn, BorderLayout.EAST);
+            
+            add(paymentCard, BorderLayout.CENTER);
+            add(Box.createVerticalStrut(10), BorderLayout.SOUTH);
+        }
+        
+        void showEntry(int index) {
+            PaymentEntry entry = SerenitySuitesHMS.currentUser.getPaymentMethods().get(index);
+            methodLabel.setText(entry.getType());
+            numberLabel.setText(entry.getMaskedNumber());
+            nameLabel.setText("Account: " + entry.getName());
+        }
+    }
+    
     // Helper method to create a password field with show/hide toggle
     private JPanel createPasswordFieldWithToggle(JPasswordField passwordField) {
         JPanel panel = new JPanel(new BorderLayout(5, 0));
@@ -0,0 +1,114 @@
+// RATE BENCHMARK
+// How many stays per second the rate engine can quote, and what the prefix sums save
+// Usage: java RateBenchmark [stays] [rounds]
+//   defaults: 100000 5
+// Quotes `stays` random stays of 1-30 nights over the next year, in rooms of every type,
+// with the hotel's default seasons (RateEngine.defaults):
+//   prefix      RateEngine.quote(): one subtraction per stay, whatever its length
+//   per-night   the same stays priced one night at a time with nightlyRate(), the way a
+//               quote works without the tables
+// The first round is warm-up and not counted; the table shows the median of the other rounds.
+// Also checks that both ways agree (to the cent per night, since each nightly rate is rounded)
+// and times the table rebuild that adding a season causes.
+
+class RateBenchmark {
+    private RoomRepository rooms = new RoomRepository();
+    private ReservationEngine bookings = new ReservationEngine(rooms);
+    private RateEngine rates = RateEngine.defaults(rooms, bookings.forecast());
+    private Room[] stayRooms;
+    private int[] checkins, checkouts;
+    private double sink;   // Quotes are added up here so the JIT cannot drop them
+    
+    public RateBenchmark(int stays) {
+        for (int i = 0; i < 40; i++) {
+            rooms.add(new Room(101 + i, "Rate Room " + (i + 1), 1000 + 250 * (i % 8), 1 + i % 4, RoomRepository.TYPES[i % RoomRepository.TYPES.length]));
+        }
+        java.util.List<Room> all = new java.util.ArrayList<>(rooms.all());
+        java.util.Random random = new java.util.Random(42);
+        stayRooms = new Room[stays];
+        checkins = new int[stays];
+        checkouts = new int[stays];
+        int today = RoomCalendar.today();
+        for (int i = 0; i < stays; i++) {
+            stayRooms[i] = all.get(random.nextInt(all.size()));
+            checkins[i] = today + random.nextInt(365);
+            checkouts[i] = checkins[i] + 1 + random.nextInt(30);
+        }
+    }
+    
+    private double quoteAll() {
+        double total = 0;
+        for (int i = 0; i < checkins.length; i++) {
+            total += rates.quote(stayRooms[i], checkins[i], checkouts[i]);
+        }
+        return total;
+    }
+    
+    private double quoteNightByNight() {
+        double total = 0;
+        for (int i = 0; i < checkins.length; i++) {
+            for (int day = checkins[i]; day < checkouts[i]; day++) {
+                total += rates.nightlyRate(stayRooms[i], day);
+            }
+        }
+        return total;
+    }
+    
+    // Largest difference between the two ways for a single stay, in cents per night
+    private double largestDifference() {
+        double largest = 0;
+        for (int i = 0; i < checkins.length; i++) {
+            double nightly = 0;
+            for (int day = checkins[i]; day < checkouts[i]; day++) {
+                nightly += rates.nightlyRate(stayRooms[i], day);
+            }
+            double difference = Math.abs(nightly - rates.quote(stayRooms[i], checkins[i], checkouts[i]));
+            largest = Math.max(largest, difference * 100 / (checkouts[i] - checkins[i]));
+        }
+        return largest;
+    }
+    
+    // Median milliseconds per round for {prefix, per-night}
+    public double[] run(int rounds) {
+        double[][] times = new double[2][rounds];
+        for (int r = 0; r <= rounds; r++) {
+            long start = System.nanoTime();
+            sink += quoteAll();
+            long prefix = System.nanoTime() - start;
+            start = System.nanoTime();
+            sink += quoteNightByNight();
+            long perNight = System.nanoTime() - start;
+            if (r > 0) {   // Round 0 warms up the JIT
+                times[0][r - 1] = prefix / 1e6;
+                times[1][r - 1] = perNight / 1e6;
+            }
+        }
+        return new double[]{median(times[0]), median(times[1])};
+    }
+    
+    // Milliseconds to rebuild the tables for a new season
+    private double rebuildMillis() {
+        long start = System.nanoTime();
+        rates.addSeason(new RateEngine.Season("Benchmark Week", java.time.MonthDay.of(10, 1), java.time.MonthDay.of(10, 7), 5, null));
+        return (System.nanoTime() - start) / 1e6;
+    }
+    
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        java.util.Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+    
+    public static void main(String[] args) {
+        int stays = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        RateBenchmark bench = new RateBenchmark(stays);
+        double[] ms = bench.run(rounds);
+        System.out.printf("%,d stays of 1-30 nights, median of %d rounds after warm-up%n", stays, rounds);
+        System.out.printf("%-10s %10s %14s%n", "quote", "ms", "stays/s");
+        System.out.printf("%-10s %10.1f %,14.0f%n", "prefix", ms[0], stays / (ms[0] / 1000));
+        System.out.printf("%-10s %10.1f %,14.0f%n", "per-night", ms[1], stays / (ms[1] / 1000));
+        System.out.printf("largest difference: %.2f cents per night%n", bench.largestDifference());
+        System.out.printf("table rebuild after adding a season: %.1f ms%n", bench.rebuildMillis());
+    }
+}
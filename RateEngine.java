@@ -0,0 +1,180 @@
+// RATE ENGINE
+// Works out what a stay costs, night by night, before any offer is applied
+// A night's rate is the room's base price adjusted by
+// - the season the night falls in (e.g. +30% over the holidays, -10% in the rainy season)
+// - the day of the week (Friday and Saturday nights cost more)
+// - how full the room type is tonight (the last few rooms of a type sell at a premium)
+// Season and weekday adjustments are fixed per date, so for each room type the engine
+// keeps a running total (prefix sum) of the nightly multipliers over a window of dates.
+// The multipliers for any stay are then one subtraction, so a 30-night quote costs the
+// same as a 1-night quote. Stays outside the window are added up night by night.
+// The tables are rebuilt when a season is added and swapped in whole, so quotes on
+// other threads never lock.
+
+class RateEngine {
+    private static final int WINDOW_YEARS = 4;   // Last year, this year and the next two
+    
+    private RoomRepository rooms;
+    private OccupancyForecast forecast;
+    private int weekendPercent;                  // Added to Friday and Saturday nights
+    private java.util.List<Season> seasons = new java.util.ArrayList<>();   // In the order they were declared (first match wins)
+    private volatile Tables tables;
+    
+    // A yearly date range with a price adjustment, e.g. Dec 15 - Jan 5, +30%
+    static class Season {
+        private String name;
+        private java.time.MonthDay first, last;   // Inclusive; may wrap over New Year
+        private int percent;                      // Added to the base price (negative for a discount)
+        private String roomType;                  // Only rooms of this type (null = any type)
+        
+        public Season(String name, java.time.MonthDay first, java.time.MonthDay last, int percent, String roomType) {
+            this.name = name;
+            this.first = first;
+            this.last = last;
+            this.percent = percent;
+            this.roomType = roomType;
+        }
+        
+        // Check if a date falls in the season
+        public boolean covers(java.time.LocalDate date) {
+            java.time.MonthDay d = java.time.MonthDay.from(date);
+            if (first.isAfter(last)) {
+                return !d.isBefore(first) || !d.isAfter(last);   // Wraps over New Year
+            }
+            return !d.isBefore(first) && !d.isAfter(last);
+        }
+        
+        public boolean appliesTo(String type) {
+            return roomType == null || roomType.equals(type);
+        }
+        
+        public String getName() { return name; }
+        public int getPercent() { return percent; }
+        public String getRoomType() { return roomType; }
+    }
+    
+    public RateEngine(RoomRepository rooms, OccupancyForecast forecast, int weekendPercent) {
+        this.rooms = rooms;
+        this.forecast = forecast;
+        this.weekendPercent = weekendPercent;
+        this.tables = new Tables();
+    }
+    
+    // The hotel's standard rate calendar
+    public static RateEngine defaults(RoomRepository rooms, OccupancyForecast forecast) {
+        RateEngine engine = new RateEngine(rooms, forecast, 10);
+        engine.addSeason(new Season("Holiday Season", java.time.MonthDay.of(12, 15), java.time.MonthDay.of(1, 5), 30, null));
+        engine.addSeason(new Season("Summer Peak", java.time.MonthDay.of(3, 15), java.time.MonthDay.of(5, 31), 15, null));
+        engine.addSeason(new Season("Rainy Season", java.time.MonthDay.of(7, 1), java.time.MonthDay.of(9, 30), -10, null));
+        return engine;
+    }
+    
+    // Add a season and rebuild the rate tables
+    public synchronized void addSeason(Season season) {
+        seasons.add(season);
+        tables = new Tables();
+    }
+    
+    // All seasons in declaration order (read-only)
+    public synchronized java.util.List<Season> seasons() {
+        return java.util.Collections.unmodifiableList(new java.util.ArrayList<>(seasons));
+    }
+    
+    // Price of the nights [checkinDay, checkoutDay) in a room, before offers (at least one night)
+    public double quote(Room room, int checkinDay, int checkoutDay) {
+        int checkout = Math.max(checkoutDay, checkinDay + 1);
+        double multipliers = tables.sum(room.getType(), checkinDay, checkout);
+        return roundToCents(room.getPrice() * multipliers * occupancyFactor(room.getType()));
+    }
+    
+    // Rate for a single night
+    public double nightlyRate(Room room, int day) {
+        return quote(room, day, day + 1);
+    }
+    
+    // Premium for a nearly full room type, from tonight's bookings
+    public double occupancyFactor(String type) {
+        int total = rooms.byType(type).size();
+        if (total == 0) {
+            return 1;
+        }
+        double occupied = forecast.occupiedRooms(type, RoomCalendar.today()) / (double) total;
+        if (occupied >= 0.9) {
+            return 1.20;
+        } else if (occupied >= 0.75) {
+            return 1.10;
+        }
+        return 1;
+    }
+    
+    private static double roundToCents(double amount) {
+        return Math.round(amount * 100) / 100.0;
+    }
+    
+    // Prefix sums of the nightly multipliers per room type over the date window
+    // Built under the engine's lock from a copy of the seasons, read without one
+    private class Tables {
+        private int origin;                                                       // Epoch day of prefix[0]
+        private java.util.Map<String, double[]> byType = new java.util.HashMap<>();
+        private double[] anyType;                                                 // For a room type no season names
+        private Season[] seasonList = seasons.toArray(new Season[0]);             // Seasons at build time
+        
+        Tables() {
+            origin = (int) java.time.LocalDate.now().minusYears(1).withDayOfYear(1).toEpochDay();
+            int end = (int) java.time.LocalDate.ofEpochDay(origin).plusYears(WINDOW_YEARS).toEpochDay();
+            
+            java.util.Set<String> types = new java.util.LinkedHashSet<>(java.util.Arrays.asList(RoomRepository.TYPES));
+            for (Season s : seasonList) {
+                if (s.getRoomType() != null) {
+                    types.add(s.getRoomType());
+                }
+            }
+            for (String type : types) {
+                byType.put(type, prefixSums(type, end));
+            }
+            anyType = prefixSums(null, end);
+        }
+        
+        // prefix[i] = total multiplier of the nights before origin + i
+        private double[] prefixSums(String type, int end) {
+            double[] prefix = new double[end - origin + 1];
+            for (int day = origin; day < end; day++) {
+                prefix[day - origin + 1] = prefix[day - origin] + multiplier(type, day);
+            }
+            return prefix;
+        }
+        
+        // Season and weekday multiplier for one night (1.0 = base price)
+        private double multiplier(String type, int day) {
+            java.time.LocalDate date = java.time.LocalDate.ofEpochDay(day);
+            int percent = 0;
+            for (Season s : seasonList) {
+                if (s.appliesTo(type) && s.covers(date)) {
+                    percent += s.getPercent();
+                    break;
+                }
+            }
+            java.time.DayOfWeek dow = date.getDayOfWeek();
+            if (dow == java.time.DayOfWeek.FRIDAY || dow == java.time.DayOfWeek.SATURDAY) {
+                percent += weekendPercent;
+            }
+            return 1 + percent / 100.0;
+        }
+        
+        // Total multiplier of the nights [from, to)
+        double sum(String type, int from, int to) {
+            double[] prefix = byType.get(type);
+            if (prefix == null) {
+                prefix = anyType;
+            }
+            if (from >= origin && to - origin < prefix.length) {
+                return prefix[to - origin] - prefix[from - origin];
+            }
+            double total = 0;   // Outside the window: add the nights one by one
+            for (int day = from; day < to; day++) {
+                total += multiplier(type, day);
+            }
+            return total;
+        }
+    }
+}
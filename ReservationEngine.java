@@ -0,0 +1,208 @@
+// RESERVATION ENGINE
+// Owns all bookings and blocks/frees room dates when they are booked or cancelled
+// Safe to call from several front desks (threads) at once:
+// - each room's calendar is its own lock (see RoomCalendar), so bookings for
+//   different rooms never wait on each other and a night can never be sold twice
+// - booking IDs come from an atomic counter, so they are never duplicated
+// - bookings are kept in a concurrent map sorted by ID (O(log n) lookup and cancel)
+// - each guest's bookings are also kept by username, so one guest's list never scans them all
+// - dashboard totals are kept up to date on every booking and cancellation (see DashboardStats)
+// - a column-by-column copy of the bookings is kept for reports that scan them all (see BookingColumns)
+// - rooms on the books for the coming year are kept per room type (see OccupancyForecast)
+// - views can register a Listener to hear about each booking and cancellation as it happens
+
+class ReservationEngine {
+    private RoomRepository rooms;
+    private java.util.concurrent.ConcurrentSkipListMap<Integer, Booking> bookings = new java.util.concurrent.ConcurrentSkipListMap<>();
+    // Username -> that guest's bookings sorted by ID; a guest's map stays once created (even if emptied)
+    // so a booking can never be put into a map that a cancel has just dropped
+    private java.util.concurrent.ConcurrentHashMap<String, java.util.concurrent.ConcurrentSkipListMap<Integer, Booking>> byUser = new java.util.concurrent.ConcurrentHashMap<>();
+    private java.util.concurrent.atomic.AtomicInteger lastId = new java.util.concurrent.atomic.AtomicInteger();
+    private Journal journal;   // Where bookings/cancellations are logged (null while replaying or if persistence is off)
+    private DashboardStats stats;
+    private BookingColumns columns;
+    private OccupancyForecast forecast;
+    private java.util.List<Listener> listeners = new java.util.concurrent.CopyOnWriteArrayList<>();
+    
+    // Told about every stored booking and cancellation, on the thread that made the change
+    interface Listener {
+        void bookingAdded(Booking b);
+        void bookingCancelled(Booking b);
+    }
+    
+    public ReservationEngine(RoomRepository rooms) {
+        this.rooms = rooms;
+        this.stats = new DashboardStats(rooms);
+        this.columns = new BookingColumns(rooms);
+        this.forecast = new OccupancyForecast(rooms, columns);
+    }
+    
+    // Running totals over all bookings (kept in step with add/cancel)
+    public DashboardStats stats() {
+        return stats;
+    }
+    
+    // Every booking stored column by column, for date-range reports (kept in step with add/cancel)
+    public BookingColumns columns() {
+        return columns;
+    }
+    
+    // Rooms booked per night for the coming year, per room type (kept in step with add/cancel)
+    public OccupancyForecast forecast() {
+        return forecast;
+    }
+    
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+    
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+    
+    // Atomically block [checkin, checkout) on the room; returns false if any night is taken
+    public boolean tryReserve(Room room, int checkin, int checkout) {
+        return room.reserve(checkin, checkout);
+    }
+    
+    // Free dates blocked with tryReserve() that will not become a booking after all
+    public void release(Room room, int checkin, int checkout) {
+        room.release(checkin, checkout);
+    }
+    
+    // Hand out the next unused booking ID
+    public int nextId() {
+        return lastId.incrementAndGet();
+    }
+    
+    // Highest booking ID handed out so far
+    public int lastId() {
+        return lastId.get();
+    }
+    
+    // Make sure IDs up to the given one are never handed out again (used when restoring saved data)
+    public void restoreLastId(int id) {
+        lastId.accumulateAndGet(id, Math::max);
+    }
+    
+    // Store a booking whose dates were already blocked with tryReserve()
+    // If it cannot be saved or applied, its dates are freed again and the exception is passed on
+    public void add(Booking b) {
+        if (journal != null) {
+            try {
+                journal.logBook(b);
+            } catch (RuntimeException e) {
+                releaseDates(b);   // Not saved, so do not keep the dates blocked either
+                throw e;
+            }
+        }
+        lastId.accumulateAndGet(b.getId(), Math::max);   // Never hand out an ID that is in use
+        int applied = 0;   // Steps done, for undoing them
+        try {
+            stats.bookingAdded(b);
+            applied = 1;
+            synchronized (forecast) {   // The forecast rebuilds from the columns, so both change together
+                columns.bookingAdded(b);
+                applied = 2;
+                forecast.bookingAdded(b);
+                applied = 3;
+                byUser.computeIfAbsent(b.getUsername(), u -> new java.util.concurrent.ConcurrentSkipListMap<>()).put(b.getId(), b);
+                applied = 4;
+                // Publish last: once get() finds the booking a cancel may run, and it must find the
+                // columns and forecast rows already written so it can clear them
+                bookings.put(b.getId(), b);
+            }
+        } catch (RuntimeException e) {
+            undoAdd(b, applied);
+            throw e;
+        }
+        for (Listener l : listeners) {
+            l.bookingAdded(b);
+        }
+    }
+    
+    // Remove a booking and free its dates; returns the cancelled booking, or null if not found
+    // If the cancellation cannot be saved, the booking is kept and the exception is passed on
+    public Booking cancel(int bookingId) {
+        Booking b = bookings.remove(bookingId);
+        if (b != null) {
+            if (journal != null) {
+                try {
+                    journal.logCancel(bookingId);
+                } catch (RuntimeException e) {
+                    bookings.put(bookingId, b);   // Not saved, so keep the booking
+                    throw e;
+                }
+            }
+            releaseDates(b);
+            stats.bookingCancelled(b);
+            synchronized (forecast) {
+                columns.bookingCancelled(b);
+                forecast.bookingCancelled(b);
+            }
+            byUser.get(b.getUsername()).remove(bookingId);
+            for (Listener l : listeners) {
+                l.bookingCancelled(b);
+            }
+        }
+        return b;
+    }
+    
+    // Take back the first `applied` steps of an add() that failed part way, free the dates and
+    // journal a cancellation so the booking does not come back on the next start either
+    private void undoAdd(Booking b, int applied) {
+        if (applied >= 4) {
+            byUser.get(b.getUsername()).remove(b.getId());
+        }
+        synchronized (forecast) {
+            if (applied >= 3) {
+                forecast.bookingCancelled(b);
+            }
+            if (applied >= 2) {
+                columns.bookingCancelled(b);
+            }
+        }
+        if (applied >= 1) {
+            stats.bookingCancelled(b);
+        }
+        releaseDates(b);
+        if (journal != null) {
+            try {
+                journal.logCancel(b.getId());
+            } catch (RuntimeException e) {
+                // The journal itself is failing; the caller is told about the original error
+            }
+        }
+    }
+    
+    private void releaseDates(Booking b) {
+        Room room = rooms.get(b.getRoomNumber());
+        if (room != null) {
+            room.release(b.getCheckinDay(), b.getCheckoutDay());
+        }
+    }
+    
+    // Find a booking by ID, or null if there is none
+    public Booking get(int bookingId) {
+        return bookings.get(bookingId);
+    }
+    
+    public int size() {
+        return bookings.size();
+    }
+    
+    // All bookings sorted by ID (read-only live view, safe to iterate while others book)
+    public java.util.Collection<Booking> all() {
+        return java.util.Collections.unmodifiableCollection(bookings.values());
+    }
+    
+    // One guest's bookings sorted by ID (read-only live view, empty if the guest has none)
+    public java.util.Collection<Booking> forUser(String username) {
+        java.util.concurrent.ConcurrentSkipListMap<Integer, Booking> mine = byUser.get(username);
+        return mine == null ? java.util.Collections.emptyList() : java.util.Collections.unmodifiableCollection(mine.values());
+    }
+}
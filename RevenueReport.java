@@ -0,0 +1,183 @@
+// REVENUE REPORT
+// Revenue and occupancy for a date range, by day, week or month and by room type
+// For every night in the range the report counts the room nights sold and the revenue
+// earned that night (each stay's price spread evenly over its nights), per room type.
+// From those it works out, per period:
+// - occupancy: nights sold / room nights available
+// - ADR (average daily rate): revenue / nights sold
+// - RevPAR (revenue per available room): revenue / room nights available
+// Building the per-night buckets scans the whole booking history in BookingColumns. The
+// scan is split by booking ID into fork-join tasks; each fills its own buckets and the
+// buckets are added together as the tasks finish, so the work spreads over every core.
+// Regrouping a built report (day/week/month, another room type) reuses the buckets.
+// Rooms available are today's rooms of each type; rooms added later count for the whole range.
+
+class RevenueReport {
+    enum Period { DAY, WEEK, MONTH }
+    
+    private static final int IDS_PER_TASK = BookingColumns.CHUNK_SIZE;   // Smallest part of the scan a task takes on
+    
+    private int fromDay, days;
+    private double[][] revenue;        // [room type][night - fromDay]; last row = rooms of a type not in RoomRepository.TYPES
+    private int[][] nightsSold;
+    private int[] roomsOfType;         // Rooms per type (indexed like RoomRepository.TYPES)
+    private int totalRooms;
+    
+    // One line of the report
+    static class Row {
+        final String label;
+        final long roomNightsAvailable;
+        final long nightsSold;
+        final double revenue;
+        
+        Row(String label, long roomNightsAvailable, long nightsSold, double revenue) {
+            this.label = label;
+            this.roomNightsAvailable = roomNightsAvailable;
+            this.nightsSold = nightsSold;
+            this.revenue = revenue;
+        }
+        
+        double occupancyPercent() {
+            return roomNightsAvailable == 0 ? 0 : nightsSold * 100.0 / roomNightsAvailable;
+        }
+        
+        double averageDailyRate() {
+            return nightsSold == 0 ? 0 : revenue / nightsSold;
+        }
+        
+        double revPar() {
+            return roomNightsAvailable == 0 ? 0 : revenue / roomNightsAvailable;
+        }
+    }
+    
+    private RevenueReport(int fromDay, int days, double[][] revenue, int[][] nightsSold, RoomRepository rooms) {
+        this.fromDay = fromDay;
+        this.days = days;
+        this.revenue = revenue;
+        this.nightsSold = nightsSold;
+        this.roomsOfType = new int[RoomRepository.TYPES.length];
+        for (int t = 0; t < roomsOfType.length; t++) {
+            roomsOfType[t] = rooms.byType(RoomRepository.TYPES[t]).size();
+        }
+        this.totalRooms = rooms.size();
+    }
+    
+    // Build the report for the nights [fromDay, toDay) from every booking on record
+    public static RevenueReport build(BookingColumns columns, RoomRepository rooms, int fromDay, int toDay) {
+        int days = Math.max(0, toDay - fromDay);
+        ScanTask scan = new ScanTask(columns, fromDay, days, 0, columns.limit());
+        Buckets b = java.util.concurrent.ForkJoinPool.commonPool().invoke(scan);
+        return new RevenueReport(fromDay, days, b.revenue, b.nights, rooms);
+    }
+    
+    // Rows for each period of the range, for one room type (null = all types)
+    // Weeks start on Monday and months on the 1st; the first and last period are cut to the range
+    public java.util.List<Row> rows(Period period, String type) {
+        int t = typeRow(type);
+        int rooms = roomsFor(t);
+        java.util.List<Row> rows = new java.util.ArrayList<>();
+        int start = 0;
+        while (start < days) {
+            java.time.LocalDate first = java.time.LocalDate.ofEpochDay(fromDay + start);
+            java.time.LocalDate next;
+            String label;
+            if (period == Period.DAY) {
+                next = first.plusDays(1);
+                label = first.toString();
+            } else if (period == Period.WEEK) {
+                next = first.plusDays(7 - (first.getDayOfWeek().getValue() - 1));
+                label = "Week of " + first;
+            } else {
+                next = first.withDayOfMonth(1).plusMonths(1);
+                label = first.getMonth().getDisplayName(java.time.format.TextStyle.SHORT, java.util.Locale.ENGLISH) + " " + first.getYear();
+            }
+            int end = (int) Math.min(days, next.toEpochDay() - fromDay);
+            rows.add(total(label, t, start, end, rooms));
+            start = end;
+        }
+        return rows;
+    }
+    
+    // The whole range as one row
+    public Row total(String type) {
+        int t = typeRow(type);
+        return total("Total", t, 0, days, roomsFor(t));
+    }
+    
+    // Bucket row of a room type: -1 for all types, the last row for a type not in RoomRepository.TYPES
+    private int typeRow(String type) {
+        if (type == null) {
+            return -1;
+        }
+        int t = java.util.Arrays.asList(RoomRepository.TYPES).indexOf(type);
+        return t >= 0 ? t : revenue.length - 1;
+    }
+    
+    private int roomsFor(int t) {
+        return t < 0 ? totalRooms : t < roomsOfType.length ? roomsOfType[t] : 0;
+    }
+    
+    // Sum of nights [start, end) of the range for type t (-1 = all types)
+    private Row total(String label, int t, int start, int end, int rooms) {
+        long sold = 0;
+        double earned = 0;
+        for (int row = 0; row < revenue.length; row++) {
+            if (t < 0 || row == t) {
+                for (int d = start; d < end; d++) {
+                    sold += nightsSold[row][d];
+                    earned += revenue[row][d];
+                }
+            }
+        }
+        return new Row(label, (long) rooms * (end - start), sold, earned);
+    }
+    
+    // Per-night buckets for part of the booking history
+    private static class Buckets {
+        final double[][] revenue;
+        final int[][] nights;
+        
+        Buckets(int days) {
+            revenue = new double[RoomRepository.TYPES.length + 1][days];
+            nights = new int[RoomRepository.TYPES.length + 1][days];
+        }
+        
+        Buckets add(Buckets other) {
+            for (int t = 0; t < revenue.length; t++) {
+                for (int d = 0; d < revenue[t].length; d++) {
+                    revenue[t][d] += other.revenue[t][d];
+                    nights[t][d] += other.nights[t][d];
+                }
+            }
+            return this;
+        }
+    }
+    
+    // Scans booking IDs [firstId, endId): halves the range until it is small, then fills buckets
+    private static class ScanTask extends java.util.concurrent.RecursiveTask<Buckets> {
+        private BookingColumns columns;
+        private int fromDay, days, firstId, endId;
+        
+        ScanTask(BookingColumns columns, int fromDay, int days, int firstId, int endId) {
+            this.columns = columns;
+            this.fromDay = fromDay;
+            this.days = days;
+            this.firstId = firstId;
+            this.endId = endId;
+        }
+        
+        @Override
+        protected Buckets compute() {
+            if (endId - firstId <= IDS_PER_TASK) {
+                Buckets b = new Buckets(days);
+                columns.addNights(fromDay, fromDay + days, firstId, endId, b.revenue, b.nights);
+                return b;
+            }
+            int mid = (firstId + endId) >>> 1;
+            ScanTask left = new ScanTask(columns, fromDay, days, firstId, mid);
+            left.fork();
+            Buckets right = new ScanTask(columns, fromDay, days, mid, endId).compute();
+            return left.join().add(right);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+// REVENUE REPORT BENCHMARK
+// How long the Reports tab takes to build a year's revenue and occupancy report from a big booking history
+// Usage: java RevenueReportBenchmark [bookings] [rounds]
+//   defaults: 1000000 5
+// Builds `bookings` random stays of 1-7 nights over three years on 200 rooms, 5% of them cancelled,
+// both in a BookingColumns store and as a List<Booking> of the live ones (shuffled, like
+// ColumnScanBenchmark), then reports on the middle year:
+//   build      RevenueReport.build(): the column scan split into fork-join tasks over every core
+//   one task   the same column scan (BookingColumns.addNights) on the calling thread only
+//   objects    the per-night buckets filled from the Booking objects in one loop
+//   regroup    rows() by month for every room type from an already built report (no rescan)
+// The first round is warm-up and not counted; the table shows the median of the other rounds
+// and whether each way came to the same totals as build().
+
+class RevenueReportBenchmark {
+    private static final int ROOMS = 200;
+    private static final int CANCEL_PERCENT = 5;
+    
+    private RoomRepository rooms = new RoomRepository();
+    private BookingColumns columns = new BookingColumns(rooms);
+    private java.util.List<Booking> live = new java.util.ArrayList<>();
+    private int fromDay, toDay;   // The year being reported
+    private String[] types = RoomRepository.TYPES;
+    private long sink;            // Rows are counted here so the JIT cannot drop the regrouping
+    
+    public RevenueReportBenchmark(int count) {
+        for (int i = 0; i < ROOMS; i++) {
+            rooms.add(new Room(101 + i, "Report Room " + (i + 1), 1000 + 250 * (i % 8), 1 + i % 4, types[i % types.length]));
+        }
+        java.util.Random random = new java.util.Random(11);
+        int firstDay = RoomCalendar.today() - 365;
+        fromDay = firstDay + 365;
+        toDay = fromDay + 365;
+        for (int id = 1; id <= count; id++) {
+            int checkin = firstDay + random.nextInt(3 * 365);
+            Booking b = new Booking(id, "guest" + random.nextInt(1000), 101 + random.nextInt(ROOMS), checkin, checkin + 1 + random.nextInt(7),
+                1 + random.nextInt(4), 1000 + random.nextInt(4000), "Cash", (byte) 28, (byte) 24);
+            if (random.nextInt(10) == 0) {
+                b.applyDiscount(10, "Benchmark Offer");
+            }
+            columns.bookingAdded(b);
+            if (random.nextInt(100) < CANCEL_PERCENT) {
+                columns.bookingCancelled(b);
+            } else {
+                live.add(b);
+            }
+        }
+        java.util.Collections.shuffle(live, random);
+    }
+    
+    // {nights sold, revenue} over the year for all types, from a finished report
+    private static double[] totals(RevenueReport report) {
+        RevenueReport.Row total = report.total(null);
+        return new double[]{total.nightsSold, total.revenue};
+    }
+    
+    private static double[] totals(double[][] revenue, int[][] nights) {
+        double sold = 0, earned = 0;
+        for (int t = 0; t < revenue.length; t++) {
+            for (int d = 0; d < revenue[t].length; d++) {
+                sold += nights[t][d];
+                earned += revenue[t][d];
+            }
+        }
+        return new double[]{sold, earned};
+    }
+    
+    private double[] build() {
+        return totals(RevenueReport.build(columns, rooms, fromDay, toDay));
+    }
+    
+    private double[] oneTask() {
+        double[][] revenue = new double[types.length + 1][toDay - fromDay];
+        int[][] nights = new int[types.length + 1][toDay - fromDay];
+        columns.addNights(fromDay, toDay, 0, columns.limit(), revenue, nights);
+        return totals(revenue, nights);
+    }
+    
+    private double[] objects() {
+        double[][] revenue = new double[types.length + 1][toDay - fromDay];
+        int[][] nights = new int[types.length + 1][toDay - fromDay];
+        for (Booking b : live) {
+            int ci = b.getCheckinDay();
+            int stay = (int) b.getNumberOfNights();
+            if (ci < toDay && ci + stay > fromDay) {
+                Room r = rooms.get(b.getRoomNumber());
+                int t = r == null ? -1 : BookingColumns.typeCode(r.getType());
+                t = t >= 0 ? t : types.length;
+                double perNight = b.getTotalPrice() / stay;
+                for (int day = Math.max(ci, fromDay), stop = Math.min(ci + stay, toDay); day < stop; day++) {
+                    nights[t][day - fromDay]++;
+                    revenue[t][day - fromDay] += perNight;
+                }
+            }
+        }
+        return totals(revenue, nights);
+    }
+    
+    // Every month row for all types and each type, as the Reports tab does when the grouping changes
+    private double[] regroup(RevenueReport report) {
+        sink += report.rows(RevenueReport.Period.MONTH, null).size();
+        for (String type : types) {
+            sink += report.rows(RevenueReport.Period.MONTH, type).size();
+        }
+        return totals(report);
+    }
+    
+    // Sums of doubles differ in the last digits when added in another order
+    private static boolean same(double[] a, double[] b) {
+        return a[0] == b[0] && Math.abs(a[1] - b[1]) <= 1e-9 * Math.abs(a[1]) + 0.01;
+    }
+    
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        java.util.Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+    
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        long start = System.nanoTime();
+        RevenueReportBenchmark bench = new RevenueReportBenchmark(count);
+        RevenueReport built = RevenueReport.build(bench.columns, bench.rooms, bench.fromDay, bench.toDay);
+        System.out.printf("Built %,d bookings (%,d live) in %.1f s; %d cores; median of %d rounds after warm-up%n",
+            count, bench.live.size(), (System.nanoTime() - start) / 1e9, Runtime.getRuntime().availableProcessors(), rounds);
+        
+        String[] ways = {"build", "one task", "objects", "regroup"};
+        double[][] times = new double[ways.length][rounds];
+        double[][] results = new double[ways.length][];
+        for (int r = 0; r <= rounds; r++) {
+            for (int w = 0; w < ways.length; w++) {
+                long began = System.nanoTime();
+                results[w] = w == 0 ? bench.build() : w == 1 ? bench.oneTask() : w == 2 ? bench.objects() : bench.regroup(built);
+                if (r > 0) {   // Round 0 warms up the JIT
+                    times[w][r - 1] = (System.nanoTime() - began) / 1e6;
+                }
+            }
+        }
+        System.out.printf("%-9s %10s %14s %18s  %s%n", "report", "ms", "nights sold", "revenue", "totals");
+        for (int w = 0; w < ways.length; w++) {
+            System.out.printf("%-9s %10.1f %,14.0f %,18.2f  %s%n", ways[w], median(times[w]), results[w][0], results[w][1],
+                same(results[w], results[0]) ? "match" : "DIFFER");
+        }
+    }
+}
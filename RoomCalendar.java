@@ -0,0 +1,183 @@
+// ROOM CALENDAR
+// Per-room index of booked date ranges
+// Each stay is stored as a half-open range of epoch days [check-in, check-out)
+// Ranges never overlap, so both the start and end arrays stay sorted and
+// "is this room free between ci and co?" is a single binary search
+// Every method locks only this calendar, so each room is its own lock and
+// reserve() is an atomic check-and-book
+// Alongside the ranges, BITMAP_DAYS nights from bitmapOrigin() on are kept as a bitmap (one bit
+// per night, 64 nights per long), so flexible-date searches can test a whole year of nights
+// with a few word operations instead of one range lookup per candidate date. The origin is
+// today rounded down to a whole word, so every 64 days it moves on by one word: the next
+// search shifts the words down and fills the newly covered nights from the ranges.
+
+class RoomCalendar {
+    private int[] starts = new int[4];   // Check-in epoch days, sorted ascending
+    private int[] ends = new int[4];     // Check-out epoch days, same order as starts
+    private int size;                    // Number of booked ranges
+    
+    static final int BITMAP_WORDS = 8;          // 512 nights: at least 448 ahead of today, well over a year
+    static final int BITMAP_DAYS = BITMAP_WORDS * 64;
+    private static volatile int lastOrigin = bitmapOrigin();   // Latest bitmapOrigin(); new calendars start there (reading the clock per room is slow)
+    private int bitmapOrigin = lastOrigin;                  // Night of bit 0 of this calendar's bitmap
+    private long[] bookedNights = new long[BITMAP_WORDS];   // Bit set = night booked
+    
+    // Convert a "yyyy-MM-dd" date string into an epoch day
+    // Reads the digits directly; anything unusual goes through LocalDate.parse for the proper error
+    public static int toEpochDay(String date) {
+        if (date.length() == 10 && date.charAt(4) == '-' && date.charAt(7) == '-') {
+            int y = digits(date, 0, 4), m = digits(date, 5, 7), d = digits(date, 8, 10);
+            if (y >= 0 && m >= 1 && m <= 12 && d >= 1 && d <= java.time.YearMonth.of(y, m).lengthOfMonth()) {
+                return (int) java.time.LocalDate.of(y, m, d).toEpochDay();
+            }
+        }
+        return (int) java.time.LocalDate.parse(date).toEpochDay();
+    }
+    
+    // Value of the decimal digits in [from, to), or -1 if any character is not a digit
+    private static int digits(String s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+    
+    // Epoch day for the current date (used for "occupied tonight" checks)
+    public static int today() {
+        return (int) java.time.LocalDate.now().toEpochDay();
+    }
+    
+    // Night of bit 0 of the current bitmap window: today, rounded down to a multiple of 64 nights
+    public static int bitmapOrigin() {
+        int today = today();
+        return lastOrigin = today - Math.floorMod(today, 64);
+    }
+    
+    // Check if no booked range overlaps [checkin, checkout)
+    public synchronized boolean isFree(int checkin, int checkout) {
+        int i = lastStartBefore(checkout);
+        return i < 0 || ends[i] <= checkin;
+    }
+    
+    // Check if the room is occupied on the given night
+    public synchronized boolean isOccupied(int day) {
+        return !isFree(day, day + 1);
+    }
+    
+    // Record a stay; returns false (and changes nothing) if it overlaps an existing one
+    public synchronized boolean reserve(int checkin, int checkout) {
+        if (checkout <= checkin || !isFree(checkin, checkout)) {
+            return false;
+        }
+        if (size == starts.length) {
+            starts = java.util.Arrays.copyOf(starts, size * 2);
+            ends = java.util.Arrays.copyOf(ends, size * 2);
+        }
+        int pos = lastStartBefore(checkout) + 1;
+        System.arraycopy(starts, pos, starts, pos + 1, size - pos);
+        System.arraycopy(ends, pos, ends, pos + 1, size - pos);
+        starts[pos] = checkin;
+        ends[pos] = checkout;
+        size++;
+        markNights(checkin, checkout, true);
+        return true;
+    }
+    
+    // Remove a stay that was previously reserved; returns false if it was not found
+    public synchronized boolean release(int checkin, int checkout) {
+        int pos = java.util.Arrays.binarySearch(starts, 0, size, checkin);
+        if (pos < 0 || ends[pos] != checkout) {
+            return false;
+        }
+        System.arraycopy(starts, pos + 1, starts, pos, size - pos - 1);
+        System.arraycopy(ends, pos + 1, ends, pos, size - pos - 1);
+        size--;
+        markNights(checkin, checkout, false);
+        return true;
+    }
+    
+    // Copy the booked-night bitmap for BITMAP_DAYS nights from origin (a bitmapOrigin() value)
+    // into dest (BITMAP_WORDS longs), moving this calendar's window there first if needed
+    public synchronized void copyBookedNights(int origin, long[] dest) {
+        if (origin != bitmapOrigin) {
+            moveBitmap(origin);
+        }
+        System.arraycopy(bookedNights, 0, dest, 0, BITMAP_WORDS);
+    }
+    
+    // Start the bitmap at a new origin: words that stay in the window are shifted down and
+    // only the nights that were not covered before are filled in from the ranges
+    private void moveBitmap(int origin) {
+        int shift = origin - bitmapOrigin;
+        int words = shift / 64;
+        int filledTo;   // Nights before this are already in the shifted bitmap
+        if (shift > 0 && shift % 64 == 0 && words < BITMAP_WORDS) {
+            System.arraycopy(bookedNights, words, bookedNights, 0, BITMAP_WORDS - words);
+            java.util.Arrays.fill(bookedNights, BITMAP_WORDS - words, BITMAP_WORDS, 0);
+            filledTo = bitmapOrigin + BITMAP_DAYS;
+        } else {
+            java.util.Arrays.fill(bookedNights, 0);   // Moved back, or past the whole window: start over
+            filledTo = origin;
+        }
+        bitmapOrigin = origin;
+        for (int i = Math.max(0, lastStartBefore(filledTo)); i < size && starts[i] < origin + BITMAP_DAYS; i++) {
+            markNights(starts[i], ends[i], true);
+        }
+    }
+    
+    // Set or clear the bits of the nights [checkin, checkout) that fall inside the bitmap
+    private void markNights(int checkin, int checkout, boolean booked) {
+        int from = Math.max(checkin - bitmapOrigin, 0), to = Math.min(checkout - bitmapOrigin, BITMAP_DAYS);
+        for (int bit = from; bit < to; bit++) {
+            if (booked) {
+                bookedNights[bit >>> 6] |= 1L << bit;
+            } else {
+                bookedNights[bit >>> 6] &= ~(1L << bit);
+            }
+        }
+    }
+    
+    // Given a booked-night bitmap, set in `starts` the bit of every night that begins `nights`
+    // free nights in a row; nights past the end of the bitmap count as unknown (not free)
+    // Works a word at a time: a start is good if it is free and so is the night 1, 2, ... later
+    static void freeRunStarts(long[] booked, int nights, long[] starts) {
+        long[] free = new long[BITMAP_WORDS];
+        for (int i = 0; i < BITMAP_WORDS; i++) {
+            free[i] = ~booked[i];
+            starts[i] = free[i];
+        }
+        for (int k = 1; k < nights; k++) {
+            int words = k >>> 6, shift = k & 63;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                // Bits of `free` moved down by k: bit d of this word becomes night d + k
+                long lo = i + words < BITMAP_WORDS ? free[i + words] : 0;
+                long hi = i + words + 1 < BITMAP_WORDS ? free[i + words + 1] : 0;
+                starts[i] &= shift == 0 ? lo : (lo >>> shift) | (hi << (64 - shift));
+            }
+        }
+    }
+    
+    // Number of booked ranges held for this room
+    public synchronized int size() {
+        return size;
+    }
+    
+    // Index of the last range whose check-in is before the given day, or -1 if none
+    private int lastStartBefore(int day) {
+        int lo = 0, hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] < day) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return hi;
+    }
+}
@@ -0,0 +1,233 @@
+// ROOM CARD LIST
+// Scrolling list of room cards that only paints the rows on screen
+// Works like a JList: instead of one panel tree per room, a single row of
+// reusable cards is refilled and stamped for each visible row, so the memory and
+// layout cost stay the same whether the hotel has 20 rooms or 20,000.
+// Rows are either a section header (e.g. "Deluxe Rooms (12)") or up to
+// `columns` room cards side by side; rows are computed on demand from the room lists.
+// Buttons drawn on a card are real buttons only while painting, so clicks are
+// routed by hit-testing the row under the mouse (see buttonTarget).
+
+import java.awt.*;
+import javax.swing.*;
+
+class RoomCardList extends JList<RoomCardList.Row> {
+    private static final int HEADER_HEIGHT = 55;
+    private static final int MIN_WIDTH = 400;
+    private static final Font HEADER_FONT = new Font("Segoe UI", Font.BOLD, 16);
+    
+    private int columns;
+    private int rowHeight;
+    private Card[] cards;              // One reusable card per column
+    private JPanel rowPanel;           // Renderer for a row of cards
+    private Row pendingRow;            // Row the renderer was last asked for (cards are filled when it paints)
+    private JLabel headerLabel;        // Renderer for a section header
+    private RowModel rows = new RowModel();
+    private java.util.function.Consumer<Room> buttonAction;   // Called when a card's button is clicked
+    
+    // A card that can be refilled for any room; one instance is reused for every row
+    abstract static class Card extends JPanel {
+        abstract void showRoom(Room r);
+    }
+    
+    // One line of the list: a section header or a row of rooms
+    static class Row {
+        final String header;                 // Section title, or null for a row of cards
+        final java.util.List<Room> rooms;    // Rooms on this row (empty for a header)
+        
+        Row(String header, java.util.List<Room> rooms) {
+            this.header = header;
+            this.rooms = rooms;
+        }
+    }
+    
+    public RoomCardList(int columns, int cardHeight, java.util.function.Supplier<? extends Card> cardFactory) {
+        this.columns = columns;
+        this.rowHeight = cardHeight + 20;
+        setModel(rows);
+        setBackground(Color.WHITE);
+        setFocusable(false);   // Cards are never drawn as selected, so there is no selection to move
+        
+        // Rows report a fixed size, so JList can lay out thousands of them without measuring cards
+        // JList still asks the renderer for every row when it lays out, so the cards are only
+        // filled in when a row is really painted
+        rowPanel = new JPanel(new GridLayout(1, columns, 20, 0)) {
+            @Override
+            public Dimension getPreferredSize() {
+                return new Dimension(MIN_WIDTH, rowHeight);
+            }
+            
+            @Override
+            public void paint(Graphics g) {
+                fillCards();
+                super.paint(g);
+            }
+        };
+        rowPanel.setBackground(Color.WHITE);
+        rowPanel.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 20));
+        cards = new Card[columns];
+        for (int i = 0; i < columns; i++) {
+            cards[i] = cardFactory.get();
+            rowPanel.add(cards[i]);
+        }
+        
+        headerLabel = new JLabel() {
+            @Override
+            public Dimension getPreferredSize() {
+                return new Dimension(MIN_WIDTH, HEADER_HEIGHT);
+            }
+        };
+        headerLabel.setOpaque(true);
+        headerLabel.setFont(HEADER_FONT);
+        headerLabel.setForeground(Color.WHITE);
+        headerLabel.setBackground(SerenitySuitesHMS.PRIMARY);
+        headerLabel.setBorder(BorderFactory.createEmptyBorder(15, 20, 15, 20));
+        
+        setCellRenderer((list, row, index, isSelected, hasFocus) -> {
+            if (row.header != null) {
+                headerLabel.setText(row.header);
+                return headerLabel;
+            }
+            pendingRow = row;
+            return rowPanel;
+        });
+        
+        // Clicks and the hand cursor for the buttons painted on the cards
+        java.awt.event.MouseAdapter mouse = new java.awt.event.MouseAdapter() {
+            @Override
+            public void mouseClicked(java.awt.event.MouseEvent e) {
+                Room r = buttonTarget(e.getPoint());
+                if (r != null && buttonAction != null) {
+                    buttonAction.accept(r);
+                }
+            }
+            
+            @Override
+            public void mouseMoved(java.awt.event.MouseEvent e) {
+                setCursor(buttonTarget(e.getPoint()) != null ? Cursor.getPredefinedCursor(Cursor.HAND_CURSOR) : Cursor.getDefaultCursor());
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+    }
+    
+    // Refill the reusable cards with the rooms of the row about to be painted
+    private void fillCards() {
+        for (int i = 0; i < columns; i++) {
+            boolean used = i < pendingRow.rooms.size();
+            cards[i].setVisible(used);
+            if (used) {
+                cards[i].showRoom(pendingRow.rooms.get(i));
+            }
+        }
+    }
+    
+    // What to do when the button on a room's card is clicked
+    public void setButtonAction(java.util.function.Consumer<Room> action) {
+        this.buttonAction = action;
+    }
+    
+    // Show rooms grouped under headers (headers and groups are matched by position; a null header shows no header row)
+    public void setSections(java.util.List<String> headers, java.util.List<java.util.List<Room>> groups) {
+        rows.set(headers, groups);
+    }
+    
+    // Show a single list of rooms without any header
+    public void setRooms(java.util.List<Room> rooms) {
+        rows.set(java.util.Collections.singletonList(null), java.util.Collections.singletonList(rooms));
+    }
+    
+    public void clear() {
+        rows.set(java.util.Collections.emptyList(), java.util.Collections.emptyList());
+    }
+    
+    // The room whose card button is under the point, or null
+    // Lays out the row renderer at that row's size and looks for a button inside it
+    private Room buttonTarget(Point p) {
+        int index = locationToIndex(p);
+        Rectangle cell = index < 0 ? null : getCellBounds(index, index);
+        if (cell == null || !cell.contains(p)) {
+            return null;
+        }
+        Row row = rows.getElementAt(index);
+        if (row.header != null) {
+            return null;
+        }
+        Component c = getCellRenderer().getListCellRendererComponent(this, row, index, false, false);
+        fillCards();
+        c.setBounds(0, 0, cell.width, cell.height);
+        layoutTree(c);
+        Component hit = SwingUtilities.getDeepestComponentAt(c, p.x - cell.x, p.y - cell.y);
+        if (!(hit instanceof AbstractButton)) {
+            return null;
+        }
+        for (int i = 0; i < row.rooms.size(); i++) {
+            if (SwingUtilities.isDescendingFrom(hit, cards[i])) {
+                return row.rooms.get(i);
+            }
+        }
+        return null;
+    }
+    
+    private static void layoutTree(Component c) {
+        if (c instanceof Container) {
+            ((Container) c).doLayout();
+            for (Component child : ((Container) c).getComponents()) {
+                layoutTree(child);
+            }
+        }
+    }
+    
+    // List model that maps a row index to a header or a slice of a room list, without copying the rooms
+    private class RowModel extends AbstractListModel<Row> {
+        private java.util.List<String> headers = java.util.Collections.emptyList();
+        private java.util.List<java.util.List<Room>> groups = java.util.Collections.emptyList();
+        private int[] firstRow = new int[0];   // Index of each section's first row
+        private int size;
+        
+        void set(java.util.List<String> headers, java.util.List<java.util.List<Room>> groups) {
+            int oldSize = size;
+            this.headers = headers;
+            this.groups = groups;
+            firstRow = new int[groups.size()];
+            size = 0;
+            for (int s = 0; s < groups.size(); s++) {
+                firstRow[s] = size;
+                size += (headers.get(s) != null ? 1 : 0) + (groups.get(s).size() + columns - 1) / columns;
+            }
+            if (oldSize > 0) {
+                fireIntervalRemoved(this, 0, oldSize - 1);
+            }
+            if (size > 0) {
+                fireIntervalAdded(this, 0, size - 1);
+            }
+        }
+        
+        @Override
+        public int getSize() {
+            return size;
+        }
+        
+        @Override
+        public Row getElementAt(int index) {
+            // Last section starting at or before this row
+            int s = java.util.Arrays.binarySearch(firstRow, index);
+            if (s < 0) {
+                s = -s - 2;
+            }
+            while (s + 1 < firstRow.length && firstRow[s + 1] == index) {
+                s++;   // Skip empty sections that start at the same row
+            }
+            int local = index - firstRow[s];
+            if (headers.get(s) != null) {
+                if (local == 0) {
+                    return new Row(headers.get(s), java.util.Collections.emptyList());
+                }
+                local--;
+            }
+            java.util.List<Room> group = groups.get(s);
+            int from = local * columns;
+            return new Row(null, group.subList(from, Math.min(from + columns, group.size())));
+        }
+    }
+}
@@ -0,0 +1,288 @@
+// ROOM REPOSITORY
+// Holds every hotel room together with the lookup indexes used by the panels
+// - by room number (hash map, O(1) lookup and duplicate check)
+// - by room type (one list per type, kept sorted by room number)
+// - by capacity and by nightly price (sorted maps for range queries)
+// - a composite search index: room type -> capacity -> nightly price -> rooms, plus the
+//   same tree over all types, so search() only visits rooms of the right type and size,
+//   already in price order, and only has to check each one's calendar for the dates
+// - the same index drives flexible-date searches (cheapestByStartDay), which test each
+//   room's night bitmap for every possible check-in day at once
+// All rooms must be added through add() so the indexes stay in sync (and the room is journaled)
+// Rooms are added rarely and read constantly (also from background searches), so
+// the lists are copy-on-write: readers never lock and always see a complete list
+
+class RoomRepository {
+    // Room types in the order they are displayed
+    static final String[] TYPES = {"Standard", "Deluxe", "Executive", "Suite", "Family"};
+    
+    private java.util.Map<Integer, Room> byNumber = new java.util.concurrent.ConcurrentHashMap<>();
+    private java.util.List<Room> ordered = new java.util.concurrent.CopyOnWriteArrayList<>();   // All rooms sorted by room number
+    private java.util.Map<String, java.util.List<Room>> byType = new java.util.concurrent.ConcurrentHashMap<>();
+    private java.util.concurrent.ConcurrentSkipListMap<Integer, java.util.List<Room>> byCapacity = new java.util.concurrent.ConcurrentSkipListMap<>();
+    private java.util.concurrent.ConcurrentSkipListMap<Double, java.util.List<Room>> byPrice = new java.util.concurrent.ConcurrentSkipListMap<>();
+    private java.util.Map<String, java.util.concurrent.ConcurrentSkipListMap<Integer, java.util.concurrent.ConcurrentSkipListMap<Double, java.util.List<Room>>>> searchIndex =
+        new java.util.concurrent.ConcurrentHashMap<>();   // Room type (or ANY_TYPE) -> capacity -> price -> rooms
+    private static final String ANY_TYPE = "";
+    private Journal journal;   // Where new rooms are logged (null while replaying or if persistence is off)
+    private EventBus events;   // Told about each new room (null while replaying)
+    
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+    
+    public void setEventBus(EventBus events) {
+        this.events = events;
+    }
+    
+    // Add a room to all indexes; returns false if the room number is already taken
+    public synchronized boolean add(Room r) {
+        if (byNumber.containsKey(r.getRoomNumber())) {
+            return false;
+        }
+        if (journal != null) {
+            journal.logAddRoom(r);
+        }
+        byNumber.put(r.getRoomNumber(), r);
+        insertSorted(ordered, r);
+        insertSorted(byType.computeIfAbsent(r.getType(), t -> new java.util.concurrent.CopyOnWriteArrayList<>()), r);
+        insertSorted(byCapacity.computeIfAbsent(r.getCapacity(), c -> new java.util.concurrent.CopyOnWriteArrayList<>()), r);
+        insertSorted(byPrice.computeIfAbsent(r.getPrice(), p -> new java.util.concurrent.CopyOnWriteArrayList<>()), r);
+        addToSearchIndex(r.getType(), r);
+        addToSearchIndex(ANY_TYPE, r);
+        if (events != null) {
+            events.publish(new EventBus.RoomAdded(r));
+        }
+        return true;
+    }
+    
+    // Add many rooms at once (loading saved data); numbers already taken are skipped
+    // add() copies every index list it touches once per room, which is quadratic for a whole hotel;
+    // here each list is extended and re-sorted once for the batch. Meant for loading: a reader
+    // running at the same time may see the new rooms out of order until it returns.
+    public synchronized void addAll(java.util.Collection<Room> rooms) {
+        java.util.Map<java.util.List<Room>, java.util.List<Room>> batches = new java.util.IdentityHashMap<>();   // Index list -> rooms for it
+        java.util.List<Room> added = new java.util.ArrayList<>();
+        for (Room r : rooms) {
+            if (byNumber.containsKey(r.getRoomNumber())) {
+                continue;
+            }
+            if (journal != null) {
+                journal.logAddRoom(r);
+            }
+            byNumber.put(r.getRoomNumber(), r);
+            added.add(r);
+            batches.computeIfAbsent(ordered, l -> new java.util.ArrayList<>()).add(r);
+            batches.computeIfAbsent(byType.computeIfAbsent(r.getType(), t -> new java.util.concurrent.CopyOnWriteArrayList<>()), l -> new java.util.ArrayList<>()).add(r);
+            batches.computeIfAbsent(byCapacity.computeIfAbsent(r.getCapacity(), c -> new java.util.concurrent.CopyOnWriteArrayList<>()), l -> new java.util.ArrayList<>()).add(r);
+            batches.computeIfAbsent(byPrice.computeIfAbsent(r.getPrice(), p -> new java.util.concurrent.CopyOnWriteArrayList<>()), l -> new java.util.ArrayList<>()).add(r);
+            batches.computeIfAbsent(searchList(r.getType(), r), l -> new java.util.ArrayList<>()).add(r);
+            batches.computeIfAbsent(searchList(ANY_TYPE, r), l -> new java.util.ArrayList<>()).add(r);
+        }
+        for (java.util.Map.Entry<java.util.List<Room>, java.util.List<Room>> batch : batches.entrySet()) {
+            batch.getKey().addAll(batch.getValue());
+            batch.getKey().sort(java.util.Comparator.comparingInt(Room::getRoomNumber));
+        }
+        if (events != null) {
+            for (Room r : added) {
+                events.publish(new EventBus.RoomAdded(r));
+            }
+        }
+    }
+    
+    // Find a room by its number, or null if there is none
+    public Room get(int roomNumber) {
+        return byNumber.get(roomNumber);
+    }
+    
+    public boolean contains(int roomNumber) {
+        return byNumber.containsKey(roomNumber);
+    }
+    
+    public int size() {
+        return ordered.size();
+    }
+    
+    // All rooms sorted by room number (read-only view)
+    public java.util.List<Room> all() {
+        return java.util.Collections.unmodifiableList(ordered);
+    }
+    
+    // Rooms of one type sorted by room number (read-only view, empty if the type has no rooms)
+    public java.util.List<Room> byType(String type) {
+        java.util.List<Room> list = byType.get(type);
+        return list == null ? java.util.Collections.emptyList() : java.util.Collections.unmodifiableList(list);
+    }
+    
+    // Rooms that can hold at least the given number of guests, smallest capacity first
+    public java.util.List<Room> withCapacityAtLeast(int guests) {
+        java.util.List<Room> result = new java.util.ArrayList<>();
+        for (java.util.List<Room> list : byCapacity.tailMap(guests, true).values()) {
+            result.addAll(list);
+        }
+        return result;
+    }
+    
+    // Rooms whose nightly price is within [min, max], cheapest first
+    public java.util.List<Room> inPriceRange(double min, double max) {
+        java.util.List<Room> result = new java.util.ArrayList<>();
+        if (min > max) {
+            return result;
+        }
+        for (java.util.List<Room> list : byPrice.subMap(min, true, max, true).values()) {
+            result.addAll(list);
+        }
+        return result;
+    }
+    
+    // Available rooms matching every criterion, cheapest first (same price: by room number)
+    // type null = any type; checkin/checkout are epoch days [checkin, checkout); a room must hold
+    // both the guests and minCapacity; the price range applies to the base nightly price
+    // Stops after `limit` rooms: results come out in price order, so these are the cheapest ones
+    public java.util.List<Room> search(String type, int checkin, int checkout, int guests, double minPrice, double maxPrice, int minCapacity, int limit) {
+        java.util.List<Room> result = new java.util.ArrayList<>();
+        if (limit <= 0) {
+            return result;
+        }
+        visitByPrice(type, Math.max(guests, minCapacity), minPrice, maxPrice, r -> {
+            if (r.isAvailable(checkin, checkout)) {
+                result.add(r);
+            }
+            return result.size() < limit;
+        });
+        return result;
+    }
+    
+    // Cheapest room for every check-in day of a flexible stay: `nights` nights in a row, checking in
+    // on or after `from` and checking out by `to` (epoch days), for rooms of the type that hold the guests
+    // Entry i is the room for check-in day from + i, or null if no room is free then; only nights
+    // inside the calendars' bitmap window (RoomCalendar.bitmapOrigin() on) can be offered
+    // Rooms are visited cheapest first and each one fills every start day it is free for at once,
+    // so the search stops as soon as every start day has a room
+    public Room[] cheapestByStartDay(String type, int from, int to, int nights, int guests) {
+        Room[] result = new Room[Math.max(0, to - nights - from + 1)];
+        int origin = RoomCalendar.bitmapOrigin();   // One window for the whole search, even across midnight
+        int first = Math.max(from - origin, 0);
+        int last = Math.min(to - nights - origin, RoomCalendar.BITMAP_DAYS - 1);
+        if (nights <= 0 || first > last) {
+            return result;
+        }
+        
+        // Start days still without a room, as bits relative to origin
+        long[] open = new long[RoomCalendar.BITMAP_WORDS];
+        for (int bit = first; bit <= last; bit++) {
+            open[bit >>> 6] |= 1L << bit;
+        }
+        long[] booked = new long[RoomCalendar.BITMAP_WORDS];
+        long[] starts = new long[RoomCalendar.BITMAP_WORDS];
+        visitByPrice(type, guests, 0, Double.MAX_VALUE, r -> {
+            r.getCalendar().copyBookedNights(origin, booked);
+            RoomCalendar.freeRunStarts(booked, nights, starts);
+            boolean anyOpen = false;
+            for (int i = 0; i < RoomCalendar.BITMAP_WORDS; i++) {
+                long hits = starts[i] & open[i];
+                open[i] &= ~hits;
+                while (hits != 0) {
+                    int bit = i * 64 + Long.numberOfTrailingZeros(hits);
+                    result[origin + bit - from] = r;
+                    hits &= hits - 1;
+                }
+                anyOpen |= open[i] != 0;
+            }
+            return anyOpen;
+        });
+        return result;
+    }
+    
+    // Call visitor with each room of the type (null = any) that holds at least minCapacity guests and
+    // costs [minPrice, maxPrice] per night, cheapest first (same price: by room number), until it returns false
+    private void visitByPrice(String type, int minCapacity, double minPrice, double maxPrice, java.util.function.Predicate<Room> visitor) {
+        java.util.concurrent.ConcurrentSkipListMap<Integer, java.util.concurrent.ConcurrentSkipListMap<Double, java.util.List<Room>>> partition =
+            searchIndex.get(type == null ? ANY_TYPE : type);
+        if (partition == null || minPrice > maxPrice) {
+            return;
+        }
+        
+        // One price-ordered run per capacity bucket that is big enough
+        java.util.List<java.util.Iterator<java.util.Map.Entry<Double, java.util.List<Room>>>> runs = new java.util.ArrayList<>();
+        for (java.util.concurrent.ConcurrentSkipListMap<Double, java.util.List<Room>> prices : partition.tailMap(minCapacity, true).values()) {
+            runs.add(prices.subMap(minPrice, true, maxPrice, true).entrySet().iterator());
+        }
+        
+        // Merge the runs by price; each price step takes the rooms at that price from every run
+        java.util.PriorityQueue<PriceRun> queue = new java.util.PriorityQueue<>();
+        for (java.util.Iterator<java.util.Map.Entry<Double, java.util.List<Room>>> run : runs) {
+            PriceRun.offer(queue, run);
+        }
+        java.util.List<Room> samePrice = new java.util.ArrayList<>();
+        while (!queue.isEmpty()) {
+            double price = queue.peek().price;
+            samePrice.clear();
+            int sources = 0;
+            while (!queue.isEmpty() && queue.peek().price == price) {
+                PriceRun run = queue.poll();
+                samePrice.addAll(run.rooms);
+                sources++;
+                PriceRun.offer(queue, run.rest);
+            }
+            if (sources > 1) {
+                samePrice.sort(java.util.Comparator.comparingInt(Room::getRoomNumber));   // Each run is already sorted
+            }
+            for (Room r : samePrice) {
+                if (!visitor.test(r)) {
+                    return;
+                }
+            }
+        }
+    }
+    
+    // Current entry of one price-ordered run during the merge in search()
+    private static class PriceRun implements Comparable<PriceRun> {
+        final double price;
+        final java.util.List<Room> rooms;
+        final java.util.Iterator<java.util.Map.Entry<Double, java.util.List<Room>>> rest;
+        
+        private PriceRun(java.util.Map.Entry<Double, java.util.List<Room>> entry, java.util.Iterator<java.util.Map.Entry<Double, java.util.List<Room>>> rest) {
+            this.price = entry.getKey();
+            this.rooms = entry.getValue();
+            this.rest = rest;
+        }
+        
+        // Queue the next entry of a run, if it has one
+        static void offer(java.util.PriorityQueue<PriceRun> queue, java.util.Iterator<java.util.Map.Entry<Double, java.util.List<Room>>> run) {
+            if (run.hasNext()) {
+                queue.add(new PriceRun(run.next(), run));
+            }
+        }
+        
+        @Override
+        public int compareTo(PriceRun other) {
+            return Double.compare(price, other.price);
+        }
+    }
+    
+    private void addToSearchIndex(String partition, Room r) {
+        insertSorted(searchList(partition, r), r);
+    }
+    
+    // The search index list a room belongs in (created if needed)
+    private java.util.List<Room> searchList(String partition, Room r) {
+        return searchIndex.computeIfAbsent(partition, t -> new java.util.concurrent.ConcurrentSkipListMap<>())
+            .computeIfAbsent(r.getCapacity(), c -> new java.util.concurrent.ConcurrentSkipListMap<>())
+            .computeIfAbsent(r.getPrice(), p -> new java.util.concurrent.CopyOnWriteArrayList<>());
+    }
+    
+    // Insert a room into a list that is sorted by room number
+    private static void insertSorted(java.util.List<Room> list, Room r) {
+        int lo = 0, hi = list.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (list.get(mid).getRoomNumber() < r.getRoomNumber()) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        list.add(lo, r);
+    }
+}
@@ -0,0 +1,144 @@
+// ROOM SEARCH BENCHMARK
+// Latency of the multi-criteria room search (RoomRepository.search) on a large hotel
+// Usage: java RoomSearchBenchmark [rooms] [bookings] [queries] [rounds]
+//   defaults: 50000 150000 20000 5
+// Builds `rooms` rooms of every type, 1-6 guests and 800-8,000 a night, books `bookings` random
+// stays of 1-3 nights over the next year, then runs `queries` random searches: any type or one
+// type, 1-4 guests, a price range or none, a stay of 1-7 nights. Each search is answered three ways:
+//   limit     the composite index (type -> capacity -> price) walked cheapest first, stopping at
+//             HotelService.MAX_RESULTS free rooms: what the booking form and the HTTP API do
+//   no limit  the same index walk, but collecting every matching free room
+//   scan      a filter over every room followed by a sort by price, for comparison
+//             (these two are slow, so they only run the first tenth of the searches)
+// The first round is warm-up and not counted; the table shows the median over the other rounds
+// of each way's p50, p90, p99 and max, and checks that the index returns what the scan does.
+// The target is a p99 under 1 ms.
+
+class RoomSearchBenchmark {
+    private RoomRepository rooms = new RoomRepository();
+    private java.util.List<Room> all;
+    private int today = RoomCalendar.today();
+    private long sink;   // Results are counted here so the JIT cannot drop the searches
+    
+    // One random search
+    private static class Query {
+        String type;   // null = any type
+        int checkin, checkout, guests;
+        double minPrice, maxPrice;
+    }
+    
+    public RoomSearchBenchmark(int roomCount, int bookingCount) {
+        java.util.Random random = new java.util.Random(3);
+        java.util.List<Room> built = new java.util.ArrayList<>(roomCount);
+        for (int i = 0; i < roomCount; i++) {
+            built.add(new Room(100_000 + i, "Search Room " + i, 800 + 50 * random.nextInt(145), 1 + random.nextInt(6),
+                RoomRepository.TYPES[random.nextInt(RoomRepository.TYPES.length)]));
+        }
+        rooms.addAll(built);
+        all = new java.util.ArrayList<>(rooms.all());
+        for (int booked = 0; booked < bookingCount; ) {
+            Room room = all.get(random.nextInt(all.size()));
+            int checkin = today + random.nextInt(365);
+            if (room.reserve(checkin, checkin + 1 + random.nextInt(3))) {
+                booked++;
+            }
+        }
+    }
+    
+    private Query[] queries(int count, java.util.Random random) {
+        Query[] queries = new Query[count];
+        for (int i = 0; i < count; i++) {
+            Query q = new Query();
+            q.type = random.nextInt(4) == 0 ? null : RoomRepository.TYPES[random.nextInt(RoomRepository.TYPES.length)];
+            q.checkin = today + random.nextInt(365);
+            q.checkout = q.checkin + 1 + random.nextInt(7);
+            q.guests = 1 + random.nextInt(4);
+            if (random.nextBoolean()) {
+                q.minPrice = 800 + 50 * random.nextInt(100);
+                q.maxPrice = q.minPrice + 500 + 50 * random.nextInt(40);
+            } else {
+                q.minPrice = 0;
+                q.maxPrice = Double.MAX_VALUE;
+            }
+            queries[i] = q;
+        }
+        return queries;
+    }
+    
+    private java.util.List<Room> index(Query q, int limit) {
+        return rooms.search(q.type, q.checkin, q.checkout, q.guests, q.minPrice, q.maxPrice, 0, limit);
+    }
+    
+    private java.util.List<Room> scan(Query q, int limit) {
+        return all.stream()
+            .filter(r -> q.type == null || r.getType().equals(q.type))
+            .filter(r -> r.getCapacity() >= q.guests && r.getPrice() >= q.minPrice && r.getPrice() <= q.maxPrice)
+            .filter(r -> r.isAvailable(q.checkin, q.checkout))
+            .sorted(java.util.Comparator.comparingDouble(Room::getPrice).thenComparingInt(Room::getRoomNumber))
+            .limit(limit)
+            .collect(java.util.stream.Collectors.toList());
+    }
+    
+    // Sorted nanoseconds per search for one way (0 limit, 1 no limit, 2 scan)
+    private long[] time(int way, Query[] queries) {
+        long[] nanos = new long[way == 0 ? queries.length : Math.min(queries.length, Math.max(100, queries.length / 10))];
+        for (int i = 0; i < nanos.length; i++) {
+            long start = System.nanoTime();
+            java.util.List<Room> found = way == 0 ? index(queries[i], HotelService.MAX_RESULTS)
+                : way == 1 ? index(queries[i], Integer.MAX_VALUE) : scan(queries[i], HotelService.MAX_RESULTS);
+            nanos[i] = System.nanoTime() - start;
+            sink += found.size();
+        }
+        java.util.Arrays.sort(nanos);
+        return nanos;
+    }
+    
+    // Number of queries (of the first 2,000) for which the index and the scan disagree
+    private int mismatches(Query[] queries) {
+        int wrong = 0;
+        for (Query q : java.util.Arrays.copyOf(queries, Math.min(queries.length, 2000))) {
+            if (!index(q, HotelService.MAX_RESULTS).equals(scan(q, HotelService.MAX_RESULTS))) {
+                wrong++;
+            }
+        }
+        return wrong;
+    }
+    
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        java.util.Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+    
+    public static void main(String[] args) {
+        int roomCount = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int bookingCount = args.length > 1 ? Integer.parseInt(args[1]) : 150_000;
+        int count = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        RoomSearchBenchmark bench = new RoomSearchBenchmark(roomCount, bookingCount);
+        Query[] queries = bench.queries(count, new java.util.Random(4));
+        System.out.printf("%,d rooms, %,d bookings, %,d searches per round, median of %d rounds after warm-up%n",
+            roomCount, bookingCount, count, rounds);
+        
+        String[] ways = {"limit", "no limit", "scan"};
+        double[] p99 = new double[ways.length];
+        System.out.printf("%-9s %10s %10s %10s %10s%n", "search", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (int w = 0; w < ways.length; w++) {
+            double[][] stats = new double[4][rounds];
+            for (int r = 0; r <= rounds; r++) {
+                long[] nanos = bench.time(w, queries);
+                if (r > 0) {   // Round 0 warms up the JIT
+                    stats[0][r - 1] = nanos[nanos.length / 2] / 1e6;
+                    stats[1][r - 1] = nanos[nanos.length * 90 / 100] / 1e6;
+                    stats[2][r - 1] = nanos[nanos.length * 99 / 100] / 1e6;
+                    stats[3][r - 1] = nanos[nanos.length - 1] / 1e6;
+                }
+            }
+            p99[w] = median(stats[2]);
+            System.out.printf("%-9s %10.3f %10.3f %10.3f %10.2f%n", ways[w], median(stats[0]), median(stats[1]), p99[w], median(stats[3]));
+        }
+        int wrong = bench.mismatches(queries);
+        System.out.printf("index and scan %s; p99 with the limit %s 1 ms%n",
+            wrong == 0 ? "agree on every search" : "DISAGREE on " + wrong + " searches", p99[0] < 1 ? "is under" : "is OVER");
+    }
+}
@@ -15,19 +15,124 @@ public class SerenitySuitesHMS extends JFrame {
     static final Color SIDEBAR = new Color(240, 242, 245);     // Light gray - sidebar background
     
     // Shared data structures accessible across all panels
-    static java.util.List<User> users = new ArrayList<>();          // Stores all registered users
-    static java.util.List<Room> rooms = new ArrayList<>();          // Stores all hotel rooms
-    static java.util.List<Booking> bookings = new ArrayList<>();    // Stores all bookings/reservations
+    static UserDirectory users = new UserDirectory();               // Stores all registered users (indexed)
+    static RoomRepository rooms = new RoomRepository();             // Stores all hotel rooms (indexed)
+    static ReservationEngine bookings = new ReservationEngine(rooms); // Stores all bookings/reservations
+    static OfferCatalog offers = OfferCatalog.defaults();             // Promotions applied to new bookings
+    static RateEngine rates = RateEngine.defaults(rooms, bookings.forecast());   // Nightly rates (season, weekday, occupancy)
+    static HotelService service = new HotelService(users, rooms, bookings, offers, rates);   // Every booking and account operation, without the UI
+    static EventBus events = new EventBus();                          // Tells the screens about data changes
     static User currentUser;                                          // Currently logged-in user
+    static long loginSubmitted;                                       // System.nanoTime() of the last login submit (see MainPanel.paint)
+    static Journal journal;                                           // Saves every change to disk (null if unavailable)
+    static final String JOURNAL_FILE = "serenity_suites.journal";     // Journal location (working directory)
+    static final String SNAPSHOT_FILE = "serenity_suites.snapshot";   // Latest snapshot of the journal
+    private static Snapshot.Loader snapshot;                          // Snapshot whose rooms and bookings are still to load
     
     // UI Components
     private JPanel mainPanel;           // Container for all panels
     private CardLayout cardLayout;      // Layout manager for switching between panels (Login, Register, Main)
+    private java.util.Map<String, JComponent> sharedPanels = new java.util.HashMap<>();   // Content cards that are the same for every user, kept across logins
+    private boolean bookingsLoaded;     // Set on the EDT once loadRoomsAndBookings() has finished
+    private java.util.List<Runnable> afterBookingsLoaded = new java.util.ArrayList<>();   // Waiting for the rooms and bookings (EDT only)
     
     // Constructor - initializes the application
+    // Only the users are loaded before the login screen shows; the rooms and bookings follow on a
+    // worker thread while the user signs in (see showPanel), so a big hotel does not delay startup
     public SerenitySuitesHMS() {
-        DataInitializer.initializeData(users, rooms);  // Load sample data (users, rooms)
+        String problem = loadUsers();                    // Restore saved accounts (or load sample data)
+        if (problem != null) {
+            JOptionPane.showMessageDialog(null, problem, "Storage Error", JOptionPane.WARNING_MESSAGE);
+        }
+        users.setEventBus(events);                       // From now on every change is announced to the screens
         setupUI();                                       // Setup the main UI
+        BackgroundTasks.run(SerenitySuitesHMS::loadRoomsAndBookings, this::bookingsReady,
+            e -> bookingsReady("Could not load the rooms and bookings: " + e));
+    }
+    
+    // Everything at once, for the headless server; returns a warning or null (see loadUsers)
+    static String loadData() {
+        String problem = loadUsers();
+        String hotelProblem = loadRoomsAndBookings();
+        return problem != null ? problem : hotelProblem;
+    }
+    
+    // First loading step: the users from the latest snapshot, then the user records written to
+    // the journal after it. Enough to sign in or register; the journal is open for new user
+    // records from here on.
+    // Sample data is only loaded on the very first launch (nothing saved yet, so the second step
+    // finds no rooms of its own and the sample rooms are journaled right away)
+    // Returns a warning for the user if the data file cannot be used, otherwise null
+    static String loadUsers() {
+        java.nio.file.Path snapshotFile = java.nio.file.Paths.get(SNAPSHOT_FILE);
+        java.nio.file.Path journalFile = java.nio.file.Paths.get(JOURNAL_FILE);
+        try {
+            snapshot = new Snapshot.Loader(snapshotFile);
+            long offset = snapshot.loadUsers(users);
+            journal = new Journal(journalFile, true);
+            journal.replayUsers(users, offset);
+            users.setJournal(journal);
+            if (users.size() == 0) {
+                rooms.setJournal(journal);
+                DataInitializer.initializeData(users, rooms);
+            }
+        } catch (java.io.IOException e) {
+            snapshot = null;
+            journal = null;
+            if (users.size() == 0) {
+                DataInitializer.initializeData(users, rooms);
+            }
+            return "Could not open the data file " + JOURNAL_FILE + ":\n" + e.getMessage() + 
+                "\n\nChanges made in this session will not be saved.";
+        }
+        return null;
+    }
+    
+    // Second loading step, after loadUsers: the snapshot's rooms and bookings and the journal's
+    // room, booking and cancellation records, then the journal is attached to them too
+    // Returns a warning for the user if they cannot be read, otherwise null
+    static String loadRoomsAndBookings() {
+        if (journal == null) {
+            return null;   // loadUsers already reported the problem
+        }
+        try {
+            snapshot.loadRoomsAndBookings(rooms, bookings);
+            snapshot = null;
+            journal.replayRoomsAndBookings(rooms, bookings);
+            rooms.setJournal(journal);
+            bookings.setJournal(journal);
+            Snapshot.startCheckpoints(java.nio.file.Paths.get(SNAPSHOT_FILE), journal);
+        } catch (java.io.IOException e) {
+            journal = null;
+            users.setJournal(null);
+            rooms.setJournal(null);
+            return "Could not read the rooms and bookings from " + JOURNAL_FILE + ":\n" + e.getMessage() + 
+                "\n\nChanges made in this session will not be saved.";
+        }
+        return null;
+    }
+    
+    // On the EDT once the rooms and bookings are in: the screens may use them from now on
+    private void bookingsReady(String problem) {
+        rooms.setEventBus(events);
+        bookings.addListener(events);
+        bookingsLoaded = true;
+        if (problem != null) {
+            JOptionPane.showMessageDialog(this, problem, "Storage Error", JOptionPane.WARNING_MESSAGE);
+        }
+        for (Runnable r : afterBookingsLoaded) {
+            r.run();
+        }
+        afterBookingsLoaded.clear();
+    }
+    
+    // Run on the EDT once the rooms and bookings are loaded (right away if they already are)
+    public void whenBookingsLoaded(Runnable r) {
+        if (bookingsLoaded) {
+            r.run();
+        } else {
+            afterBookingsLoaded.add(r);
+        }
     }
     
     // Setup the main frame and UI
@@ -43,6 +148,10 @@ public class SerenitySuitesHMS extends JFrame {
         // Add login and register panels initially
         mainPanel.add(new LoginPanel(this), "LOGIN");
         mainPanel.add(new RegisterPanel(this), "REGISTER");
+        JLabel loading = new JLabel("Loading rooms and bookings...", SwingConstants.CENTER);
+        loading.setFont(new Font("Segoe UI", Font.PLAIN, 18));
+        loading.setForeground(PRIMARY);
+        mainPanel.add(loading, "LOADING");   // Shown after signing in if the rooms and bookings are not in yet
         
         add(mainPanel);
         cardLayout.show(mainPanel, "LOGIN");  // Show login panel first
@@ -50,40 +159,111 @@ public class SerenitySuitesHMS extends JFrame {
     
     // Method to switch between panels (Login, Register, Main)
     public void showPanel(String panelName) {
-        if (panelName.equals("MAIN")) {
-            // Special handling for MAIN panel - rebuild it with all sub-panels
+        if (panelName.equals("MAIN") && !bookingsLoaded) {
+            cardLayout.show(mainPanel, "LOADING");
+            whenBookingsLoaded(() -> showPanel("MAIN"));
+        } else if (panelName.equals("MAIN")) {
+            // Special handling for MAIN panel - a new sidebar and session for the user who just logged in
+            // (its content cards are only built when first opened; see MainPanel)
             mainPanel.removeAll();
-            mainPanel.add(new LoginPanel(this), "LOGIN");
-            mainPanel.add(new RegisterPanel(this), "REGISTER");
             mainPanel.add(new MainPanel(this), "MAIN");  // MainPanel contains sidebar + home/rooms/book/etc
             cardLayout.show(mainPanel, "MAIN");
             mainPanel.revalidate();
             mainPanel.repaint();
+            
+            // Fresh login and register forms for the next logout, built after the main screen is up
+            SwingUtilities.invokeLater(() -> {
+                mainPanel.add(new LoginPanel(this), "LOGIN");
+                mainPanel.add(new RegisterPanel(this), "REGISTER");
+            });
         } else {
             cardLayout.show(mainPanel, panelName);  // Switch to specified panel
         }
     }
     
+    // Content card that looks the same for every user (e.g. the room list): built the first time,
+    // then moved into each new MainPanel. While it was not on screen it missed the data change
+    // events, so catchUp brings it up to date when it is reused.
+    public <T extends JComponent> T sharedPanel(String name, java.util.function.Supplier<T> factory, java.util.function.Consumer<T> catchUp) {
+        @SuppressWarnings("unchecked")
+        T panel = (T) sharedPanels.get(name);
+        if (panel == null) {
+            panel = factory.get();
+            sharedPanels.put(name, panel);
+        } else {
+            catchUp.accept(panel);
+        }
+        return panel;
+    }
+    
     // Main method - entry point of the application
+    // --server [port] also serves the HTTP API to other desks (see HotelServer); --headless [port] serves it without the window
+    // The API only answers this machine unless --bind <address> names the interface other desks reach it on (0.0.0.0 = all)
     public static void main(String[] args) {
+        int port = serverPort(args);
+        String bind = bindAddress(args);
+        if (java.util.Arrays.asList(args).contains("--headless")) {
+            String problem = loadData();
+            if (problem != null) {
+                System.err.println(problem);
+            }
+            startServer(bind, port);
+            return;
+        }
         SwingUtilities.invokeLater(() -> {
             try {
                 UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
             } catch (Exception e) {}
-            new SerenitySuitesHMS().setVisible(true);
+            SerenitySuitesHMS window = new SerenitySuitesHMS();
+            window.setVisible(true);
+            if (port > 0) {
+                window.whenBookingsLoaded(() -> startServer(bind, port));
+            }
         });
     }
+    
+    // Port given after --server or --headless (HotelServer.DEFAULT_PORT if none), or -1 for no server
+    private static int serverPort(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--server") || args[i].equals("--headless")) {
+                return i + 1 < args.length && args[i + 1].matches("\\d+") ? Integer.parseInt(args[i + 1]) : HotelServer.DEFAULT_PORT;
+            }
+        }
+        return -1;
+    }
+    
+    // Address given after --bind, or null for the loopback address
+    private static String bindAddress(String[] args) {
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--bind")) {
+                return args[i + 1];
+            }
+        }
+        return null;
+    }
+    
+    private static void startServer(String bind, int port) {
+        HotelServer server = new HotelServer(service, bookings);
+        try {
+            java.net.InetAddress address = bind == null ? java.net.InetAddress.getLoopbackAddress() : java.net.InetAddress.getByName(bind);
+            server.start(new java.net.InetSocketAddress(address, port));
+            System.out.println("Hotel API listening on " + address.getHostAddress() + " port " + server.port() + 
+                (server.usesVirtualThreads() ? " (virtual threads)" : " (thread pool)"));
+        } catch (java.io.IOException e) {   // Also an unknown --bind host
+            System.err.println("Could not start the hotel API on port " + port + ": " + e.getMessage());
+        }
+    }
 }
 
 // DATA INITIALIZER
 // Loads sample/initial data when the application starts
 // This includes creating default users and populating room inventory
 class DataInitializer {
-    public static void initializeData(java.util.List<User> users, java.util.List<Room> rooms) {
+    public static void initializeData(UserDirectory users, RoomRepository rooms) {
         // Create default users for testing
-        users.add(new User("admin", "admin123", "ADMIN", "admin@serenitysuites.com", "09123456789"));
-        users.add(new User("guest1", "guest123", "GUEST", "guest@email.com", "09234567890"));
-        users.add(new User("staff1", "staff123", "STAFF", "staff@serenitysuites.com", "09345678901"));
+        users.register(new User("admin", "admin123", "ADMIN", "admin@serenitysuites.com", "09123456789"));
+        users.register(new User("guest1", "guest123", "GUEST", "guest@email.com", "09234567890"));
+        users.register(new User("staff1", "staff123", "STAFF", "staff@serenitysuites.com", "09345678901"));
         
         // Create 5 types of rooms with different capacities and prices
         
@@ -325,9 +505,7 @@ class LoginPanel extends JPanel {
                 return;
             }
             
-            User user = SerenitySuitesHMS.users.stream()
-                .filter(u -> u.getEmail().equals(email))
-                .findFirst().orElse(null);
+            User user = SerenitySuitesHMS.users.findByEmail(email);
             
             if (user != null) {
                 userField.setText(user.getUsername());
@@ -456,7 +634,7 @@ class LoginPanel extends JPanel {
                 return;
             }
             
-            user.setPassword(np);
+            SerenitySuitesHMS.users.changePassword(user, np);
             JOptionPane.showMessageDialog(dialog, 
                 "✅ Password reset successful!\n\nPlease log in with your new password.", 
                 "Success", JOptionPane.INFORMATION_MESSAGE);
@@ -645,14 +823,18 @@ class RegisterPanel extends JPanel {
 }
 
 // Main Panel with Sidebar
+// One per login. Content cards are built the first time they are opened, so a guest
+// never pays for the admin dashboard; cards that do not depend on the user come from
+// the frame's shared panels and are reused by every login.
 class MainPanel extends JPanel {
     private SerenitySuitesHMS parent;
     private CardLayout contentLayout;
     private JPanel contentPanel;
     private JButton activeButton;
-    private ReservationPanel reservationPanel;
-    private AdminPanel adminPanel;
-    private RoomsPanel roomsPanel;
+    private java.util.Map<String, java.util.function.Supplier<JComponent>> cards = new java.util.HashMap<>();   // Card name -> how to get it
+    private java.util.Map<String, JComponent> openedCards = new java.util.HashMap<>();   // Cards built or taken so far
+    private long loginStarted = SerenitySuitesHMS.loginSubmitted;
+    private boolean painted;
     
     public MainPanel(SerenitySuitesHMS parent) {
         this.parent = parent;
@@ -665,33 +847,35 @@ class MainPanel extends JPanel {
         contentPanel = new JPanel(contentLayout);
         contentPanel.setBackground(Color.WHITE);
         
-        reservationPanel = new ReservationPanel();
-        roomsPanel = new RoomsPanel();
-        adminPanel = new AdminPanel(roomsPanel);  // Pass roomsPanel to AdminPanel so it can refresh when booking is cancelled
+        // Same for every user: shared across logins
+        cards.put("HOME", () -> parent.sharedPanel("HOME", HomePanel::new, p -> {}));
+        cards.put("ROOMS", () -> parent.sharedPanel("ROOMS", RoomsPanel::new, RoomsPanel::refreshRooms));
+        cards.put("EVENTS", () -> parent.sharedPanel("EVENTS", EventsPanel::new, p -> {}));
+        cards.put("OFFERS", () -> parent.sharedPanel("OFFERS", OffersPanel::new, p -> {}));
         
-        contentPanel.add(new HomePanel(), "HOME");
-        contentPanel.add(roomsPanel, "ROOMS");
-        contentPanel.add(new BookPanel(parent, this), "BOOK");
-        contentPanel.add(reservationPanel, "RESERVATION");
-        contentPanel.add(new EventsPanel(), "EVENTS");
-        contentPanel.add(new OffersPanel(), "OFFERS");
-        contentPanel.add(new ProfilePanel(), "PROFILE");
+        // This user's own: built for this login
+        cards.put("BOOK", () -> new BookPanel(parent, this));
+        cards.put("RESERVATION", ReservationPanel::new);
+        cards.put("PROFILE", ProfilePanel::new);
         
         if (SerenitySuitesHMS.currentUser.getRole().equals("ADMIN") || 
             SerenitySuitesHMS.currentUser.getRole().equals("STAFF")) {
-            contentPanel.add(adminPanel, "ADMIN");
+            cards.put("ADMIN", () -> parent.sharedPanel("ADMIN", AdminPanel::new, AdminPanel::refreshAll));
         }
         
         add(contentPanel, BorderLayout.CENTER);
-        contentLayout.show(contentPanel, "HOME");
-    }
-    
-    public AdminPanel getAdminPanel() {
-        return adminPanel;
+        switchPanel("HOME", null);
     }
     
-    public RoomsPanel getRoomsPanel() {
-        return roomsPanel;
+    // Log the time from pressing Sign In to the main screen's first paint, once per login
+    // (includes the loading screen if the bookings were not in yet)
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        if (!painted) {
+            painted = true;
+            System.out.printf("Login to first paint: %.0f ms%n", (System.nanoTime() - loginStarted) / 1e6);
+        }
     }
     
     private JPanel createTopBar() {
@@ -747,11 +931,6 @@ class MainPanel extends JPanel {
         JButton book = createSidebarButton("Book", "BOOK");
         JButton reservation = createSidebarButton("Reservation", "RESERVATION");
         
-        reservation.addActionListener(e -> {
-            reservationPanel.refreshReservations();
-            switchPanel("RESERVATION", reservation);
-        });
-        
         JButton events = createSidebarButton("Events", "EVENTS");
         JButton offers = createSidebarButton("Offers", "OFFERS");
         
@@ -818,6 +997,11 @@ class MainPanel extends JPanel {
     }
     
     private void switchPanel(String panel, JButton btn) {
+        if (!openedCards.containsKey(panel)) {
+            JComponent card = cards.get(panel).get();
+            openedCards.put(panel, card);
+            contentPanel.add(card, panel);
+        }
         contentLayout.show(contentPanel, panel);
         if (btn != null && activeButton != null) {
             activeButton.setBackground(SerenitySuitesHMS.SIDEBAR);
@@ -830,70 +1014,33 @@ class MainPanel extends JPanel {
 // Login Handler
 class LoginHandler {
     public static void handleLogin(SerenitySuitesHMS parent, String u, String p, String t) {
-        User usr = SerenitySuitesHMS.users.stream()
-            .filter(x -> x.getUsername().equals(u) && x.getPassword().equals(p) && x.getRole().equals(t))
-            .findFirst().orElse(null);
+        SerenitySuitesHMS.loginSubmitted = System.nanoTime();
+        HotelService.Result<User> result = SerenitySuitesHMS.service.authenticate(u, p, t);
         
-        if (usr != null) {
-            SerenitySuitesHMS.currentUser = usr;
+        if (result.isOk()) {
+            SerenitySuitesHMS.currentUser = result.value;
             parent.showPanel("MAIN");
         } else {
-            JOptionPane.showMessageDialog(parent, "Invalid username, password, or user type!", 
-                "Login Failed", JOptionPane.ERROR_MESSAGE);
+            JOptionPane.showMessageDialog(parent, result.message, result.title, JOptionPane.ERROR_MESSAGE);
         }
     }
 }
 
 // Register Handler
+// Field checks and the account itself are HotelService's; this only shows the outcome
 class RegisterHandler {
     public static void handleRegister(SerenitySuitesHMS parent, String u, String e, 
                                      String ph, String p, String cp, String t) {
-        if (u.isEmpty() || e.isEmpty() || p.isEmpty()) {
-            JOptionPane.showMessageDialog(parent, "Please fill all required fields!", 
-                "Registration Failed", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-        
-        // Validate phone number - must be exactly 11 digits
-        if (ph.isEmpty() || ph.length() != 11) {
-            JOptionPane.showMessageDialog(parent, "Phone number must be exactly 11 digits!", 
-                "Registration Failed", JOptionPane.ERROR_MESSAGE);
+        HotelService.Result<User> result = SerenitySuitesHMS.service.register(u, e, ph, p, cp, t);
+        if (!result.isOk()) {
+            JOptionPane.showMessageDialog(parent, result.message, result.title, JOptionPane.ERROR_MESSAGE);
             return;
         }
-        
-        // Validate email format
-        if (!isValidEmail(e)) {
-            JOptionPane.showMessageDialog(parent, "Please enter a valid email address!", 
-                "Registration Failed", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-        
-        if (!p.equals(cp)) {
-            JOptionPane.showMessageDialog(parent, "Passwords do not match!", 
-                "Registration Failed", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-        
-        boolean exists = SerenitySuitesHMS.users.stream()
-            .anyMatch(x -> x.getUsername().equals(u));
-        
-        if (exists) {
-            JOptionPane.showMessageDialog(parent, "Username already exists!", 
-                "Registration Failed", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-        
-        SerenitySuitesHMS.users.add(new User(u, p, t, e, ph));
         JOptionPane.showMessageDialog(parent, 
             "✅ Registration Successful!\n\nYour account has been created.\nPlease sign in with your credentials.", 
             "Success", JOptionPane.INFORMATION_MESSAGE);
         parent.showPanel("LOGIN");
     }
-    
-    private static boolean isValidEmail(String email) {
-        String emailRegex = "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$";
-        return email.matches(emailRegex);
-    }
 }
 
 // UI Components Utility
@@ -966,8 +1113,14 @@ class UIComponents {
 // USER CLASS
 // Represents a user in the system (Guest, Admin, or Staff)
 // Stores user credentials and payment information
+// The password is kept only as a salted SHA-256 hash, "sha256$<salt>$<hash>" (Base64), which is
+// also what the journal and snapshot store. A fast hash rather than a slow key-derivation
+// function, because every HTTP API request checks a password (see HotelServer).
 class User {
-    private String username, password, role, email, phone;
+    private static final String HASH_PREFIX = "sha256$";
+    private static final java.security.SecureRandom SALTS = new java.security.SecureRandom();
+    
+    private String username, passwordHash, role, email, phone;
     // Multiple payment methods support - stores list of payment entries
     private java.util.ArrayList<PaymentEntry> paymentMethods;
     // Keep these for backward compatibility
@@ -975,16 +1128,62 @@ class User {
     private String paymentNumber;
     
     public User(String u, String p, String r, String e, String ph) {
-        username = u; password = p; role = r; email = e; phone = ph;
+        this(u, r, e, ph);
+        passwordHash = hashPassword(p);
+    }
+    
+    private User(String u, String r, String e, String ph) {
+        username = u; role = r; email = e; phone = ph;
         paymentMethods = new java.util.ArrayList<>();
         // default payment method is Cash with empty number
         paymentMethod = "Cash";
         paymentNumber = "";
     }
     
+    // A user as stored in the journal or a snapshot, with the password already hashed
+    // (files from before hashing hold the plain password, which is hashed here)
+    public static User stored(String u, String storedPassword, String r, String e, String ph) {
+        User user = new User(u, r, e, ph);
+        user.passwordHash = storedPassword(storedPassword);
+        return user;
+    }
+    
+    // ===== Passwords =====
+    
+    // A new salted hash of the password
+    public static String hashPassword(String password) {
+        byte[] salt = new byte[16];
+        SALTS.nextBytes(salt);
+        java.util.Base64.Encoder base64 = java.util.Base64.getEncoder();
+        return HASH_PREFIX + base64.encodeToString(salt) + "$" + base64.encodeToString(digest(salt, password));
+    }
+    
+    // A password field read from a file: a hash as is, a plain password (older files) hashed
+    public static String storedPassword(String value) {
+        return value.startsWith(HASH_PREFIX) ? value : hashPassword(value);
+    }
+    
+    // Whether the password matches the stored hash
+    public boolean checkPassword(String password) {
+        int split = passwordHash.lastIndexOf('$');
+        java.util.Base64.Decoder base64 = java.util.Base64.getDecoder();
+        byte[] salt = base64.decode(passwordHash.substring(HASH_PREFIX.length(), split));
+        return java.security.MessageDigest.isEqual(digest(salt, password), base64.decode(passwordHash.substring(split + 1)));
+    }
+    
+    private static byte[] digest(byte[] salt, String password) {
+        try {
+            java.security.MessageDigest sha = java.security.MessageDigest.getInstance("SHA-256");
+            sha.update(salt);
+            return sha.digest(password.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        } catch (java.security.NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is missing from this Java runtime", e);   // Every JDK has it
+        }
+    }
+    
     // Getters for user information
     public String getUsername() { return username; }
-    public String getPassword() { return password; }
+    public String getPasswordHash() { return passwordHash; }
     public String getRole() { return role; }
     public String getEmail() { return email; }
     public String getPhone() { return phone; }
@@ -993,7 +1192,7 @@ class User {
     public java.util.ArrayList<PaymentEntry> getPaymentMethods() { return paymentMethods; }
     
     // Setters for user information
-    public void setPassword(String p) { password = p; }
+    public void setPasswordHash(String h) { passwordHash = h; }
     public void setEmail(String e) { email = e; }
     public void setPhone(String p) { phone = p; }
     public void setPaymentMethod(String m) { paymentMethod = m; }
@@ -1014,15 +1213,16 @@ class User {
 
 // ROOM CLASS
 // Represents a hotel room with its properties
-// Tracks room details and availability status
+// Tracks room details and availability by date range (see RoomCalendar)
 class Room {
     private int roomNumber, capacity;
     private String name, type;
     private double price;
-    private boolean booked;
+    private RoomCalendar calendar;   // Booked date ranges for this room
     
     public Room(int num, String n, double p, int c, String t) {
-        roomNumber = num; name = n; price = p; capacity = c; type = t; booked = false;
+        roomNumber = num; name = n; price = p; capacity = c; type = t;
+        calendar = new RoomCalendar();
     }
     
     // Getters for room information
@@ -1031,10 +1231,17 @@ class Room {
     public String getType() { return type; }
     public double getPrice() { return price; }
     public int getCapacity() { return capacity; }
-    public boolean isBooked() { return booked; }
+    public RoomCalendar getCalendar() { return calendar; }
+    
+    // A room is "booked" when a stay covers tonight
+    public boolean isBooked() { return calendar.isOccupied(RoomCalendar.today()); }
+    
+    // Check if the room is free for every night between check-in and check-out (epoch days)
+    public boolean isAvailable(int checkin, int checkout) { return calendar.isFree(checkin, checkout); }
     
-    // Setter for room availability
-    public void setBooked(boolean b) { booked = b; }
+    // Reserve / release a stay (epoch days) - reserve returns false if the dates overlap
+    public boolean reserve(int checkin, int checkout) { return calendar.reserve(checkin, checkout); }
+    public boolean release(int checkin, int checkout) { return calendar.release(checkin, checkout); }
 }
 
 // BOOKING CLASS
@@ -1043,93 +1250,99 @@ class Room {
 // Supports promotional offers with automatic discount application
 class Booking {
     private int id, roomNumber, guests;
-    private String username, checkin, checkout, payment, checkinTime, checkoutTime;
+    private int checkinDay, checkoutDay;       // Stay as epoch days [check-in, check-out)
+    private byte checkinSlot, checkoutSlot;    // Half-hour slot of the day (0 = 12:00 AM ... 47 = 11:30 PM)
+    private int nights;                        // Number of nights (at least 1), worked out once
+    private String username, payment;
+    private double pricePerNight;              // Average nightly rate of the stay (rates vary by night, see RateEngine)
+    private double basePrice;                  // Price per night × nights, before any discount
     private double totalPrice;
-    private double pricePerNight;
     private double discountAmount;      // Discount applied (in pesos)
     private int discountPercent;        // Discount percentage
     private String appliedOffer;        // Name of offer applied (if any)
     
-    // Constructor - initializes booking and calculates total price
+    // Constructor - dates as "yyyy-MM-dd" and times as shown in the booking form ("2:30 PM")
+    // Everything is converted once here; the strings are only rebuilt for display
     public Booking(int i, String u, int r, String ci, String co, int g, double p, String pm, String cit, String cot) {
-        id = i; username = u; roomNumber = r; checkin = ci; checkout = co; 
-        guests = g; payment = pm; pricePerNight = p; checkinTime = cit; checkoutTime = cot;
+        this(i, u, r, RoomCalendar.toEpochDay(ci), RoomCalendar.toEpochDay(co), g, p, pm, toTimeSlot(cit), toTimeSlot(cot));
+    }
+    
+    // Constructor from the compact form (epoch days and time slots), e.g. when loading a snapshot
+    public Booking(int i, String u, int r, int ciDay, int coDay, int g, double p, String pm, byte ciSlot, byte coSlot) {
+        id = i; username = u; roomNumber = r; checkinDay = ciDay; checkoutDay = coDay;
+        guests = g; payment = pm; pricePerNight = p; checkinSlot = ciSlot; checkoutSlot = coSlot;
+        this.nights = Math.max(1, coDay - ciDay);   // Minimum 1 night
+        this.basePrice = Math.round(pricePerNight * nights * 100) / 100.0;   // Total = price per night × number of nights, to the cent
         this.discountAmount = 0;
         this.discountPercent = 0;
         this.appliedOffer = "None";
-        this.totalPrice = calculateTotalPrice();  // Calculate total based on dates
+        this.totalPrice = basePrice;
     }
     
-    // Apply an offer/discount to this booking
-    public void applyOffer(Offer offer, Room room) {
-        if (offer.qualifies(this, room)) {
-            this.discountPercent = offer.getDiscountPercent();
-            this.appliedOffer = offer.getName();
-            // Recalculate total with discount
-            double basePrice = calculateBaseTotalPrice();
-            this.discountAmount = basePrice * (discountPercent / 100.0);
-            this.totalPrice = basePrice - discountAmount;
+    // ===== Time slots =====
+    
+    // Convert a time like "2:30 PM" into its half-hour slot of the day
+    static byte toTimeSlot(String time) {
+        String t = time.trim();
+        int colon = t.indexOf(':');
+        int space = t.indexOf(' ', colon + 1);
+        if (colon < 1 || space < 0) {
+            throw new IllegalArgumentException("Invalid time: " + time);
         }
+        int hour = Integer.parseInt(t, 0, colon, 10) % 12;
+        int minute = Integer.parseInt(t, colon + 1, space, 10);
+        if (t.regionMatches(true, space + 1, "PM", 0, 2)) {
+            hour += 12;
+        }
+        return (byte) (hour * 2 + (minute >= 30 ? 1 : 0));
     }
     
-    // Calculate base total price WITHOUT discount
-    private double calculateBaseTotalPrice() {
-        try {
-            java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("yyyy-MM-dd");
-            java.util.Date checkinDate = sdf.parse(checkin);
-            java.util.Date checkoutDate = sdf.parse(checkout);
-            long nights = (checkoutDate.getTime() - checkinDate.getTime()) / (1000 * 60 * 60 * 24);
-            if (nights <= 0) {
-                nights = 1;
-            }
-            return pricePerNight * nights;
-        } catch (Exception e) {
-            return pricePerNight;
-        }
+    // Display text for a half-hour slot, e.g. 29 -> "2:30 PM"
+    static String timeSlotText(int slot) {
+        int h = slot / 2;
+        String ampm = h < 12 ? "AM" : "PM";
+        int hour12 = h == 0 ? 12 : h > 12 ? h - 12 : h;
+        return hour12 + (slot % 2 == 0 ? ":00 " : ":30 ") + ampm;
     }
     
-    // Calculate total price based on number of nights between check-in and check-out
-    // This method parses the dates and calculates the difference in days
-    private double calculateTotalPrice() {
-        try {
-            java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("yyyy-MM-dd");
-            java.util.Date checkinDate = sdf.parse(checkin);
-            java.util.Date checkoutDate = sdf.parse(checkout);
-            long nights = (checkoutDate.getTime() - checkinDate.getTime()) / (1000 * 60 * 60 * 24);
-            if (nights <= 0) {
-                nights = 1; // Minimum 1 night
-            }
-            return pricePerNight * nights;  // Total = price per night × number of nights
-        } catch (Exception e) {
-            return pricePerNight; // Fallback to per-night price if parsing fails
+    // Apply an offer/discount to this booking
+    public void applyOffer(Offer offer, Room room) {
+        if (offer.qualifies(this, room)) {
+            applyDiscount(offer.getDiscountPercent(), offer.getName());
         }
     }
     
+    // Set the discount directly (also used when a saved booking is restored)
+    public void applyDiscount(int percent, String offerName) {
+        this.discountPercent = percent;
+        this.appliedOffer = offerName;
+        // Recalculate total with discount
+        this.discountAmount = basePrice * (discountPercent / 100.0);
+        this.totalPrice = basePrice - discountAmount;
+    }
+    
     // Get number of nights from check-in and check-out dates
     public long getNumberOfNights() {
-        try {
-            java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("yyyy-MM-dd");
-            java.util.Date checkinDate = sdf.parse(checkin);
-            java.util.Date checkoutDate = sdf.parse(checkout);
-            long nights = (checkoutDate.getTime() - checkinDate.getTime()) / (1000 * 60 * 60 * 24);
-            return nights > 0 ? nights : 1;
-        } catch (Exception e) {
-            return 1; // Default to 1 night on error
-        }
+        return nights;
     }
     
     // Getters for booking information
     public int getId() { return id; }
     public String getUsername() { return username; }
     public int getRoomNumber() { return roomNumber; }
-    public String getCheckin() { return checkin; }
-    public String getCheckout() { return checkout; }
-    public String getCheckinTime() { return checkinTime; }
-    public String getCheckoutTime() { return checkoutTime; }
+    public int getCheckinDay() { return checkinDay; }
+    public int getCheckoutDay() { return checkoutDay; }
+    public byte getCheckinSlot() { return checkinSlot; }
+    public byte getCheckoutSlot() { return checkoutSlot; }
+    public String getCheckin() { return java.time.LocalDate.ofEpochDay(checkinDay).toString(); }
+    public String getCheckout() { return java.time.LocalDate.ofEpochDay(checkoutDay).toString(); }
+    public String getCheckinTime() { return timeSlotText(checkinSlot); }
+    public String getCheckoutTime() { return timeSlotText(checkoutSlot); }
     public int getGuests() { return guests; }
     public String getPayment() { return payment; }
     public double getTotalPrice() { return totalPrice; }
     public double getPricePerNight() { return pricePerNight; }
+    public double getBasePrice() { return basePrice; }
     public double getDiscountAmount() { return discountAmount; }
     public int getDiscountPercent() { return discountPercent; }
     public String getAppliedOffer() { return appliedOffer; }
@@ -1140,52 +1353,81 @@ class Booking {
 // ==========================================
 // Represents promotional discounts available to guests
 // Offers are automatically applied based on booking criteria
+// Each offer is declared as data (minimum nights, lead time, room type, date window)
+// and compiled once into a rule; OfferCatalog picks the best one for a booking
 class Offer {
+    static final int ANY_DAY_FROM = Integer.MIN_VALUE;   // No start to the date window
+    static final int ANY_DAY_UNTIL = Integer.MAX_VALUE;  // No end to the date window
+    
     private String name;
     private int discountPercent;
     private String description;
     private String criteria;  // Description of requirements to qualify
     
-    public Offer(String name, int discountPercent, String description, String criteria) {
+    // Qualifying conditions (0 / null / open window = no condition)
+    private int minNights;          // Stay at least this many nights
+    private int minLeadDays;        // Check-in at least this many days after booking
+    private String roomType;        // Only rooms of this type (null = any type)
+    private int firstCheckinDay;    // Check-in on or after this epoch day
+    private int lastCheckinDay;     // Check-in on or before this epoch day
+    private Rule rule;              // The conditions above, compiled once
+    
+    // Compiled condition check; `today` is passed in so it is looked up once per booking, not per offer
+    interface Rule {
+        boolean test(Booking booking, int today);
+    }
+    
+    public Offer(String name, int discountPercent, String description, String criteria,
+            int minNights, int minLeadDays, String roomType) {
+        this(name, discountPercent, description, criteria, minNights, minLeadDays, roomType, ANY_DAY_FROM, ANY_DAY_UNTIL);
+    }
+    
+    // Offer limited to check-ins within [firstCheckinDay, lastCheckinDay] (epoch days), e.g. a seasonal promotion
+    public Offer(String name, int discountPercent, String description, String criteria,
+            int minNights, int minLeadDays, String roomType, int firstCheckinDay, int lastCheckinDay) {
         this.name = name;
         this.discountPercent = discountPercent;
         this.description = description;
         this.criteria = criteria;
+        this.minNights = minNights;
+        this.minLeadDays = minLeadDays;
+        this.roomType = roomType;
+        this.firstCheckinDay = firstCheckinDay;
+        this.lastCheckinDay = lastCheckinDay;
+        this.rule = compile();
     }
     
-    // Check if a booking qualifies for this offer
-    public boolean qualifies(Booking booking, Room room) {
-        long nights = booking.getNumberOfNights();
-        
-        // Weekend Getaway: 20% OFF for 2+ nights
-        if (name.equals("Weekend Getaway")) {
-            return nights >= 2;
+    // Combine only the conditions this offer actually uses into one rule
+    private Rule compile() {
+        Rule r = (b, today) -> true;
+        if (minNights > 0) {
+            Rule prev = r;
+            r = (b, today) -> b.getNumberOfNights() >= minNights && prev.test(b, today);
         }
-        
-        // Early Bird Special: 15% OFF for bookings 30+ days in advance
-        if (name.equals("Early Bird Special")) {
-            try {
-                java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("yyyy-MM-dd");
-                java.util.Date checkinDate = sdf.parse(booking.getCheckin());
-                java.util.Date today = new java.util.Date();
-                long daysInAdvance = (checkinDate.getTime() - today.getTime()) / (1000 * 60 * 60 * 24);
-                return daysInAdvance >= 30;
-            } catch (Exception e) {
-                return false;
-            }
-        }
-        
-        // Extended Stay: 25% OFF for 7+ nights
-        if (name.equals("Extended Stay")) {
-            return nights >= 7;
+        if (minLeadDays > 0) {
+            Rule prev = r;
+            r = (b, today) -> b.getCheckinDay() - today >= minLeadDays && prev.test(b, today);
         }
-        
-        // Honeymoon Package: 30% OFF for Suite rooms only
-        if (name.equals("Honeymoon Package")) {
-            return room.getType().equals("Suite");
+        if (firstCheckinDay != ANY_DAY_FROM || lastCheckinDay != ANY_DAY_UNTIL) {
+            Rule prev = r;
+            r = (b, today) -> b.getCheckinDay() >= firstCheckinDay && b.getCheckinDay() <= lastCheckinDay && prev.test(b, today);
         }
-        
-        return false;
+        return r;
+    }
+    
+    // Check if a booking qualifies for this offer
+    public boolean qualifies(Booking booking, Room room) {
+        return appliesTo(room.getType()) && rule.test(booking, RoomCalendar.today());
+    }
+    
+    // Check the booking conditions only (the room type is already known to match)
+    boolean matches(Booking booking, int today) {
+        return rule.test(booking, today);
+    }
+    
+    // Check if the offer can apply to rooms of the given type
+    public boolean appliesTo(String type) {
+        return roomType == null || roomType.equals(type);
     }
     
     // Getters
@@ -1193,28 +1435,36 @@ class Offer {
     public int getDiscountPercent() { return discountPercent; }
     public String getDescription() { return description; }
     public String getCriteria() { return criteria; }
+    public int getMinNights() { return minNights; }
+    public int getMinLeadDays() { return minLeadDays; }
+    public String getRoomType() { return roomType; }
+    public int getFirstCheckinDay() { return firstCheckinDay; }
+    public int getLastCheckinDay() { return lastCheckinDay; }
 }
 
 // PAYMENT ENTRY CLASS
-// Stores a single payment method with type, number, and account name
+// Stores a single payment method with type, masked number, and account name
+// Only the last four digits of the account/card number are kept ("**** 1234"); the full number
+// never reaches memory past this constructor, the journal or a snapshot.
 class PaymentEntry {
     private String type;      // GCash, PayMaya, Credit Card, etc.
-    private String number;    // Account/Card number
+    private String number;    // Masked account/card number
     private String name;      // Account name
     
     public PaymentEntry(String t, String n, String nm) {
         type = t;
-        number = n;
+        number = mask(n);
         name = nm;
     }
     
     public String getType() { return type; }
-    public String getNumber() { return number; }
     public String getName() { return name; }
+    public String getMaskedNumber() { return number; }
     
-    public String getMaskedNumber() {
-        return number.length() > 4 ? 
-            "**** " + number.substring(number.length() - 4) : 
+    // "**** " + the last four digits; a masked number stays as it is
+    public static String mask(String number) {
+        return number.length() > 4 && !number.startsWith("**** ") ?
+            "**** " + number.substring(number.length() - 4) :
             number;
     }
 }
\ No newline at end of file
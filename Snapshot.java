@@ -0,0 +1,379 @@
+// SNAPSHOT
+// Versioned binary image of all users, rooms and bookings for a fast cold start
+// Startup loads the latest snapshot through a memory-mapped buffer and then replays
+// only the journal records written after it, instead of the whole history.
+//
+// File layout (big-endian):
+//   int magic, int version, long journalOffset (journal bytes already included)
+//   users, rooms, bookings (strings are [int length][UTF-8 bytes], stay dates are epoch-day ints,
+//   check-in/out times are half-hour slot bytes, passwords are hashes and payment numbers are
+//   masked, see User and PaymentEntry)
+//   int lastBookingId, int userCount, int roomCount, int bookingCount
+//   int CRC32 of everything above
+// The counts come last so a snapshot can be written in one pass without knowing them up front.
+//
+// Snapshots are built in the background from the files on disk, never from the live objects, so
+// they are always a consistent cut of the journal even while desks keep booking: the journal is
+// rolled over, and the previous snapshot and the sealed journal file are streamed into the next
+// snapshot record by record. Only the sealed file's cancellations and user changes are held in
+// memory meanwhile, not a copy of the hotel. Once the new snapshot is in place the sealed file is
+// deleted, so the journal on disk stays about as small as what one checkpoint folds in.
+
+class Snapshot {
+    private static final int MAGIC = 0x53534E50;   // "SSNP"
+    private static final int VERSION = 3;   // 3: counts at the end (older snapshots are ignored and rebuilt)
+    private static final int TRAILER = 20;  // lastBookingId, three counts and the CRC
+    
+    // Build a new snapshot once the journal has grown this much past the current one
+    private static final long CHECKPOINT_BYTES = 4L << 20;
+    
+    // ===== Loading =====
+    
+    // Load a snapshot into empty stores; returns the journal offset it covers
+    // Returns 0 (and loads nothing) if there is no snapshot or it is damaged / from another version
+    public static long load(java.nio.file.Path file, UserDirectory users, RoomRepository rooms, ReservationEngine bookings) throws java.io.IOException {
+        Loader loader = new Loader(file);
+        long journalOffset = loader.loadUsers(users);
+        loader.loadRoomsAndBookings(rooms, bookings);
+        return journalOffset;
+    }
+    
+    // A snapshot loaded in two steps, so the window can show the login screen before the rooms and
+    // bookings are in: the users first (they come first in the file), then the rest
+    static class Loader {
+        private java.nio.MappedByteBuffer buf;   // Null if there is no usable snapshot
+        private long journalOffset;
+        private int lastBookingId;
+        private int userCount;
+        private int roomCount;
+        private int bookingCount;
+        
+        // Map the file and check it; a missing, damaged or old snapshot loads nothing
+        Loader(java.nio.file.Path file) throws java.io.IOException {
+            if (!java.nio.file.Files.exists(file)) {
+                return;
+            }
+            try (java.nio.channels.FileChannel ch = java.nio.channels.FileChannel.open(file, java.nio.file.StandardOpenOption.READ)) {
+                buf = ch.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            }
+            if (!isValid(buf)) {
+                buf = null;
+                return;
+            }
+            int trailer = buf.limit() - TRAILER;
+            journalOffset = buf.getLong(8);
+            lastBookingId = buf.getInt(trailer);
+            userCount = buf.getInt(trailer + 4);
+            roomCount = buf.getInt(trailer + 8);
+            bookingCount = buf.getInt(trailer + 12);
+            buf.position(16);
+        }
+        
+        // Load the users into an empty directory; returns the journal offset the snapshot covers (0 if none)
+        long loadUsers(UserDirectory users) {
+            if (buf == null) {
+                return 0;
+            }
+            for (int i = 0; i < userCount; i++) {
+                users.register(getUser(buf));
+            }
+            return journalOffset;
+        }
+        
+        // Load the rooms and bookings into empty stores, after loadUsers()
+        void loadRoomsAndBookings(RoomRepository rooms, ReservationEngine bookings) {
+            if (buf == null) {
+                return;
+            }
+            java.util.List<Room> loaded = new java.util.ArrayList<>(roomCount);
+            for (int i = 0; i < roomCount; i++) {
+                loaded.add(getRoom(buf));
+            }
+            rooms.addAll(loaded);
+            for (int i = 0; i < bookingCount; i++) {
+                Booking b = getBooking(buf);
+                Room r = rooms.get(b.getRoomNumber());
+                if (r != null) {
+                    bookings.tryReserve(r, b.getCheckinDay(), b.getCheckoutDay());
+                }
+                bookings.add(b);
+            }
+            bookings.restoreLastId(lastBookingId);
+            buf = null;   // Let the mapping go
+        }
+    }
+    
+    // Check magic, version and checksum before trusting any of the contents
+    private static boolean isValid(java.nio.ByteBuffer buf) {
+        int size = buf.limit();
+        if (size < 16 + TRAILER || buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION) {
+            return false;
+        }
+        java.util.zip.CRC32 crc = new java.util.zip.CRC32();
+        java.nio.ByteBuffer body = buf.duplicate();
+        body.position(0).limit(size - 4);
+        crc.update(body);
+        return (int) crc.getValue() == buf.getInt(size - 4);
+    }
+    
+    private static User getUser(java.nio.ByteBuffer buf) {
+        User u = User.stored(getString(buf), getString(buf), getString(buf), getString(buf), getString(buf));
+        int payments = buf.getInt();
+        for (int p = 0; p < payments; p++) {
+            u.addPaymentMethod(getString(buf), getString(buf), getString(buf));
+        }
+        return u;
+    }
+    
+    private static Room getRoom(java.nio.ByteBuffer buf) {
+        return new Room(buf.getInt(), getString(buf), buf.getDouble(), buf.getInt(), getString(buf));
+    }
+    
+    private static Booking getBooking(java.nio.ByteBuffer buf) {
+        Booking b = new Booking(buf.getInt(), getString(buf), buf.getInt(), buf.getInt(), buf.getInt(),
+            buf.getInt(), buf.getDouble(), getString(buf), buf.get(), buf.get());
+        int discountPercent = buf.getInt();
+        String offerName = getString(buf);
+        if (discountPercent > 0) {
+            b.applyDiscount(discountPercent, offerName);
+        }
+        return b;
+    }
+    
+    private static String getString(java.nio.ByteBuffer buf) {
+        byte[] bytes = new byte[buf.getInt()];
+        buf.get(bytes);
+        return new String(bytes, java.nio.charset.StandardCharsets.UTF_8);
+    }
+    
+    // ===== Writing =====
+    
+    // Write the given stores as a snapshot covering the journal up to journalOffset
+    public static void write(java.nio.file.Path file, UserDirectory users, RoomRepository rooms, ReservationEngine bookings, long journalOffset) throws java.io.IOException {
+        try (Writer out = new Writer(file, journalOffset)) {
+            for (User u : users.all()) {
+                out.user(u);
+            }
+            for (Room r : rooms.all()) {
+                out.room(r);
+            }
+            for (Booking b : bookings.all()) {
+                out.booking(b);
+            }
+            out.finish(bookings.lastId());
+        }
+    }
+    
+    // Writes one snapshot front to back: users, then rooms, then bookings, then finish()
+    // Written to a temporary file first and then moved into place, so a crash never leaves half a snapshot
+    private static class Writer implements java.io.Closeable {
+        private java.nio.file.Path file, tmp;
+        private java.io.OutputStream raw;
+        private java.util.zip.CRC32 crc = new java.util.zip.CRC32();
+        private java.io.DataOutputStream out;
+        private int users, rooms, bookings;
+        
+        Writer(java.nio.file.Path file, long journalOffset) throws java.io.IOException {
+            this.file = file;
+            this.tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            this.raw = new java.io.BufferedOutputStream(java.nio.file.Files.newOutputStream(tmp), 1 << 16);
+            this.out = new java.io.DataOutputStream(new java.util.zip.CheckedOutputStream(raw, crc));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(journalOffset);
+        }
+        
+        void user(User u) throws java.io.IOException {
+            putString(out, u.getUsername());
+            putString(out, u.getPasswordHash());
+            putString(out, u.getRole());
+            putString(out, u.getEmail());
+            putString(out, u.getPhone());
+            out.writeInt(u.getPaymentMethods().size());
+            for (PaymentEntry p : u.getPaymentMethods()) {
+                putString(out, p.getType());
+                putString(out, p.getMaskedNumber());
+                putString(out, p.getName());
+            }
+            users++;
+        }
+        
+        void room(Room r) throws java.io.IOException {
+            out.writeInt(r.getRoomNumber());
+            putString(out, r.getName());
+            out.writeDouble(r.getPrice());
+            out.writeInt(r.getCapacity());
+            putString(out, r.getType());
+            rooms++;
+        }
+        
+        void booking(Booking b) throws java.io.IOException {
+            out.writeInt(b.getId());
+            putString(out, b.getUsername());
+            out.writeInt(b.getRoomNumber());
+            out.writeInt(b.getCheckinDay());
+            out.writeInt(b.getCheckoutDay());
+            out.writeInt(b.getGuests());
+            out.writeDouble(b.getPricePerNight());
+            putString(out, b.getPayment());
+            out.writeByte(b.getCheckinSlot());
+            out.writeByte(b.getCheckoutSlot());
+            out.writeInt(b.getDiscountPercent());
+            putString(out, b.getAppliedOffer());
+            bookings++;
+        }
+        
+        // Write the counts and checksum and move the file into place
+        void finish(int lastBookingId) throws java.io.IOException {
+            out.writeInt(lastBookingId);
+            out.writeInt(users);
+            out.writeInt(rooms);
+            out.writeInt(bookings);
+            out.flush();
+            // Checksum of everything above, written past the checked stream
+            new java.io.DataOutputStream(raw).writeInt((int) crc.getValue());
+            raw.close();
+            try (java.nio.channels.FileChannel ch = java.nio.channels.FileChannel.open(tmp, java.nio.file.StandardOpenOption.WRITE)) {
+                ch.force(true);
+            }
+            java.nio.file.Files.move(tmp, file, java.nio.file.StandardCopyOption.REPLACE_EXISTING, java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+        }
+        
+        // Closing without finish() leaves the previous snapshot as it was
+        @Override
+        public void close() throws java.io.IOException {
+            raw.close();
+            java.nio.file.Files.deleteIfExists(tmp);
+        }
+    }
+    
+    private static void putString(java.io.DataOutputStream out, String s) throws java.io.IOException {
+        byte[] bytes = s.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    // ===== Background checkpoints =====
+    
+    // Journal offset covered by the snapshot on disk (0 if there is no usable snapshot)
+    private static long coveredOffset(java.nio.file.Path file) {
+        try (java.io.DataInputStream in = new java.io.DataInputStream(java.nio.file.Files.newInputStream(file))) {
+            return in.readInt() == MAGIC && in.readInt() == VERSION ? in.readLong() : 0;
+        } catch (java.io.IOException e) {
+            return 0;
+        }
+    }
+    
+    // Once the journal has grown enough since the last snapshot, roll it over and fold the sealed
+    // file into a new snapshot, then delete it. A sealed file left by an earlier run (a crash or
+    // an error before it was deleted) is folded first.
+    public static void checkpoint(java.nio.file.Path snapshotFile, Journal journal) throws java.io.IOException {
+        java.nio.file.Path sealed = journal.sealedFile();
+        if (!java.nio.file.Files.exists(sealed)) {
+            if (journal.syncedLength() - coveredOffset(snapshotFile) < CHECKPOINT_BYTES) {
+                return;
+            }
+            journal.rollOver();
+        }
+        merge(snapshotFile, journal);
+        java.nio.file.Files.delete(sealed);
+    }
+    
+    // Stream the snapshot on disk plus the journal's sealed file into a new snapshot
+    // One pass over the sealed file collects what changes earlier entries (cancellations and user
+    // records, by username) and the new rooms; then the old snapshot is copied with those applied,
+    // and a second pass over the sealed file appends the bookings it added that are still live.
+    private static void merge(java.nio.file.Path snapshotFile, Journal journal) throws java.io.IOException {
+        Loader old = new Loader(snapshotFile);
+        long from = old.buf == null ? 0 : old.journalOffset;
+        java.util.Set<Integer> cancelled = new java.util.HashSet<>();
+        java.util.Map<String, java.util.List<byte[]>> userRecords = new java.util.LinkedHashMap<>();   // In journal order per user
+        java.util.List<Room> newRooms = new java.util.ArrayList<>();
+        int[] lastBookingId = {old.lastBookingId};
+        long end = journal.readSealed(from, body -> {
+            switch (body[0]) {
+                case Journal.ADD_ROOM:
+                    newRooms.add(Journal.roomOf(body));
+                    break;
+                case Journal.BOOK:
+                    lastBookingId[0] = Math.max(lastBookingId[0], Journal.bookingOf(body).getId());
+                    break;
+                case Journal.CANCEL:
+                    cancelled.add(Journal.bookingIdOf(body));   // Booking IDs are never reused
+                    break;
+                default:
+                    userRecords.computeIfAbsent(Journal.usernameOf(body), k -> new java.util.ArrayList<>()).add(body);
+            }
+        });
+        
+        try (Writer out = new Writer(snapshotFile, end)) {
+            for (int i = 0; i < old.userCount; i++) {
+                User u = getUser(old.buf);
+                java.util.List<byte[]> records = userRecords.remove(u.getUsername());
+                if (records != null) {
+                    UserDirectory one = new UserDirectory();
+                    one.register(u);
+                    for (byte[] body : records) {
+                        Journal.apply(body, one, null, null);
+                    }
+                }
+                out.user(u);
+            }
+            // Users registered in the sealed file (records for unknown usernames change nothing, as in a replay)
+            for (java.util.List<byte[]> records : userRecords.values()) {
+                UserDirectory one = new UserDirectory();
+                for (byte[] body : records) {
+                    Journal.apply(body, one, null, null);
+                }
+                for (User u : one.all()) {
+                    out.user(u);
+                }
+            }
+            
+            java.util.Set<Integer> roomNumbers = new java.util.HashSet<>();
+            for (int i = 0; i < old.roomCount; i++) {
+                Room r = getRoom(old.buf);
+                roomNumbers.add(r.getRoomNumber());
+                out.room(r);
+            }
+            for (Room r : newRooms) {
+                if (roomNumbers.add(r.getRoomNumber())) {
+                    out.room(r);
+                }
+            }
+            
+            for (int i = 0; i < old.bookingCount; i++) {
+                Booking b = getBooking(old.buf);
+                if (!cancelled.contains(b.getId())) {
+                    out.booking(b);
+                }
+            }
+            journal.readSealed(from, body -> {
+                if (body[0] == Journal.BOOK) {
+                    Booking b = Journal.bookingOf(body);
+                    if (!cancelled.contains(b.getId())) {
+                        out.booking(b);
+                    }
+                }
+            });
+            out.finish(lastBookingId[0]);
+        }
+    }
+    
+    // Check for a new snapshot shortly after startup and then every few minutes, on a daemon thread
+    public static void startCheckpoints(java.nio.file.Path snapshotFile, Journal journal) {
+        java.util.concurrent.ScheduledExecutorService timer = java.util.concurrent.Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "snapshot-checkpoint");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        timer.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint(snapshotFile, journal);
+            } catch (java.io.IOException e) {
+                System.err.println("Snapshot checkpoint failed: " + e.getMessage());   // Retried on the next run
+            }
+        }, 30, 300, java.util.concurrent.TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,202 @@
+// STARTUP TIMING
+// Cold-start benchmark: how long until the login screen can be used with a big booking history on disk
+// Usage: java StartupTiming [bookings] [runs] [data folder]
+//   defaults: 1000000 3 and a new folder under java.io.tmpdir (a RAM disk such as /dev/shm builds faster)
+// Builds the data once in the folder, through the journal like the desks would: the sample
+// users, ROOMS extra rooms and `bookings` bookings, a snapshot, then TAIL more bookings after it.
+// A folder that already has a snapshot is reused as it is.
+// Then every run starts a fresh JVM in that folder (nothing cached or warmed up) for each way
+// of loading and prints the median time per step:
+//   full      replay the whole history, no snapshot (from HISTORY_FILE, a copy of the journal taken
+//             before the snapshot: the snapshot rolls the journal over, so it ends up holding only the tail)
+//   snapshot  load the snapshot and replay the journal tail, everything in one step
+//   split     what the window does: users first (the login screen can be used from here),
+//             then the rooms and bookings on another thread
+//   window    the real window until the login screen has painted, and until the bookings are in
+//             (only when there is a display)
+// Times are milliseconds from the JVM's start, so they include starting Java itself.
+
+class StartupTiming {
+    private static final int ROOMS = 10_000;
+    private static final int TAIL = 1_000;          // Bookings after the snapshot
+    private static final int WRITERS = 16;          // Threads booking while the data is built (they share fsyncs)
+    private static final String[] MODES = {"full", "snapshot", "split", "window"};
+    private static final String HISTORY_FILE = "history.journal";
+    
+    // ===== Building the data =====
+    
+    // Book `count` random stays through a journal in the folder and snapshot all but the last TAIL
+    static void build(java.nio.file.Path folder, int count) throws Exception {
+        java.nio.file.Files.createDirectories(folder);
+        java.nio.file.Path journalFile = folder.resolve(SerenitySuitesHMS.JOURNAL_FILE);
+        java.nio.file.Path snapshotFile = folder.resolve(SerenitySuitesHMS.SNAPSHOT_FILE);
+        java.nio.file.Files.deleteIfExists(journalFile);
+        java.nio.file.Files.deleteIfExists(snapshotFile);
+        long start = System.nanoTime();
+        
+        UserDirectory users = new UserDirectory();
+        RoomRepository rooms = new RoomRepository();
+        ReservationEngine bookings = new ReservationEngine(rooms);
+        Journal journal = new Journal(journalFile, true);
+        journal.replay(users, rooms, bookings, 0);
+        users.setJournal(journal);
+        rooms.setJournal(journal);
+        bookings.setJournal(journal);
+        DataInitializer.initializeData(users, rooms);
+        for (int i = 0; i < ROOMS; i++) {
+            rooms.add(new Room(10_000 + i, "Benchmark Room " + i, 1000 + 50 * (i % 40), 1 + i % 4, RoomRepository.TYPES[i % RoomRepository.TYPES.length]));
+        }
+        
+        book(rooms, bookings, count - TAIL, RoomCalendar.today());
+        java.nio.file.Files.copy(journalFile, folder.resolve(HISTORY_FILE), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        Snapshot.checkpoint(snapshotFile, journal);
+        book(rooms, bookings, TAIL, RoomCalendar.today() + 3 * 365);   // Past the snapshot's stays, so none is refused
+        System.out.printf("Built %,d bookings in %.1f s: journal %,d bytes, snapshot %,d bytes%n", bookings.size(),
+            (System.nanoTime() - start) / 1e9, java.nio.file.Files.size(journalFile), java.nio.file.Files.size(snapshotFile));
+    }
+    
+    // Book `count` stays of 1-3 nights in the three years from firstDay, from WRITERS threads
+    private static void book(RoomRepository rooms, ReservationEngine bookings, int count, int firstDay) throws InterruptedException {
+        java.util.List<Room> all = new java.util.ArrayList<>(rooms.all());
+        java.util.concurrent.atomic.AtomicInteger left = new java.util.concurrent.atomic.AtomicInteger(count);
+        Thread[] writers = new Thread[WRITERS];
+        for (int w = 0; w < WRITERS; w++) {
+            writers[w] = new Thread(() -> {
+                java.util.concurrent.ThreadLocalRandom random = java.util.concurrent.ThreadLocalRandom.current();
+                while (left.get() > 0) {
+                    Room room = all.get(random.nextInt(all.size()));
+                    int checkin = firstDay + random.nextInt(3 * 365);
+                    int checkout = checkin + 1 + random.nextInt(3);
+                    if (bookings.tryReserve(room, checkin, checkout)) {
+                        if (left.getAndDecrement() <= 0) {
+                            bookings.release(room, checkin, checkout);   // Another writer took the last one
+                            break;
+                        }
+                        bookings.add(new Booking(bookings.nextId(), "guest1", room.getRoomNumber(), checkin, checkout,
+                            1, room.getPrice(), "Cash", (byte) 28, (byte) 24));
+                    }
+                }
+            });
+            writers[w].start();
+        }
+        for (Thread w : writers) {
+            w.join();
+        }
+    }
+    
+    // ===== Measuring (each mode runs in its own JVM, started in the data folder) =====
+    
+    private static long sinceJvmStart() {
+        return System.currentTimeMillis() - java.lang.management.ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+    
+    // Load the folder's data the given way and print "step=ms ..." on one line
+    private static void measure(String mode) throws Exception {
+        java.nio.file.Path journalFile = java.nio.file.Paths.get(SerenitySuitesHMS.JOURNAL_FILE);
+        java.nio.file.Path snapshotFile = java.nio.file.Paths.get(SerenitySuitesHMS.SNAPSHOT_FILE);
+        long main = sinceJvmStart();
+        if (mode.equals("full") || mode.equals("snapshot")) {
+            RoomRepository rooms = new RoomRepository();
+            ReservationEngine bookings = new ReservationEngine(rooms);
+            UserDirectory users = new UserDirectory();
+            if (mode.equals("full")) {
+                new Journal(java.nio.file.Paths.get(HISTORY_FILE), true).replay(users, rooms, bookings, 0);
+            } else {
+                new Journal(journalFile, true).replay(users, rooms, bookings, Snapshot.load(snapshotFile, users, rooms, bookings));
+            }
+            System.out.println("RESULT jvm=" + main + " loaded=" + sinceJvmStart() + " bookings=" + bookings.size());
+        } else if (mode.equals("split")) {
+            String problem = SerenitySuitesHMS.loadUsers();
+            long login = sinceJvmStart();
+            problem = problem != null ? problem : SerenitySuitesHMS.loadRoomsAndBookings();
+            long loaded = sinceJvmStart();
+            if (problem != null) {
+                System.out.println(problem);
+            }
+            System.out.println("RESULT jvm=" + main + " login=" + login + " loaded=" + loaded + " bookings=" + SerenitySuitesHMS.bookings.size());
+        } else {
+            long[] painted = new long[1];
+            javax.swing.SwingUtilities.invokeLater(() -> {
+                try {
+                    javax.swing.UIManager.setLookAndFeel(javax.swing.UIManager.getSystemLookAndFeelClassName());
+                } catch (Exception e) {}
+                SerenitySuitesHMS window = new SerenitySuitesHMS();
+                window.setVisible(true);
+                // Painting is queued behind setVisible; this runs once the first paint is done
+                javax.swing.SwingUtilities.invokeLater(() -> javax.swing.SwingUtilities.invokeLater(() -> {
+                    painted[0] = sinceJvmStart();
+                    window.whenBookingsLoaded(() -> {
+                        System.out.println("RESULT jvm=" + main + " login=" + painted[0] + " loaded=" + sinceJvmStart() +
+                            " bookings=" + SerenitySuitesHMS.bookings.size());
+                        System.exit(0);
+                    });
+                }));
+            });
+            return;   // The window's thread carries on and exits
+        }
+        System.exit(0);   // The snapshot checkpoint thread would otherwise wait for its first run
+    }
+    
+    // Run one mode in a new JVM in the folder; returns its "step=value" pairs
+    private static java.util.Map<String, String> runChild(java.nio.file.Path folder, String mode) throws Exception {
+        String javaCommand = java.nio.file.Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process child = new ProcessBuilder(javaCommand, "-cp", System.getProperty("java.class.path"), "StartupTiming", "--measure", mode)
+            .directory(folder.toFile()).redirectErrorStream(true).start();
+        java.util.Map<String, String> result = new java.util.LinkedHashMap<>();
+        try (java.io.BufferedReader out = new java.io.BufferedReader(new java.io.InputStreamReader(child.getInputStream()))) {
+            for (String line = out.readLine(); line != null; line = out.readLine()) {
+                if (!line.startsWith("RESULT ")) {
+                    System.out.println("  [" + mode + "] " + line);
+                    continue;
+                }
+                for (String pair : line.substring(7).split(" ")) {
+                    int eq = pair.indexOf('=');
+                    result.put(pair.substring(0, eq), pair.substring(eq + 1));
+                }
+            }
+        }
+        child.waitFor();
+        return result;
+    }
+    
+    private static long median(java.util.List<Long> values) {
+        java.util.List<Long> sorted = new java.util.ArrayList<>(values);
+        java.util.Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+    
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && args[0].equals("--measure")) {
+            measure(args[1]);
+            return;
+        }
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        java.nio.file.Path folder = args.length > 2 ? java.nio.file.Paths.get(args[2]) : java.nio.file.Files.createTempDirectory("hms-startup");
+        if (!java.nio.file.Files.exists(folder.resolve(SerenitySuitesHMS.SNAPSHOT_FILE))) {
+            build(folder, count);
+        }
+        
+        System.out.printf("%-10s %10s %10s %10s %10s   (median of %d, ms from JVM start)%n", "mode", "jvm ready", "login", "all loaded", "bookings", runs);
+        for (String mode : MODES) {
+            if (mode.equals("window") && java.awt.GraphicsEnvironment.isHeadless()) {
+                System.out.printf("%-10s skipped: no display%n", mode);
+                continue;
+            }
+            java.util.Map<String, java.util.List<Long>> times = new java.util.HashMap<>();
+            String booked = "?";
+            for (int r = 0; r < runs; r++) {
+                java.util.Map<String, String> result = runChild(folder, mode);
+                for (String step : new String[]{"jvm", "login", "loaded"}) {
+                    if (result.containsKey(step)) {
+                        times.computeIfAbsent(step, s -> new java.util.ArrayList<>()).add(Long.parseLong(result.get(step)));
+                    }
+                }
+                booked = result.getOrDefault("bookings", "?");
+            }
+            // Without a separate login step the login screen waits for everything
+            java.util.List<Long> login = times.getOrDefault("login", times.get("loaded"));
+            System.out.printf("%-10s %10d %10d %10d %10s%n", mode, median(times.get("jvm")), median(login), median(times.get("loaded")), booked);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+// USER DIRECTORY
+// Holds every registered user with hash indexes for login, registration and password reset
+// - by username (exact match)
+// - by email (trimmed and lower-cased, so "Guest@Email.com" finds "guest@email.com")
+// Reads are lock-free; every change to a user goes through the synchronized methods
+// below so both indexes always point at the same users and the change is journaled
+
+class UserDirectory {
+    private java.util.concurrent.ConcurrentHashMap<String, User> byUsername = new java.util.concurrent.ConcurrentHashMap<>();
+    private java.util.concurrent.ConcurrentHashMap<String, User> byEmail = new java.util.concurrent.ConcurrentHashMap<>();
+    private Journal journal;   // Where changes are logged (null while replaying or if persistence is off)
+    private EventBus events;   // Told about each new user (null while replaying)
+    
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+    
+    public void setEventBus(EventBus events) {
+        this.events = events;
+    }
+    
+    // Normalize an email address for lookups
+    static String emailKey(String email) {
+        return email.trim().toLowerCase(java.util.Locale.ROOT);
+    }
+    
+    // Add a new user; returns false if the username or email is already registered
+    public synchronized boolean register(User u) {
+        if (byUsername.containsKey(u.getUsername()) || byEmail.containsKey(emailKey(u.getEmail()))) {
+            return false;
+        }
+        if (journal != null) {
+            journal.logRegister(u);
+        }
+        byUsername.put(u.getUsername(), u);
+        byEmail.put(emailKey(u.getEmail()), u);
+        if (events != null) {
+            events.publish(new EventBus.UserRegistered(u));
+        }
+        return true;
+    }
+    
+    // Find a user by username, or null if there is none
+    public User findByUsername(String username) {
+        return byUsername.get(username);
+    }
+    
+    // Find a user by email (case-insensitive), or null if there is none
+    public User findByEmail(String email) {
+        return byEmail.get(emailKey(email));
+    }
+    
+    // Check if the email belongs to someone already
+    public boolean isEmailTaken(String email) {
+        return byEmail.containsKey(emailKey(email));
+    }
+    
+    // Return the user matching all three credentials, or null if any of them is wrong
+    public User authenticate(String username, String password, String role) {
+        User u = authenticate(username, password);
+        return u != null && u.getRole().equals(role) ? u : null;
+    }
+    
+    // Return the user with this username and password (any role), or null
+    public User authenticate(String username, String password) {
+        User u = username == null ? null : byUsername.get(username);
+        if (u != null && password != null && u.checkPassword(password)) {
+            return u;
+        }
+        return null;
+    }
+    
+    // Update a user's email and phone; returns false if another user already has the email
+    public synchronized boolean updateProfile(User u, String newEmail, String newPhone) {
+        String oldKey = emailKey(u.getEmail());
+        String newKey = emailKey(newEmail);
+        boolean emailChanged = !newKey.equals(oldKey);
+        if (emailChanged && byEmail.containsKey(newKey)) {
+            return false;
+        }
+        if (journal != null) {
+            journal.logProfile(u, newEmail, newPhone);
+        }
+        if (emailChanged) {
+            byEmail.put(newKey, u);
+            byEmail.remove(oldKey, u);
+        }
+        u.setEmail(newEmail);
+        u.setPhone(newPhone);
+        return true;
+    }
+    
+    // Set a new password (reset or profile change); only its hash is kept and journaled
+    public synchronized void changePassword(User u, String newPassword) {
+        String hash = User.hashPassword(newPassword);
+        if (journal != null) {
+            journal.logPassword(u, hash);
+        }
+        u.setPasswordHash(hash);
+    }
+    
+    // Save a new payment method to a user's profile; only the masked number is kept and journaled
+    public synchronized void addPaymentMethod(User u, String type, String number, String name) {
+        String masked = PaymentEntry.mask(number);
+        if (journal != null) {
+            journal.logAddPayment(u, type, masked, name);
+        }
+        u.addPaymentMethod(type, masked, name);
+    }
+    
+    // Remove one of a user's saved payment methods by its position in the list
+    public synchronized void removePaymentMethod(User u, int index) {
+        if (index < 0 || index >= u.getPaymentMethods().size()) {
+            return;
+        }
+        if (journal != null) {
+            journal.logRemovePayment(u, index);
+        }
+        u.removePaymentMethod(index);
+    }
+    
+    public int size() {
+        return byUsername.size();
+    }
+    
+    // All registered users (read-only view, no particular order)
+    public java.util.Collection<User> all() {
+        return java.util.Collections.unmodifiableCollection(byUsername.values());
+    }
+}
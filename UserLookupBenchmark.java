@@ -0,0 +1,114 @@
+// USER LOOKUP BENCHMARK
+// How long a login, a registration check and a password-reset lookup take as the guest base grows
+// Usage: java UserLookupBenchmark [lookups] [rounds]
+//   defaults: 1000000 5
+// For 1,000, 100,000 and 1,000,000 users it fills a UserDirectory (in memory, no journal)
+// and times, per lookup:
+//   login     authenticate() with a random username; one in ten is not registered or has a wrong password
+//             (most of its time is the salted SHA-256 of the password, about a microsecond)
+//   email     findByEmail() with a random address in random upper/lower case (the forgot-password lookup)
+//   scan      the old way for comparison: a stream over every user matching username, password and role
+//             (fewer lookups, it is slow)
+// The first round is warm-up and not counted; the table shows the median of the other rounds.
+// The index lookups do the same work at any size (they only slow down by cache misses once the
+// directory outgrows the CPU caches); the scan grows with every user.
+
+class UserLookupBenchmark {
+    private static final int[] SIZES = {1_000, 100_000, 1_000_000};
+    private static final long SCAN_BUDGET = 20_000_000;   // Users compared per scan round (lookups x directory size)
+    private static final String[] ROLES = {"GUEST", "STAFF", "ADMIN"};
+    
+    private UserDirectory users = new UserDirectory();
+    private int size;
+    private int sink;   // Results are counted here so the JIT cannot drop the lookups
+    
+    public UserLookupBenchmark(int size) {
+        this.size = size;
+        for (int i = 0; i < size; i++) {
+            users.register(new User("user" + i, "pass" + i, ROLES[i % ROLES.length], "user" + i + "@email.com", "09" + (100_000_000 + i)));
+        }
+    }
+    
+    // Random logins: mostly right, some unknown users and wrong passwords
+    private String[][] logins(int count, java.util.Random random) {
+        String[][] logins = new String[count][];
+        for (int i = 0; i < count; i++) {
+            int n = random.nextInt(size);
+            int roll = random.nextInt(20);
+            String username = roll == 0 ? "nobody" + n : "user" + n;
+            String password = roll == 1 ? "wrong" : "pass" + n;
+            logins[i] = new String[]{username, password, ROLES[n % ROLES.length]};
+        }
+        return logins;
+    }
+    
+    private String[] emails(int count, java.util.Random random) {
+        String[] emails = new String[count];
+        for (int i = 0; i < count; i++) {
+            String email = "user" + random.nextInt(size) + "@email.com";
+            emails[i] = random.nextBoolean() ? email.toUpperCase(java.util.Locale.ROOT) : email;
+        }
+        return emails;
+    }
+    
+    // Nanoseconds per lookup for each kind, median over the counted rounds
+    public double[] run(int lookups, int rounds) {
+        java.util.Random random = new java.util.Random(size);
+        String[][] logins = logins(lookups, random);
+        String[] emails = emails(lookups, random);
+        int scans = (int) Math.max(10, Math.min(lookups, SCAN_BUDGET / size));
+        double[][] times = new double[3][rounds];
+        for (int r = 0; r <= rounds; r++) {
+            long start = System.nanoTime();
+            for (String[] login : logins) {
+                if (users.authenticate(login[0], login[1], login[2]) != null) {
+                    sink++;
+                }
+            }
+            long loginNanos = System.nanoTime() - start;
+            
+            start = System.nanoTime();
+            for (String email : emails) {
+                if (users.findByEmail(email) != null) {
+                    sink++;
+                }
+            }
+            long emailNanos = System.nanoTime() - start;
+            
+            start = System.nanoTime();
+            for (int i = 0; i < scans; i++) {
+                String[] login = logins[i];
+                if (users.all().stream().anyMatch(u -> u.getUsername().equals(login[0]) &&
+                        u.getRole().equals(login[2]) && u.checkPassword(login[1]))) {
+                    sink++;
+                }
+            }
+            long scanNanos = System.nanoTime() - start;
+            
+            if (r > 0) {   // Round 0 warms up the JIT
+                times[0][r - 1] = loginNanos / (double) lookups;
+                times[1][r - 1] = emailNanos / (double) lookups;
+                times[2][r - 1] = scanNanos / (double) scans;
+            }
+        }
+        return new double[]{median(times[0]), median(times[1]), median(times[2])};
+    }
+    
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        java.util.Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+    
+    public static void main(String[] args) {
+        int lookups = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        System.out.printf("%d lookups per round, median of %d rounds after warm-up%n", lookups, rounds);
+        System.out.printf("%10s %12s %12s %14s%n", "users", "login ns", "email ns", "scan us");
+        for (int size : SIZES) {
+            UserLookupBenchmark bench = new UserLookupBenchmark(size);
+            double[] ns = bench.run(lookups, rounds);
+            System.out.printf("%,10d %12.0f %12.0f %14.1f%n", size, ns[0], ns[1], ns[2] / 1000);
+        }
+    }
+}